@@ -0,0 +1,49 @@
+package com.sms2.bench;
+
+import com.sms2.domain.Student;
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/** Seeded synthetic students and CSV files, so every run and every size measures the same data. */
+final class BenchData {
+    static final String[] PROGRAMMES = {"Computer Science", "Mathematics", "Physics", "Biology", "Economics", "Law", "Nursing"};
+    private static final String[] FIRST = {"Kwame", "Ama", "Kofi", "Abena", "Yaw", "Akosua", "Alice", "Daniel", "Grace", "Samuel"};
+    private static final String[] LAST = {"Mensah", "Owusu", "Boateng", "Asante", "Osei", "Addo", "Smith", "Appiah", "Darko", "Nkrumah"};
+
+    private BenchData() {}
+
+    static String id(int i) { return String.format("STU%07d", i); }
+
+    static Student student(Random r, int i) {
+        Student s = new Student(id(i), FIRST[r.nextInt(FIRST.length)] + " " + LAST[r.nextInt(LAST.length)],
+                PROGRAMMES[r.nextInt(PROGRAMMES.length)], 100 * (1 + r.nextInt(4)), r.nextInt(401) * 0.01,
+                "s" + i + "@uni.edu", "024" + (1_000_000 + r.nextInt(9_000_000)));
+        s.setDateAdded(LocalDate.of(2020, 1, 1).plusDays(r.nextInt(1500)));
+        if (r.nextInt(10) == 0) s.setStatus(Student.StudentStatus.INACTIVE);
+        return s;
+    }
+
+    static List<Student> students(int n) {
+        Random r = new Random(42);
+        List<Student> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) list.add(student(r, i));
+        return list;
+    }
+
+    static String csvLine(Student s) {
+        return s.getStudentId() + ",\"" + s.getFullName() + "\"," + s.getProgramme() + "," + s.getLevel() + ","
+                + s.getGpa() + "," + s.getEmail() + "," + s.getPhoneNumber() + "," + s.getDateAdded() + "," + s.getStatus();
+    }
+
+    static Path csv(int n) throws IOException {
+        Path f = Files.createTempFile("sms-bench", ".csv");
+        Random r = new Random(42);
+        try (BufferedWriter w = Files.newBufferedWriter(f)) {
+            w.write("StudentID,FullName,Programme,Level,GPA,Email,PhoneNumber,DateAdded,Status\n");
+            for (int i = 0; i < n; i++) { w.write(csvLine(student(r, i))); w.write('\n'); }
+        }
+        return f;
+    }
+}
@@ -0,0 +1,81 @@
+package com.sms2.bench;
+
+import com.sms2.util.CsvHelper;
+import com.sms2.util.CsvTokenizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV reading: per-line parsing against the split loop it replaced, whole-file reads and the
+ * tokenizer on its own. Times are per file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CsvBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    private Path file;
+    private String[] lines;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = BenchData.csv(size);
+        lines = Files.readAllLines(file).stream().skip(1).toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException { Files.deleteIfExists(file); }
+
+    @Benchmark
+    public void parseLine(Blackhole bh) {
+        for (String line : lines) bh.consume(CsvHelper.parseLine(line));
+    }
+
+    /** The character-by-character split CsvHelper.parseLine used before the tokenizer; the baseline. */
+    @Benchmark
+    public void legacySplitParse(Blackhole bh) {
+        for (String line : lines) bh.consume(legacyParseLine(line));
+    }
+
+    @Benchmark
+    public int readCsv() throws IOException { return CsvHelper.readCsv(file.toFile()).size(); }
+
+    @Benchmark
+    public int forEachRow(Blackhole bh) throws IOException {
+        return CsvHelper.forEachRow(file.toFile(), (row, fields) -> bh.consume(fields));
+    }
+
+    /** Tokenizer touching only the ID column, the floor for any full parse. */
+    @Benchmark
+    public long tokenizerIdOnly() throws IOException {
+        long sum = 0;
+        try (CsvTokenizer t = CsvTokenizer.open(file)) {
+            t.next();
+            while (t.next()) sum += t.field(0).length();
+        }
+        return sum;
+    }
+
+    private static String[] legacyParseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean inQ = false;
+        for (char c : line.toCharArray()) {
+            if (c == '"') { inQ = !inQ; }
+            else if (c == ',' && !inQ) { fields.add(sb.toString().trim()); sb.setLength(0); }
+            else sb.append(c);
+        }
+        fields.add(sb.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,40 @@
+package com.sms2.bench;
+
+import com.sms2.domain.ReportSnapshot;
+import com.sms2.service.StudentColumnStore;
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StudentColumnStore#snapshot} on fork/join pools of increasing size; {@code threads=0}
+ * is the sequential pass. Compare scores across {@code threads} to see the scaling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParallelReportBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    @Param({"0", "1", "2", "4", "8"})
+    int threads;
+
+    private StudentColumnStore store;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = StudentColumnStore.of(BenchData.students(size));
+        pool = threads == 0 ? null : new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() { if (pool != null) pool.shutdown(); }
+
+    @Benchmark public ReportSnapshot snapshot() { return store.snapshot(10, 0.25, pool); }
+}
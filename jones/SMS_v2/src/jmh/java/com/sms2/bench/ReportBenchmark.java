@@ -0,0 +1,51 @@
+package com.sms2.bench;
+
+import com.sms2.domain.ReportSnapshot;
+import com.sms2.domain.Student;
+import com.sms2.service.ReportEngine;
+import com.sms2.service.ReportService;
+import com.sms2.service.StudentColumnStore;
+import org.openjdk.jmh.annotations.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/** Every ReportService method over an in-memory list, plus the one-pass snapshot paths. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReportBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    private final ReportService reports = new ReportService();
+    private List<Student> students;
+    private StudentColumnStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        students = BenchData.students(size);
+        store = StudentColumnStore.of(students);
+    }
+
+    @Benchmark public List<Student> topPerformers()          { return reports.getTopPerformers(students, 10, null, null); }
+    @Benchmark public List<Student> topPerformersFiltered()  { return reports.getTopPerformers(students, 10, "Physics", 300); }
+    @Benchmark public List<Student> atRisk()                 { return reports.getAtRiskStudents(students, 1.0); }
+    @Benchmark public Map<String, Long> gpaDistribution()    { return reports.getGpaDistribution(students); }
+    @Benchmark public Map<String, double[]> programmeSummary() { return reports.getProgrammeSummary(students); }
+    @Benchmark public double averageGpa()                    { return reports.getAverageGpa(students); }
+    @Benchmark public long countActive()                     { return reports.countActive(students); }
+    @Benchmark public long countInactive()                   { return reports.countInactive(students); }
+
+    @Benchmark
+    public ReportSnapshot engineSnapshot() {
+        ReportEngine engine = new ReportEngine(10, 1.0);
+        students.forEach(engine);
+        return engine.finish();
+    }
+
+    @Benchmark public ReportSnapshot columnSnapshot()        { return store.snapshot(10, 1.0, null); }
+}
@@ -0,0 +1,101 @@
+package com.sms2.bench;
+
+import com.sms2.domain.Student;
+import com.sms2.domain.StudentOrder;
+import com.sms2.repository.SqliteStudentRepository;
+import com.sms2.util.DatabaseManager;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.nio.file.*;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SqliteStudentRepository CRUD, bulk writes, search and filter against a temporary database
+ * pre-loaded with {@code size} students. Writes undo themselves so the table size stays put
+ * between invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryBenchmark {
+    private static final int LOAD_BATCH = 10_000;
+    private static final int BULK = 1_000;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    private Path dir;
+    private SqliteStudentRepository repo;
+    private List<Student> students;
+    private Student extra;
+    private List<Student> slice;
+    private List<String> sliceIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        dir = Files.createTempDirectory("sms-bench");
+        System.setProperty("sms.db.path", dir.resolve("students.db").toString());
+        DatabaseManager.init();
+        repo = new SqliteStudentRepository();
+        students = BenchData.students(size);
+        for (int i = 0; i < size; i += LOAD_BATCH)
+            if (!repo.addBatch(students.subList(i, Math.min(size, i + LOAD_BATCH)))) throw new IllegalStateException("load failed");
+        extra = BenchData.student(new Random(7), size);
+        slice = students.subList(0, Math.min(size, BULK));
+        sliceIds = slice.stream().map(Student::getStudentId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        DatabaseManager.close();
+        System.clearProperty("sms.db.path");
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) Files.delete(f);
+        }
+        Files.delete(dir);
+    }
+
+    private Student any() { return students.get(ThreadLocalRandom.current().nextInt(size)); }
+
+    @Benchmark public Optional<Student> findById()       { return repo.findById(any().getStudentId()); }
+    @Benchmark public boolean existsById()               { return repo.existsById(any().getStudentId()); }
+    @Benchmark public int count()                        { return repo.count(); }
+    @Benchmark public List<Student> findFirstPage()      { return repo.findPageAfter(null, null, 200); }
+    @Benchmark public List<Student> findPageAtMiddle()   { return repo.findPageAt(size / 2, 200); }
+    @Benchmark public List<Student> findGpaFirstPage()   { return repo.findPageAfter(StudentOrder.GPA_DESC, null, 200); }
+    @Benchmark public List<Student> findAll()            { return repo.findAll(); }
+    @Benchmark public List<Student> searchName()         { return repo.search("mensah"); }
+    @Benchmark public List<Student> searchId()           { return repo.search(any().getStudentId()); }
+    @Benchmark public List<Student> filterProgramme()    { return repo.filter("Physics", null, null); }
+    @Benchmark public List<Student> filterAll()          { return repo.filter("Physics", 300, "ACTIVE"); }
+    @Benchmark public List<String> programmes()          { return repo.getAllProgrammes(); }
+
+    @Benchmark
+    public boolean addThenDelete() { return repo.add(extra) & repo.delete(extra.getStudentId()); }
+
+    @Benchmark
+    public boolean update() {
+        Student s = any();
+        s.setGpa(s.getGpa() >= 4.0 ? 0.0 : Math.min(4.0, s.getGpa() + 0.01));
+        return repo.update(s);
+    }
+
+    @Benchmark
+    public int bulkUpdate() { return repo.updateAll(slice).getAppliedCount(); }
+
+    @Benchmark
+    public int bulkDeleteThenAdd() { return repo.deleteAllByIds(sliceIds).getAppliedCount() + repo.addAll(slice).getAppliedCount(); }
+
+    /** Every row INACTIVE then ACTIVE again: two set-based updates over the whole table. */
+    @Benchmark
+    public int statusFlip() {
+        return repo.updateStatusWhere(null, null, Student.StudentStatus.INACTIVE).getAppliedCount()
+                + repo.updateStatusWhere(null, null, Student.StudentStatus.ACTIVE).getAppliedCount();
+    }
+}
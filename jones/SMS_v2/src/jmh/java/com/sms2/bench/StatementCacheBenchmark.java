@@ -0,0 +1,73 @@
+package com.sms2.bench;
+
+import com.sms2.domain.Student;
+import com.sms2.repository.SqliteStudentRepository;
+import com.sms2.util.DatabaseManager;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.nio.file.*;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short repository calls with the pool's statement cache on and off; {@code cacheSize=0} prepares
+ * and finalizes every statement, as before the cache. JMH runs each parameter set in its own fork,
+ * so {@code sms.db.statementCacheSize} is set before DatabaseManager is first loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StatementCacheBenchmark {
+    private static final int LOAD_BATCH = 10_000;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    @Param({"0", "64"})
+    int cacheSize;
+
+    private Path dir;
+    private SqliteStudentRepository repo;
+    private List<Student> students;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        dir = Files.createTempDirectory("sms-bench");
+        System.setProperty("sms.db.path", dir.resolve("students.db").toString());
+        System.setProperty("sms.db.statementCacheSize", String.valueOf(cacheSize));
+        DatabaseManager.init();
+        repo = new SqliteStudentRepository();
+        students = BenchData.students(size);
+        for (int i = 0; i < size; i += LOAD_BATCH)
+            if (!repo.addBatch(students.subList(i, Math.min(size, i + LOAD_BATCH)))) throw new IllegalStateException("load failed");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        DatabaseManager.close();
+        System.clearProperty("sms.db.path");
+        System.clearProperty("sms.db.statementCacheSize");
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) Files.delete(f);
+        }
+        Files.delete(dir);
+    }
+
+    private Student any() { return students.get(ThreadLocalRandom.current().nextInt(size)); }
+
+    @Benchmark public Optional<Student> findById()   { return repo.findById(any().getStudentId()); }
+    @Benchmark public boolean existsById()           { return repo.existsById(any().getStudentId()); }
+    @Benchmark public List<Student> firstPage()      { return repo.findPageAfter(null, null, 20); }
+
+    @Benchmark
+    public boolean update() {
+        Student s = any();
+        s.setGpa(s.getGpa() >= 4.0 ? 0.0 : Math.min(4.0, s.getGpa() + 0.01));
+        return repo.update(s);
+    }
+}
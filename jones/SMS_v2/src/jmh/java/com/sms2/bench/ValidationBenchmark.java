@@ -0,0 +1,54 @@
+package com.sms2.bench;
+
+import com.sms2.domain.Student;
+import com.sms2.service.ValidationService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/** Validating a whole dataset, one in ten rows broken, as messages and as masks. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ValidationBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    private final ValidationService validator = new ValidationService();
+    private List<Student> students;
+    private int[] masks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        students = BenchData.students(size);
+        for (int i = 0; i < size; i += 10) {
+            Student s = students.get(i);
+            switch (i / 10 % 3) {
+                case 0 -> s.setFullName(s.getFullName() + " 2nd");
+                case 1 -> s.setPhoneNumber("024-123");
+                default -> s.setEmail("nobody");
+            }
+        }
+        masks = new int[size];
+    }
+
+    @Benchmark
+    public void validate(Blackhole bh) {
+        for (Student s : students) bh.consume(validator.validate(s));
+    }
+
+    @Benchmark
+    public int check() {
+        int invalid = 0;
+        for (Student s : students) if (validator.check(s) != 0) invalid++;
+        return invalid;
+    }
+
+    @Benchmark
+    public int checkAll() { return validator.checkAll(students, masks); }
+}
@@ -2,6 +2,7 @@ package com.sms2;
 
 import com.sms2.util.AppLogger;
 import com.sms2.util.DatabaseManager;
+import com.sms2.util.TaskExecutor;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -18,7 +19,7 @@ public class MainApp extends Application {*/-
     @Override
     public void start(Stage stage) throws Exception {
         AppLogger.info("AcaTrack starting.");
-        try { DatabaseManager.getConnection(); }
+        try { DatabaseManager.init(); }
         catch (Exception e) { AppLogger.error("DB init failed: " + e.getMessage()); }
 
         FXMLLoader loader = new FXMLLoader(
@@ -39,7 +40,9 @@ public class MainApp extends Application {*/-
     @Override
     public void stop() throws Exception {
         AppLogger.info("AcaTrack closing.");
+        TaskExecutor.shutdownShared();
         DatabaseManager.close();
+        AppLogger.shutdown();
         super.stop();
     }
 
@@ -0,0 +1,77 @@
+package com.sms2.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Per-item outcome of a bulk write, in input order (for set-based updates, in the order the rows
+ * matched). Updates and deletes also keep each row as it was before the write, so callers can
+ * publish precise change events without reading the rows again.
+ */
+public class BulkResult {
+    public enum Outcome { APPLIED, SKIPPED, INVALID, FAILED }
+
+    private final List<String> ids;
+    private final Outcome[] outcomes;
+    private final String[] messages;
+    private final Student[] before;
+    private String error;
+    private long elapsedMillis;
+
+    public BulkResult(List<String> ids) {
+        this.ids = Collections.unmodifiableList(new ArrayList<>(ids));
+        this.outcomes = new Outcome[ids.size()];
+        this.messages = new String[ids.size()];
+        this.before = new Student[ids.size()];
+        Arrays.fill(outcomes, Outcome.SKIPPED);
+    }
+
+    public void set(int i, Outcome outcome, String message) { outcomes[i] = outcome; messages[i] = message; }
+    public void setBefore(int i, Student s)                  { before[i] = s; }
+    public void setElapsedMillis(long v)                     { elapsedMillis = v; }
+    public void setError(String v)                           { error = v; }
+
+    /** Records why the whole operation failed and marks every item not rejected as failed with it. */
+    public void failAll(String message) {
+        error = message;
+        for (int i = 0; i < outcomes.length; i++) if (outcomes[i] != Outcome.INVALID) set(i, Outcome.FAILED, message);
+    }
+
+    public int size()                     { return outcomes.length; }
+    public String getId(int i)            { return ids.get(i); }
+    public Outcome getOutcome(int i)      { return outcomes[i]; }
+    public String getMessage(int i)       { return messages[i]; }
+    public Student getBefore(int i)       { return before[i]; }
+    public long getElapsedMillis()        { return elapsedMillis; }
+
+    /** Why the operation as a whole failed (nothing was written), or null. */
+    public String getError()              { return error; }
+
+    public int count(Outcome o) {
+        int n = 0;
+        for (Outcome x : outcomes) if (x == o) n++;
+        return n;
+    }
+
+    public int getAppliedCount()          { return count(Outcome.APPLIED); }
+
+    public List<String> getIds(Outcome o) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < outcomes.length; i++) if (outcomes[i] == o) out.add(ids.get(i));
+        return out;
+    }
+
+    /** "id: message" for every item that was not applied and has a reason. */
+    public List<String> getErrors() {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < outcomes.length; i++) if (outcomes[i] != Outcome.APPLIED && messages[i] != null) out.add(ids.get(i) + ": " + messages[i]);
+        return out;
+    }
+
+    @Override public String toString() {
+        return String.format("%d applied, %d skipped, %d invalid, %d failed in %d ms",
+                count(Outcome.APPLIED), count(Outcome.SKIPPED), count(Outcome.INVALID), count(Outcome.FAILED), elapsedMillis);
+    }
+}
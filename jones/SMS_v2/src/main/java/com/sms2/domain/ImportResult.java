@@ -6,11 +6,20 @@ import java.util.List;
 public class ImportResult {
     private int successCount;
     private int errorCount;
+    private long elapsedMillis;
     private List<String> errors = new ArrayList<>();
 
     public void incrementSuccess()       { successCount++; }
     public void addError(String error)   { errors.add(error); errorCount++; }
+    public void setElapsedMillis(long v) { elapsedMillis = v; }
     public int getSuccessCount()         { return successCount; }
     public int getErrorCount()           { return errorCount; }
+    public long getElapsedMillis()       { return elapsedMillis; }
     public List<String> getErrors()      { return errors; }
+
+    /** Rows processed (imported or rejected) per second of wall-clock time. */
+    public double getRowsPerSecond() {
+        int rows = successCount + errorCount;
+        return elapsedMillis <= 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
 }
@@ -0,0 +1,28 @@
+package com.sms2.domain;
+
+/** Dashboard totals, read from the trigger-maintained student_stats table. */
+public class KpiSummary {
+    private final long total;
+    private final long active;
+    private final long inactive;
+    private final double gpaSum;
+
+    public KpiSummary(long total, long active, long inactive, double gpaSum) {
+        this.total = total;
+        this.active = active;
+        this.inactive = inactive;
+        this.gpaSum = gpaSum;
+    }
+
+    public long getTotal()         { return total; }
+    public long getActive()        { return active; }
+    public long getInactive()      { return inactive; }
+    public double getGpaSum()      { return gpaSum; }
+    public double getAverageGpa()  { return total == 0 ? 0.0 : gpaSum / total; }
+
+    /** This summary with {@code s} counted in ({@code sign} 1) or out (-1). */
+    public KpiSummary with(Student s, int sign) {
+        boolean act = s.getStatus() == Student.StudentStatus.ACTIVE;
+        return new KpiSummary(total + sign, active + (act ? sign : 0), inactive + (act ? 0 : sign), gpaSum + sign * s.getGpa());
+    }
+}
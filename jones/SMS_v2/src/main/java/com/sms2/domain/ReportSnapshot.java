@@ -0,0 +1,50 @@
+package com.sms2.domain;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Every figure on the Reports page, computed together at one point in time. Immutable, so the
+ * report tabs and the report exports can share one instance instead of querying again.
+ */
+public final class ReportSnapshot {
+
+    /** Student count and mean GPA of one programme. */
+    public record ProgrammeStat(long count, double averageGpa) {}
+
+    private final int topN;
+    private final double threshold;
+    private final List<Student> topPerformers;
+    private final List<Student> atRisk;
+    private final Map<String, Long> gpaDistribution;
+    private final Map<String, ProgrammeStat> programmeSummary;
+    private final long total;
+    private final double averageGpa;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    public ReportSnapshot(int topN, double threshold, List<Student> topPerformers, List<Student> atRisk,
+                          Map<String, Long> gpaDistribution, Map<String, ProgrammeStat> programmeSummary,
+                          long total, double averageGpa) {
+        this.topN = topN;
+        this.threshold = threshold;
+        this.topPerformers = copies(topPerformers);
+        this.atRisk = copies(atRisk);
+        this.gpaDistribution = Collections.unmodifiableMap(new LinkedHashMap<>(gpaDistribution));
+        this.programmeSummary = Collections.unmodifiableMap(new LinkedHashMap<>(programmeSummary));
+        this.total = total;
+        this.averageGpa = averageGpa;
+    }
+
+    public int getTopN()                                    { return topN; }
+    public double getThreshold()                            { return threshold; }
+    /** Copies, so callers cannot change the snapshot through them. */
+    public List<Student> getTopPerformers()                 { return copies(topPerformers); }
+    public List<Student> getAtRisk()                        { return copies(atRisk); }
+    public Map<String, Long> getGpaDistribution()           { return gpaDistribution; }
+    public Map<String, ProgrammeStat> getProgrammeSummary() { return programmeSummary; }
+    public long getTotal()                                  { return total; }
+    public double getAverageGpa()                           { return averageGpa; }
+    public LocalDateTime getCreatedAt()                     { return createdAt; }
+
+    private static List<Student> copies(List<Student> list) { return list.stream().map(Student::new).toList(); }
+}
@@ -33,6 +33,19 @@ public class Student {
         this.phoneNumber = phoneNumber;
     }
 
+    /** Copy constructor; every field is immutable, so this is a full copy. */
+    public Student(Student other) {
+        this.studentId = other.studentId;
+        this.fullName = other.fullName;
+        this.programme = other.programme;
+        this.level = other.level;
+        this.gpa = other.gpa;
+        this.email = other.email;
+        this.phoneNumber = other.phoneNumber;
+        this.dateAdded = other.dateAdded;
+        this.status = other.status;
+    }
+
     public String getStudentId()      { return studentId; }
     public String getFullName()       { return fullName; }
     public String getProgramme()      { return programme; }
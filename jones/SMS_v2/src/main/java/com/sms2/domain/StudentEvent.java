@@ -0,0 +1,27 @@
+package com.sms2.domain;
+
+import java.util.List;
+
+/**
+ * A committed change to the students table, published by the service after the write succeeded.
+ * The students carried are copies, so subscribers may keep them.
+ */
+public sealed interface StudentEvent {
+
+    record Inserted(Student student) implements StudentEvent {}
+
+    /** {@code before} is null when the previous state was not known. */
+    record Updated(Student before, Student after) implements StudentEvent {}
+
+    /** {@code before} is null when the row was not read before deleting it. */
+    record Deleted(String studentId, Student before) implements StudentEvent {}
+
+    /** One committed import batch in file order, or the students added by one bulk insert. */
+    record BulkImported(List<Student> students) implements StudentEvent {}
+
+    /** The rows changed by one bulk update or status change, published once instead of per row. */
+    record BulkUpdated(List<Updated> updates) implements StudentEvent {}
+
+    /** The rows removed by one bulk delete, published once instead of per row. */
+    record BulkDeleted(List<Deleted> deletes) implements StudentEvent {}
+}
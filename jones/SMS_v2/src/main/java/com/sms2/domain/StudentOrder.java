@@ -0,0 +1,33 @@
+package com.sms2.domain;
+
+import java.util.Comparator;
+
+/**
+ * Orders the full student list can be paged in. Each ends in student_id, so the order is total and
+ * a keyset page can seek from the last row of the previous one. {@link #comparator()} matches the
+ * repository's ORDER BY: names compare as SQLite's NOCASE collation does, ignoring the case of
+ * ASCII letters only, and IDs as BINARY (both except around surrogate pairs).
+ */
+public enum StudentOrder {
+    NAME(Comparator.comparing(Student::getFullName, StudentOrder::compareNoCase).thenComparing(Student::getStudentId)),
+    GPA_ASC(Comparator.comparingDouble(Student::getGpa).thenComparing(Student::getStudentId)),
+    GPA_DESC(Comparator.comparingDouble(Student::getGpa).thenComparing(Student::getStudentId).reversed());
+
+    private final Comparator<Student> comparator;
+
+    StudentOrder(Comparator<Student> comparator) { this.comparator = comparator; }
+
+    public Comparator<Student> comparator() { return comparator; }
+
+    private static int compareNoCase(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        for (int i = 0; i < n; i++) {
+            char x = a.charAt(i), y = b.charAt(i);
+            if (x == y) continue;
+            if (x >= 'A' && x <= 'Z') x += 'a' - 'A';
+            if (y >= 'A' && y <= 'Z') y += 'a' - 'A';
+            if (x != y) return x - y;
+        }
+        return a.length() - b.length();
+    }
+}
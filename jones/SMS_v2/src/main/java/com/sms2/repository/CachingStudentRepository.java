@@ -0,0 +1,409 @@
+package com.sms2.repository;
+
+import com.sms2.domain.BulkResult;
+import com.sms2.domain.KpiSummary;
+import com.sms2.domain.Student;
+import com.sms2.domain.StudentOrder;
+import com.sms2.util.Metrics;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of any {@link StudentRepository}. Keeps an LRU entity cache for
+ * {@code findById} and {@code findAllByIds} and a small cache of {@code filter()}/{@code findAll()} results keyed by the
+ * filter arguments, plus the programme list and row count; all entries expire after a TTL. Cached
+ * results are bounded by their total row count as well as their number, and a result larger than
+ * {@code sms.cache.maxResultRows} is not cached at all, since every hit copies it.
+ * <p>
+ * Writes invalidate precisely: a changed student drops its own entity and only the cached
+ * queries whose criteria match its old or new values. Callers always get copies, so editing a
+ * returned student cannot corrupt the cache. Loads that race with a write are not stored.
+ * Bulk writes invalidate the same way for each applied item, using the old rows their
+ * {@link BulkResult} carries.
+ * Paging, search and streaming reads pass straight through.
+ * <p>
+ * Sized by {@code sms.cache.maxEntities}, {@code sms.cache.maxQueries}, {@code sms.cache.maxQueryRows},
+ * {@code sms.cache.maxResultRows} and {@code sms.cache.ttlMs}. The hit, miss, eviction and
+ * invalidation counts of {@link #getStats()} are also added to the {@code cache.*} {@link Metrics}
+ * counters, summed over all caches.
+ */
+public class CachingStudentRepository implements StudentRepository {
+    private static final int MAX_ENTITIES = Integer.getInteger("sms.cache.maxEntities", 10_000);
+    private static final int MAX_QUERIES = Integer.getInteger("sms.cache.maxQueries", 32);
+    private static final int MAX_QUERY_ROWS = Integer.getInteger("sms.cache.maxQueryRows", 20_000);
+    private static final int MAX_RESULT_ROWS = Integer.getInteger("sms.cache.maxResultRows", 5_000);
+    private static final long TTL_MS = Long.getLong("sms.cache.ttlMs", 60_000);
+
+    private final StudentRepository delegate;
+    private final long ttlNanos;
+    private final int maxQueries, maxQueryRows, maxResultRows;
+    private final LinkedHashMap<String, Timed<Student>> entities;
+    private final LinkedHashMap<FilterKey, Timed<List<Student>>> queries;
+    private Timed<List<String>> programmes;
+    private Timed<Integer> count;
+    private long generation;                          // bumped by every write; guarded by this
+
+    private final Stat entityHits = new Stat("cache.entity.hits"), entityMisses = new Stat("cache.entity.misses");
+    private final Stat queryHits = new Stat("cache.query.hits"), queryMisses = new Stat("cache.query.misses");
+    private final Stat evictions = new Stat("cache.evictions"), invalidations = new Stat("cache.invalidations");
+
+    public CachingStudentRepository(StudentRepository delegate) {
+        this(delegate, MAX_ENTITIES, MAX_QUERIES, MAX_QUERY_ROWS, MAX_RESULT_ROWS, TTL_MS);
+    }
+
+    public CachingStudentRepository(StudentRepository delegate, int maxEntities, int maxQueries, long ttlMs) {
+        this(delegate, maxEntities, maxQueries, MAX_QUERY_ROWS, MAX_RESULT_ROWS, ttlMs);
+    }
+
+    public CachingStudentRepository(StudentRepository delegate, int maxEntities, int maxQueries,
+                                    int maxQueryRows, int maxResultRows, long ttlMs) {
+        this.delegate = delegate;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxQueries = maxQueries;
+        this.maxQueryRows = maxQueryRows;
+        this.maxResultRows = maxResultRows;
+        this.entities = lru(maxEntities);
+        this.queries = new LinkedHashMap<>(16, 0.75f, true);   // bounded by trimQueries()
+    }
+
+    private <K, V> LinkedHashMap<K, V> lru(int max) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<K, V> e) {
+                if (size() <= max) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    // ── Reads ──
+
+    @Override
+    public Optional<Student> findById(String id) {
+        long gen;
+        synchronized (this) {
+            Timed<Student> t = fresh(entities, id);
+            if (t != null) { entityHits.increment(); return Optional.of(new Student(t.value)); }
+            entityMisses.increment();
+            gen = generation;
+        }
+        Optional<Student> s = delegate.findById(id);
+        s.ifPresent(v -> { synchronized (this) { if (gen == generation) entities.put(id, timed(new Student(v))); } });
+        return s;
+    }
+
+    /** Serves the cached students and loads the rest with one call to the delegate. */
+    @Override
+    public List<Student> findAllByIds(List<String> ids) {
+        Map<String, Student> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        long gen;
+        synchronized (this) {
+            for (String id : ids) {
+                Timed<Student> t = fresh(entities, id);
+                if (t != null) { entityHits.increment(); found.put(id, new Student(t.value)); }
+                else { entityMisses.increment(); missing.add(id); }
+            }
+            gen = generation;
+        }
+        if (!missing.isEmpty()) {
+            List<Student> loaded = delegate.findAllByIds(missing);
+            synchronized (this) {
+                for (Student s : loaded) {
+                    found.put(s.getStudentId(), s);
+                    if (gen == generation) entities.put(s.getStudentId(), timed(new Student(s)));
+                }
+            }
+        }
+        List<Student> out = new ArrayList<>(found.size());
+        for (String id : ids) { Student s = found.get(id); if (s != null) out.add(s); }
+        return out;
+    }
+
+    @Override public List<Student> findAll() { return query(new FilterKey(null, null, null), delegate::findAll); }
+
+    @Override
+    public List<Student> filter(String programme, Integer level, String status) {
+        FilterKey key = new FilterKey(blankToNull(programme), level, blankToNull(status));
+        return query(key, () -> delegate.filter(programme, level, status));
+    }
+
+    @Override
+    public List<String> getAllProgrammes() {
+        long gen;
+        synchronized (this) {
+            if (programmes != null && !programmes.expired()) { queryHits.increment(); return new ArrayList<>(programmes.value); }
+            queryMisses.increment();
+            gen = generation;
+        }
+        List<String> list = delegate.getAllProgrammes();
+        synchronized (this) { if (gen == generation) programmes = timed(List.copyOf(list)); }
+        return list;
+    }
+
+    @Override
+    public int count() {
+        long gen;
+        synchronized (this) {
+            if (count != null && !count.expired()) { queryHits.increment(); return count.value; }
+            queryMisses.increment();
+            gen = generation;
+        }
+        int n = delegate.count();
+        synchronized (this) { if (gen == generation) count = timed(n); }
+        return n;
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        synchronized (this) {
+            if (fresh(entities, id) != null) { entityHits.increment(); return true; }
+        }
+        return delegate.existsById(id);
+    }
+
+    @Override public void forEach(Consumer<Student> action)                          { delegate.forEach(action); }
+    @Override public List<Student> findPageAfter(String afterName, String afterId, int limit) { return delegate.findPageAfter(afterName, afterId, limit); }
+    @Override public List<Student> findPageAt(int offset, int limit)                 { return delegate.findPageAt(offset, limit); }
+    @Override public List<Student> findPageAfter(StudentOrder order, Student after, int limit) { return delegate.findPageAfter(order, after, limit); }
+    @Override public List<Student> findPageAt(StudentOrder order, int offset, int limit)     { return delegate.findPageAt(order, offset, limit); }
+    @Override public List<Student> search(String query)                              { return delegate.search(query); }
+    @Override public List<Student> search(String query, int limit)                   { return delegate.search(query, limit); }
+    @Override public KpiSummary getKpiSummary()                                      { return delegate.getKpiSummary(); }
+
+    // ── Writes ──
+
+    @Override
+    public boolean add(Student s) {
+        boolean ok = delegate.add(s);
+        if (ok) synchronized (this) { changed(null, s); count = null; }
+        return ok;
+    }
+
+    @Override
+    public boolean addBatch(List<Student> students) {
+        boolean ok = delegate.addBatch(students);
+        if (ok) synchronized (this) { for (Student s : students) changed(null, s); count = null; }
+        return ok;
+    }
+
+    @Override
+    public boolean update(Student s) {
+        Student old;
+        synchronized (this) { Timed<Student> t = fresh(entities, s.getStudentId()); old = t == null ? null : t.value; }
+        if (old == null) old = delegate.findById(s.getStudentId()).orElse(null);
+        boolean ok = delegate.update(s);
+        if (ok) synchronized (this) { updated(old, s); }
+        return ok;
+    }
+
+    @Override
+    public boolean delete(String id) {
+        Student old;
+        synchronized (this) { Timed<Student> t = fresh(entities, id); old = t == null ? null : t.value; }
+        if (old == null) old = delegate.findById(id).orElse(null);
+        boolean ok = delegate.delete(id);
+        if (ok) synchronized (this) {
+            if (old != null) changed(old, null); else invalidateAll();
+            programmes = null;        // may have removed the last student of a programme
+            count = null;
+        }
+        return ok;
+    }
+
+    @Override
+    public BulkResult addAll(List<Student> students) {
+        BulkResult r = delegate.addAll(students);
+        synchronized (this) {
+            for (int i=0;i<r.size();i++) if (r.getOutcome(i) == BulkResult.Outcome.APPLIED) { changed(null, students.get(i)); count = null; }
+        }
+        return r;
+    }
+
+    @Override
+    public BulkResult updateAll(List<Student> students) {
+        BulkResult r = delegate.updateAll(students);
+        synchronized (this) {
+            for (int i=0;i<r.size();i++) {
+                if (r.getOutcome(i) != BulkResult.Outcome.APPLIED) continue;
+                if (r.getBefore(i) != null) updated(r.getBefore(i), students.get(i)); else { invalidateAll(); break; }
+            }
+        }
+        return r;
+    }
+
+    @Override
+    public BulkResult deleteAllByIds(List<String> ids) {
+        BulkResult r = delegate.deleteAllByIds(ids);
+        if (r.getAppliedCount() > 0) synchronized (this) {
+            for (int i=0;i<r.size();i++) {
+                if (r.getOutcome(i) != BulkResult.Outcome.APPLIED) continue;
+                if (r.getBefore(i) != null) changed(r.getBefore(i), null); else { invalidateAll(); break; }
+            }
+            programmes = null;
+            count = null;
+        }
+        return r;
+    }
+
+    @Override
+    public BulkResult updateStatusWhere(String programme, Integer level, Student.StudentStatus status) {
+        BulkResult r = delegate.updateStatusWhere(programme, level, status);
+        synchronized (this) {
+            for (int i=0;i<r.size();i++) {
+                Student before = r.getBefore(i);
+                if (before == null) { invalidateAll(); break; }
+                Student after = new Student(before);
+                after.setStatus(status);
+                changed(before, after);
+            }
+        }
+        return r;
+    }
+
+    /** Drops everything; for callers that change the database behind the repository's back. */
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.increment();
+        entities.clear();
+        queries.clear();
+        programmes = null;
+        count = null;
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(entityHits.sum(), entityMisses.sum(), queryHits.sum(), queryMisses.sum(),
+                evictions.sum(), invalidations.sum(), entities.size(), queries.size(), queryRows());
+    }
+
+    // ── Internals ──
+
+    private List<Student> query(FilterKey key, Supplier<List<Student>> loader) {
+        long gen;
+        synchronized (this) {
+            Timed<List<Student>> t = fresh(queries, key);
+            if (t != null) { queryHits.increment(); return copies(t.value); }
+            queryMisses.increment();
+            gen = generation;
+        }
+        List<Student> rows = loader.get();
+        if (rows.size() > maxResultRows) return rows;
+        List<Student> cached = copies(rows);
+        synchronized (this) { if (gen == generation) { queries.put(key, timed(cached)); trimQueries(); } }
+        return rows;
+    }
+
+    /** Evicts least recently used queries until both the entry and the row limits hold. Holds the lock. */
+    private void trimQueries() {
+        int rows = queryRows();
+        Iterator<Timed<List<Student>>> it = queries.values().iterator();
+        while (it.hasNext() && (queries.size() > maxQueries || rows > maxQueryRows)) {
+            rows -= it.next().value.size();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private int queryRows() {
+        int rows = 0;
+        for (Timed<List<Student>> t : queries.values()) rows += t.value.size();
+        return rows;
+    }
+
+    /** Invalidates what a write from {@code before} to {@code after} (either may be null) can affect. Holds the lock. */
+    private void changed(Student before, Student after) {
+        generation++;
+        invalidations.increment();
+        String id = after != null ? after.getStudentId() : before.getStudentId();
+        entities.remove(id);
+        if (before != null && !before.getStudentId().equals(id)) entities.remove(before.getStudentId());
+        queries.keySet().removeIf(k -> k.matches(before) || k.matches(after));
+        if (programmes != null && after != null && !programmes.value.contains(after.getProgramme())) programmes = null;
+    }
+
+    /** An update from {@code before} (null if unknown) to {@code after}; may have emptied a programme. Holds the lock. */
+    private void updated(Student before, Student after) {
+        changed(before, after);
+        if (before == null || !Objects.equals(before.getProgramme(), after.getProgramme())) programmes = null;
+    }
+
+    private <K, V> Timed<V> fresh(Map<K, Timed<V>> map, K key) {
+        Timed<V> t = map.get(key);
+        if (t != null && t.expired()) { map.remove(key); return null; }
+        return t;
+    }
+
+    private <V> Timed<V> timed(V value) { return new Timed<>(value, System.nanoTime() + ttlNanos); }
+
+    private static List<Student> copies(List<Student> list) {
+        List<Student> out = new ArrayList<>(list.size());
+        for (Student s : list) out.add(new Student(s));
+        return out;
+    }
+
+    private static String blankToNull(String s) { return s == null || s.isBlank() ? null : s; }
+
+    private static final class Timed<V> {
+        final V value;
+        final long expiresAt;
+        Timed(V value, long expiresAt) { this.value = value; this.expiresAt = expiresAt; }
+        boolean expired() { return System.nanoTime() - expiresAt > 0; }
+    }
+
+    /** filter() arguments; null means "any". findAll() is the all-null key. */
+    private record FilterKey(String programme, Integer level, String status) {
+        boolean matches(Student s) {
+            return s != null
+                    && (programme == null || programme.equals(s.getProgramme()))
+                    && (level == null || level == s.getLevel())
+                    && (status == null || status.equals(s.getStatus().name()));
+        }
+    }
+
+    /** A count for this cache's stats that also feeds the process-wide {@link Metrics} counter. */
+    private static final class Stat {
+        private final LongAdder local = new LongAdder();
+        private final Metrics.Counter total;
+
+        Stat(String name) { total = Metrics.counter(name); }
+
+        void increment() { local.increment(); total.increment(); }
+        long sum()       { return local.sum(); }
+    }
+
+    /** Point-in-time cache counters. */
+    public static class CacheStats {
+        private final long entityHits, entityMisses, queryHits, queryMisses, evictions, invalidations;
+        private final int entityCount, queryCount, queryRows;
+
+        CacheStats(long entityHits, long entityMisses, long queryHits, long queryMisses,
+                   long evictions, long invalidations, int entityCount, int queryCount, int queryRows) {
+            this.entityHits = entityHits; this.entityMisses = entityMisses;
+            this.queryHits = queryHits; this.queryMisses = queryMisses;
+            this.evictions = evictions; this.invalidations = invalidations;
+            this.entityCount = entityCount; this.queryCount = queryCount; this.queryRows = queryRows;
+        }
+
+        public long getEntityHits()    { return entityHits; }
+        public long getEntityMisses()  { return entityMisses; }
+        public long getQueryHits()     { return queryHits; }
+        public long getQueryMisses()   { return queryMisses; }
+        public long getEvictions()     { return evictions; }
+        public long getInvalidations() { return invalidations; }
+        public int getEntityCount()    { return entityCount; }
+        public int getQueryCount()     { return queryCount; }
+        public int getQueryRows()      { return queryRows; }
+        public double getHitRate() {
+            long hits = entityHits + queryHits, n = hits + entityMisses + queryMisses;
+            return n == 0 ? 0 : (double) hits / n;
+        }
+
+        @Override public String toString() {
+            return String.format("entities %d (hits=%d misses=%d), queries %d holding %d rows (hits=%d misses=%d), evictions=%d, invalidations=%d, hit rate=%.1f%%",
+                    entityCount, entityHits, entityMisses, queryCount, queryRows, queryHits, queryMisses, evictions, invalidations, getHitRate() * 100);
+        }
+    }
+}
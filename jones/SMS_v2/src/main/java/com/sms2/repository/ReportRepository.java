@@ -0,0 +1,24 @@
+package com.sms2.repository;
+
+import com.sms2.domain.Student;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/** Report aggregates computed by the database rather than over loaded students. */
+public interface ReportRepository {
+    /** Highest GPA first, ties by full_name then student_id; programme matches case-insensitively. */
+    List<Student> findTopByGpa(int limit, String programme, Integer level);
+    /** GPA below the threshold, lowest first, ties by full_name then student_id. */
+    List<Student> findGpaBelow(double threshold);
+    /** Counts for the bands [0,1), [1,2), [2,3), [3,4]. */
+    long[] countByGpaBand();
+    /** Programme -> {student count, average GPA}, ordered by programme. */
+    Map<String, double[]> summarizeByProgramme();
+    double averageGpa();
+    /**
+     * Runs {@code work} against a view of this repository whose queries all read the same committed
+     * state, so a write landing part way through cannot mix old and new numbers.
+     */
+    <T> T readConsistent(Function<ReportRepository, T> work);
+}
@@ -0,0 +1,112 @@
+package com.sms2.repository;
+
+import com.sms2.domain.Student;
+import com.sms2.util.AppLogger;
+import com.sms2.util.DatabaseManager;
+import java.sql.*;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Report queries pushed down to SQLite. Per-programme and overall averages come from the
+ * trigger-maintained student_stats table, so they read a handful of rows; top-N and at-risk
+ * lists only ever transfer the rows they return.
+ * <p>
+ * Each call leases its own reader. {@link #readConsistent} instead hands out a view bound to one
+ * reader inside a read transaction, so every query through it sees the same WAL snapshot.
+ */
+public class SqliteReportRepository implements ReportRepository {
+    private final Connection bound;           // null: lease a reader per call
+
+    public SqliteReportRepository() { this(null); }
+
+    private SqliteReportRepository(Connection bound) { this.bound = bound; }
+
+    @Override
+    public <T> T readConsistent(Function<ReportRepository, T> work) {
+        if (bound != null) return work.apply(this);
+        try (Connection c = DatabaseManager.getReadConnection()) {
+            if (c.getAutoCommit()) c.setAutoCommit(false);     // the pool rolls the read transaction back on release
+            return work.apply(new SqliteReportRepository(c));
+        } catch (SQLException e) {
+            AppLogger.error("Report snapshot error: "+e.getMessage());
+            throw new IllegalStateException("Report snapshot failed: "+e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Student> findTopByGpa(int limit, String programme, Integer level) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM students WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        if (programme!=null && !programme.isBlank()) { sql.append(" AND programme=? COLLATE NOCASE"); params.add(programme); }
+        if (level!=null) { sql.append(" AND level=?"); params.add(level); }
+        sql.append(" ORDER BY gpa DESC, full_name, student_id LIMIT ?");
+        params.add(limit);
+        return query(sql.toString(), params, "Top performers");
+    }
+
+    @Override
+    public List<Student> findGpaBelow(double threshold) {
+        return query("SELECT * FROM students WHERE gpa < ? ORDER BY gpa, full_name, student_id", List.of(threshold), "At-risk");
+    }
+
+    @Override
+    public long[] countByGpaBand() {
+        String sql = """
+            SELECT CASE WHEN gpa < 1.0 THEN 0 WHEN gpa < 2.0 THEN 1 WHEN gpa < 3.0 THEN 2 ELSE 3 END AS band, COUNT(*)
+            FROM students GROUP BY band
+            """;
+        long[] counts = new long[4];
+        read("GPA distribution", c -> {
+            try (Statement s = c.createStatement(); ResultSet rs = s.executeQuery(sql)) {
+                while (rs.next()) counts[rs.getInt(1)] = rs.getLong(2);
+            }
+            return null;
+        }, null);
+        return counts;
+    }
+
+    @Override
+    public Map<String, double[]> summarizeByProgramme() {
+        String sql = "SELECT programme, SUM(total), SUM(gpa_sum) / SUM(total) FROM student_stats GROUP BY programme ORDER BY programme";
+        Map<String, double[]> summary = new LinkedHashMap<>();
+        read("Programme summary", c -> {
+            try (Statement s = c.createStatement(); ResultSet rs = s.executeQuery(sql)) {
+                while (rs.next()) summary.put(rs.getString(1), new double[]{rs.getLong(2), rs.getDouble(3)});
+            }
+            return null;
+        }, null);
+        return summary;
+    }
+
+    @Override
+    public double averageGpa() {
+        return read("Average GPA", c -> {
+            try (Statement s = c.createStatement(); ResultSet rs = s.executeQuery("SELECT COALESCE(SUM(gpa_sum) / SUM(total), 0) FROM student_stats")) {
+                return rs.next() ? rs.getDouble(1) : 0.0;
+            }
+        }, 0.0);
+    }
+
+    private List<Student> query(String sql, List<Object> params, String what) {
+        List<Student> list = new ArrayList<>();
+        read(what, c -> {
+            try (PreparedStatement p = c.prepareStatement(sql)) {
+                for (int i=0;i<params.size();i++) p.setObject(i+1,params.get(i));
+                try (ResultSet rs = p.executeQuery()) { while (rs.next()) list.add(SqliteStudentRepository.map(rs)); }
+            }
+            return null;
+        }, null);
+        return list;
+    }
+
+    private interface Read<T> { T run(Connection c) throws SQLException; }
+
+    /** Runs {@code work} on the bound connection or a freshly leased reader; logs a failure and returns {@code fallback}. */
+    private <T> T read(String what, Read<T> work, T fallback) {
+        try {
+            if (bound != null) return work.run(bound);
+            try (Connection c = DatabaseManager.getReadConnection()) { return work.run(c); }
+        } catch (SQLException e) { AppLogger.error(what+" error: "+e.getMessage()); return fallback; }
+    }
+}
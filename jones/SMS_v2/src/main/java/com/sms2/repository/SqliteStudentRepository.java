@@ -1,69 +1,330 @@
 package com.sms2.repository;
 
+import com.sms2.domain.BulkResult;
+import com.sms2.domain.KpiSummary;
 import com.sms2.domain.Student;
+import com.sms2.domain.StudentOrder;
 import com.sms2.util.AppLogger;
 import com.sms2.util.DatabaseManager;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class SqliteStudentRepository implements StudentRepository {
 
+    private static final String INSERT_SQL = "INSERT INTO students(student_id,full_name,programme,level,gpa,email,phone_number,date_added,status) VALUES(?,?,?,?,?,?,?,?,?)";
+    private static final String INSERT_OR_IGNORE_SQL = INSERT_SQL.replace("INSERT INTO", "INSERT OR IGNORE INTO");
+    private static final String UPDATE_SQL = "UPDATE students SET full_name=?,programme=?,level=?,gpa=?,email=?,phone_number=?,status=? WHERE student_id=?";
+    private static final int IN_CHUNK = 500;
+
     @Override
     public boolean add(Student s) {
-        String sql = "INSERT INTO students(student_id,full_name,programme,level,gpa,email,phone_number,date_added,status) VALUES(?,?,?,?,?,?,?,?,?)";
-        try (Connection c = DatabaseManager.getConnection(); PreparedStatement p = c.prepareStatement(sql)) {
-            p.setString(1,s.getStudentId()); p.setString(2,s.getFullName()); p.setString(3,s.getProgramme());
-            p.setInt(4,s.getLevel()); p.setDouble(5,s.getGpa()); p.setString(6,s.getEmail());
-            p.setString(7,s.getPhoneNumber()); p.setString(8,s.getDateAdded().toString()); p.setString(9,s.getStatus().name());
+        try (Connection c = DatabaseManager.getWriteConnection(); PreparedStatement p = c.prepareStatement(INSERT_SQL)) {
+            bindInsert(p, s);
             return p.executeUpdate() > 0;
         } catch (SQLException e) { AppLogger.error("Add error: "+e.getMessage()); return false; }
     }
 
+    /** Inserts all students in one transaction; on any failure the whole batch is rolled back. */
+    @Override
+    public boolean addBatch(List<Student> students) {
+        if (students.isEmpty()) return true;
+        try (Connection c = DatabaseManager.getWriteConnection()) {
+            boolean auto = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try (PreparedStatement p = c.prepareStatement(INSERT_SQL)) {
+                for (Student s : students) { bindInsert(p, s); p.addBatch(); }
+                p.executeBatch();
+                c.commit();
+                return true;
+            } catch (SQLException e) {
+                c.rollback();
+                AppLogger.warn("Batch insert rolled back ("+students.size()+" rows): "+e.getMessage());
+                return false;
+            } finally { c.setAutoCommit(auto); }
+        } catch (SQLException e) { AppLogger.error("AddBatch error: "+e.getMessage()); return false; }
+    }
+
     @Override
     public Optional<Student> findById(String id) {
-        try (Connection c = DatabaseManager.getConnection(); PreparedStatement p = c.prepareStatement("SELECT * FROM students WHERE student_id=?")) {
+        try (Connection c = DatabaseManager.getReadConnection(); PreparedStatement p = c.prepareStatement("SELECT * FROM students WHERE student_id=?")) {
             p.setString(1,id); ResultSet rs = p.executeQuery();
             if (rs.next()) return Optional.of(map(rs));
-        } catch (SQLException e) { AppLogger.error("FindById error: "+e.getMessage()); }
+        } catch (SQLException e) { readFailed("FindById", e); }
         return Optional.empty();
     }
 
+    /** One {@code IN (...)} query per {@value #IN_CHUNK} IDs instead of a round trip per student. */
+    @Override
+    public List<Student> findAllByIds(List<String> ids) {
+        List<Student> list = new ArrayList<>(ids.size());
+        try (Connection c = DatabaseManager.getReadConnection()) {
+            Map<String,Student> found = findByIds(c, ids);
+            for (String id : ids) { Student s = found.get(id); if (s!=null) list.add(s); }
+        } catch (SQLException e) { readFailed("FindAllByIds", e); }
+        return list;
+    }
+
     @Override
     public List<Student> findAll() {
         List<Student> list = new ArrayList<>();
-        try (Connection c = DatabaseManager.getConnection(); Statement s = c.createStatement(); ResultSet rs = s.executeQuery("SELECT * FROM students ORDER BY full_name ASC")) {
+        try (Connection c = DatabaseManager.getReadConnection(); Statement s = c.createStatement(); ResultSet rs = s.executeQuery("SELECT * FROM students ORDER BY full_name ASC")) {
             while (rs.next()) list.add(map(rs));
-        } catch (SQLException e) { AppLogger.error("FindAll error: "+e.getMessage()); }
+        } catch (SQLException e) { readFailed("FindAll", e); }
+        return list;
+    }
+
+    private static final int CURSOR_FETCH_SIZE = 1000;
+
+    /**
+     * Streams every student in name order from a forward-only cursor without building a list.
+     * A read that fails part way throws {@link IllegalStateException}, so callers never mistake
+     * the rows seen so far for the whole table.
+     */
+    @Override
+    public void forEach(Consumer<Student> action) {
+        try (Connection c = DatabaseManager.getReadConnection(); Statement s = c.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            s.setFetchSize(CURSOR_FETCH_SIZE);
+            try (ResultSet rs = s.executeQuery("SELECT * FROM students ORDER BY full_name, student_id")) {
+                while (rs.next()) action.accept(map(rs));
+            }
+        } catch (SQLException e) {
+            readFailed("ForEach", e);
+            throw new IllegalStateException("Reading students failed: "+e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int count() {
+        try (Connection c = DatabaseManager.getReadConnection(); Statement s = c.createStatement(); ResultSet rs = s.executeQuery("SELECT COALESCE(SUM(total),0) FROM student_stats")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) { readFailed("Count", e); return 0; }
+    }
+
+    /**
+     * Keyset page in name order (full_name without case, then student_id): the {@code limit} students after the given key,
+     * or from the start when {@code afterName} is null. Cost depends on the page size, not the offset.
+     */
+    @Override
+    public List<Student> findPageAfter(String afterName, String afterId, int limit) {
+        return page(StudentOrder.NAME, afterName==null ? null : new Object[]{afterName, afterName, afterId}, 0, limit);
+    }
+
+    /** Offset page in the same order as {@link #findPageAfter}, for jumps where no key is known yet. */
+    @Override
+    public List<Student> findPageAt(int offset, int limit) { return page(StudentOrder.NAME, null, offset, limit); }
+
+    @Override
+    public List<Student> findPageAfter(StudentOrder order, Student after, int limit) {
+        return page(order, after==null ? null : seekKey(order, after), 0, limit);
+    }
+
+    @Override
+    public List<Student> findPageAt(StudentOrder order, int offset, int limit) { return page(order, null, offset, limit); }
+
+    /**
+     * ORDER BY for each order; the NOCASE name and GPA indexes serve them (GPA_DESC by scanning
+     * backwards). The name seek is spelled out rather than a row value so SQLite seeks the NOCASE
+     * index instead of scanning it.
+     */
+    private static String orderBy(StudentOrder o) {
+        return switch (o) {
+            case NAME -> "full_name COLLATE NOCASE, student_id";
+            case GPA_ASC -> "gpa, student_id";
+            case GPA_DESC -> "gpa DESC, student_id DESC";
+        };
+    }
+
+    private static String seek(StudentOrder o) {
+        return switch (o) {
+            case NAME -> "full_name COLLATE NOCASE >= ? AND (full_name COLLATE NOCASE > ? OR student_id > ?)";
+            case GPA_ASC -> "(gpa, student_id) > (?, ?)";
+            case GPA_DESC -> "(gpa, student_id) < (?, ?)";
+        };
+    }
+
+    private static Object[] seekKey(StudentOrder o, Student s) {
+        return o==StudentOrder.NAME ? new Object[]{s.getFullName(), s.getFullName(), s.getStudentId()} : new Object[]{s.getGpa(), s.getStudentId()};
+    }
+
+    private List<Student> page(StudentOrder order, Object[] after, int offset, int limit) {
+        String sql = "SELECT * FROM students" + (after!=null ? " WHERE "+seek(order) : "")
+                + " ORDER BY " + orderBy(order) + " LIMIT ?" + (offset>0 ? " OFFSET ?" : "");
+        List<Student> list = new ArrayList<>(limit);
+        try (Connection c = DatabaseManager.getReadConnection(); PreparedStatement p = c.prepareStatement(sql)) {
+            int i = 1;
+            if (after!=null) for (Object v : after) p.setObject(i++,v);
+            p.setInt(i++,limit);
+            if (offset>0) p.setInt(i,offset);
+            try (ResultSet rs = p.executeQuery()) { while (rs.next()) list.add(map(rs)); }
+        } catch (SQLException e) { readFailed("FindPage", e); }
         return list;
     }
 
     @Override
     public boolean update(Student s) {
-        String sql = "UPDATE students SET full_name=?,programme=?,level=?,gpa=?,email=?,phone_number=?,status=? WHERE student_id=?";
-        try (Connection c = DatabaseManager.getConnection(); PreparedStatement p = c.prepareStatement(sql)) {
-            p.setString(1,s.getFullName()); p.setString(2,s.getProgramme()); p.setInt(3,s.getLevel());
-            p.setDouble(4,s.getGpa()); p.setString(5,s.getEmail()); p.setString(6,s.getPhoneNumber());
-            p.setString(7,s.getStatus().name()); p.setString(8,s.getStudentId());
+        try (Connection c = DatabaseManager.getWriteConnection(); PreparedStatement p = c.prepareStatement(UPDATE_SQL)) {
+            bindUpdate(p, s);
             return p.executeUpdate() > 0;
         } catch (SQLException e) { AppLogger.error("Update error: "+e.getMessage()); return false; }
     }
 
     @Override
     public boolean delete(String id) {
-        try (Connection c = DatabaseManager.getConnection(); PreparedStatement p = c.prepareStatement("DELETE FROM students WHERE student_id=?")) {
+        try (Connection c = DatabaseManager.getWriteConnection(); PreparedStatement p = c.prepareStatement("DELETE FROM students WHERE student_id=?")) {
             p.setString(1,id); return p.executeUpdate() > 0;
         } catch (SQLException e) { AppLogger.error("Delete error: "+e.getMessage()); return false; }
     }
 
+    // ── Bulk writes: one transaction each; a failure rolls back everything and marks all items FAILED ──
+
+    /** Batched INSERT OR IGNORE: students whose ID already exists (or repeats in the list) are SKIPPED. */
     @Override
-    public List<Student> search(String query) {
+    public BulkResult addAll(List<Student> students) {
+        BulkResult r = new BulkResult(ids(students));
+        inTransaction(r, "AddAll", c -> {
+            try (PreparedStatement p = c.prepareStatement(INSERT_OR_IGNORE_SQL)) {
+                for (Student s : students) { bindInsert(p, s); p.addBatch(); }
+                int[] n = p.executeBatch();
+                for (int i=0;i<n.length;i++) r.set(i, n[i]>0 ? BulkResult.Outcome.APPLIED : BulkResult.Outcome.SKIPPED, n[i]>0 ? null : "ID already exists");
+            }
+        });
+        return r;
+    }
+
+    /** Batched UPDATE by ID; unknown IDs are SKIPPED. Applied items carry the row as it was. */
+    @Override
+    public BulkResult updateAll(List<Student> students) {
+        BulkResult r = new BulkResult(ids(students));
+        inTransaction(r, "UpdateAll", c -> {
+            Map<String,Student> before = findByIds(c, ids(students));
+            try (PreparedStatement p = c.prepareStatement(UPDATE_SQL)) {
+                for (Student s : students) { bindUpdate(p, s); p.addBatch(); }
+                int[] n = p.executeBatch();
+                for (int i=0;i<n.length;i++) {
+                    if (n[i]>0) { r.set(i, BulkResult.Outcome.APPLIED, null); r.setBefore(i, before.get(students.get(i).getStudentId())); }
+                    else r.set(i, BulkResult.Outcome.SKIPPED, "No such student");
+                }
+            }
+        });
+        return r;
+    }
+
+    /** Set-based {@code DELETE ... WHERE student_id IN (...)} in chunks; unknown IDs are SKIPPED. */
+    @Override
+    public BulkResult deleteAllByIds(List<String> ids) {
+        BulkResult r = new BulkResult(ids);
+        inTransaction(r, "DeleteAll", c -> {
+            Map<String,Student> before = findByIds(c, ids);
+            forChunks(c, "DELETE FROM students WHERE student_id IN ", ids, PreparedStatement::executeUpdate);
+            for (int i=0;i<ids.size();i++) {
+                Student s = before.remove(ids.get(i));          // removed so a repeated ID counts once
+                if (s!=null) { r.set(i, BulkResult.Outcome.APPLIED, null); r.setBefore(i, s); }
+                else r.set(i, BulkResult.Outcome.SKIPPED, "No such student");
+            }
+        });
+        return r;
+    }
+
+    /**
+     * Sets {@code status} on every student of the programme and level (null or blank means any)
+     * with one UPDATE. Only rows whose status actually changes are reported, each with its old row.
+     */
+    @Override
+    public BulkResult updateStatusWhere(String programme, Integer level, Student.StudentStatus status) {
+        StringBuilder where = new StringBuilder(" WHERE status<>?");
+        List<Object> params = new ArrayList<>(List.of(status.name()));
+        if (programme!=null && !programme.isBlank()) { where.append(" AND programme=?"); params.add(programme); }
+        if (level!=null) { where.append(" AND level=?"); params.add(level); }
+        List<Student> matched = new ArrayList<>();
+        BulkResult tx = new BulkResult(List.of());
+        inTransaction(tx, "UpdateStatus", c -> {
+            try (PreparedStatement p = c.prepareStatement("SELECT * FROM students"+where+" ORDER BY full_name, student_id")) {
+                for (int i=0;i<params.size();i++) p.setObject(i+1,params.get(i));
+                try (ResultSet rs = p.executeQuery()) { while (rs.next()) matched.add(map(rs)); }
+            }
+            try (PreparedStatement p = c.prepareStatement("UPDATE students SET status=?"+where)) {
+                p.setString(1,status.name());
+                for (int i=0;i<params.size();i++) p.setObject(i+2,params.get(i));
+                p.executeUpdate();
+            }
+        });
+        if (tx.getError()!=null) return tx;
+        BulkResult r = new BulkResult(ids(matched));
+        for (int i=0;i<matched.size();i++) { r.set(i, BulkResult.Outcome.APPLIED, null); r.setBefore(i, matched.get(i)); }
+        r.setElapsedMillis(tx.getElapsedMillis());
+        return r;
+    }
+
+    private interface TxWork { void run(Connection c) throws SQLException; }
+    private interface ChunkWork { void run(PreparedStatement p) throws SQLException; }
+
+    /** Runs {@code work} in one writer transaction, rolling back and failing every item of {@code r} on error. */
+    private void inTransaction(BulkResult r, String op, TxWork work) {
+        long start = System.nanoTime();
+        try (Connection c = DatabaseManager.getWriteConnection()) {
+            boolean auto = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try {
+                work.run(c);
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                r.failAll(e.getMessage());
+                AppLogger.warn(op+" rolled back ("+r.size()+" rows): "+e.getMessage());
+            } finally { c.setAutoCommit(auto); }
+        } catch (SQLException e) { r.failAll(e.getMessage()); AppLogger.error(op+" error: "+e.getMessage()); }
+        r.setElapsedMillis((System.nanoTime()-start)/1_000_000);
+    }
+
+    /** Runs {@code sqlPrefix (?,?,...)} once per chunk of at most {@value #IN_CHUNK} IDs. */
+    private static void forChunks(Connection c, String sqlPrefix, List<String> ids, ChunkWork work) throws SQLException {
+        for (int from=0; from<ids.size(); from+=IN_CHUNK) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from+IN_CHUNK));
+            try (PreparedStatement p = c.prepareStatement(sqlPrefix+"("+"?,".repeat(chunk.size()-1)+"?)")) {
+                for (int i=0;i<chunk.size();i++) p.setString(i+1,chunk.get(i));
+                work.run(p);
+            }
+        }
+    }
+
+    private static Map<String,Student> findByIds(Connection c, List<String> ids) throws SQLException {
+        Map<String,Student> found = new HashMap<>();
+        forChunks(c, "SELECT * FROM students WHERE student_id IN ", ids, p -> {
+            try (ResultSet rs = p.executeQuery()) { while (rs.next()) { Student s = map(rs); found.put(s.getStudentId(), s); } }
+        });
+        return found;
+    }
+
+    private static List<String> ids(List<Student> students) {
+        List<String> ids = new ArrayList<>(students.size());
+        for (Student s : students) ids.add(s.getStudentId());
+        return ids;
+    }
+
+    public static final int DEFAULT_SEARCH_LIMIT = 500;
+
+    @Override
+    public List<Student> search(String query) { return search(query, DEFAULT_SEARCH_LIMIT); }
+
+    /**
+     * Substring search on ID and name through the trigram FTS index, best matches first.
+     * Queries shorter than a trigram fall back to LIKE.
+     */
+    @Override
+    public List<Student> search(String query, int limit) {
         List<Student> list = new ArrayList<>();
-        String ptn = "%"+query+"%";
-        try (Connection c = DatabaseManager.getConnection(); PreparedStatement p = c.prepareStatement("SELECT * FROM students WHERE student_id LIKE ? OR full_name LIKE ?")) {
-            p.setString(1,ptn); p.setString(2,ptn); ResultSet rs = p.executeQuery();
-            while (rs.next()) list.add(map(rs));
-        } catch (SQLException e) { AppLogger.error("Search error: "+e.getMessage()); }
+        String q = query==null ? "" : query.trim();
+        boolean fts = q.length()>=3;
+        String sql = fts
+                ? "SELECT s.* FROM students_fts f JOIN students s ON s.id=f.rowid WHERE students_fts MATCH ? ORDER BY f.rank LIMIT ?"
+                : "SELECT * FROM students WHERE student_id LIKE ? OR full_name LIKE ? ORDER BY full_name LIMIT ?";
+        try (Connection c = DatabaseManager.getReadConnection(); PreparedStatement p = c.prepareStatement(sql)) {
+            if (fts) { p.setString(1,"{student_id full_name} : \""+q.replace("\"","\"\"")+"\""); p.setInt(2,limit); }
+            else { String ptn = "%"+q+"%"; p.setString(1,ptn); p.setString(2,ptn); p.setInt(3,limit); }
+            try (ResultSet rs = p.executeQuery()) { while (rs.next()) list.add(map(rs)); }
+        } catch (SQLException e) { readFailed("Search", e); }
         return list;
     }
 
@@ -76,31 +337,59 @@ public class SqliteStudentRepository implements StudentRepository {
         if (status!=null && !status.isBlank()) { sql.append(" AND status=?"); params.add(status); }
         sql.append(" ORDER BY full_name ASC");
         List<Student> list = new ArrayList<>();
-        try (Connection c = DatabaseManager.getConnection(); PreparedStatement p = c.prepareStatement(sql.toString())) {
+        try (Connection c = DatabaseManager.getReadConnection(); PreparedStatement p = c.prepareStatement(sql.toString())) {
             for (int i=0;i<params.size();i++) p.setObject(i+1,params.get(i));
             ResultSet rs = p.executeQuery();
             while (rs.next()) list.add(map(rs));
-        } catch (SQLException e) { AppLogger.error("Filter error: "+e.getMessage()); }
+        } catch (SQLException e) { readFailed("Filter", e); }
         return list;
     }
 
     @Override
     public boolean existsById(String id) {
-        try (Connection c = DatabaseManager.getConnection(); PreparedStatement p = c.prepareStatement("SELECT 1 FROM students WHERE student_id=?")) {
+        try (Connection c = DatabaseManager.getReadConnection(); PreparedStatement p = c.prepareStatement("SELECT 1 FROM students WHERE student_id=?")) {
             p.setString(1,id); return p.executeQuery().next();
-        } catch (SQLException e) { AppLogger.error("Exists error: "+e.getMessage()); return false; }
+        } catch (SQLException e) { readFailed("Exists", e); return false; }
     }
 
     @Override
     public List<String> getAllProgrammes() {
         List<String> list = new ArrayList<>();
-        try (Connection c = DatabaseManager.getConnection(); Statement s = c.createStatement(); ResultSet rs = s.executeQuery("SELECT DISTINCT programme FROM students ORDER BY programme ASC")) {
+        try (Connection c = DatabaseManager.getReadConnection(); Statement s = c.createStatement(); ResultSet rs = s.executeQuery("SELECT DISTINCT programme FROM students ORDER BY programme ASC")) {
             while (rs.next()) list.add(rs.getString("programme"));
-        } catch (SQLException e) { AppLogger.error("GetProgrammes error: "+e.getMessage()); }
+        } catch (SQLException e) { readFailed("GetProgrammes", e); }
         return list;
     }
 
-    private Student map(ResultSet rs) throws SQLException {
+    /** Sums the per programme/level rows of student_stats, so the cost does not grow with the table. */
+    @Override
+    public KpiSummary getKpiSummary() {
+        String sql = "SELECT COALESCE(SUM(total),0), COALESCE(SUM(active),0), COALESCE(SUM(inactive),0), COALESCE(SUM(gpa_sum),0) FROM student_stats";
+        try (Connection c = DatabaseManager.getReadConnection(); Statement s = c.createStatement(); ResultSet rs = s.executeQuery(sql)) {
+            if (rs.next()) return new KpiSummary(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getDouble(4));
+        } catch (SQLException e) { readFailed("KPI", e); }
+        return new KpiSummary(0, 0, 0, 0);
+    }
+
+    private void bindInsert(PreparedStatement p, Student s) throws SQLException {
+        p.setString(1,s.getStudentId()); p.setString(2,s.getFullName()); p.setString(3,s.getProgramme());
+        p.setInt(4,s.getLevel()); p.setDouble(5,s.getGpa()); p.setString(6,s.getEmail());
+        p.setString(7,s.getPhoneNumber()); p.setString(8,s.getDateAdded().toString()); p.setString(9,s.getStatus().name());
+    }
+
+    private void bindUpdate(PreparedStatement p, Student s) throws SQLException {
+        p.setString(1,s.getFullName()); p.setString(2,s.getProgramme()); p.setInt(3,s.getLevel());
+        p.setDouble(4,s.getGpa()); p.setString(5,s.getEmail()); p.setString(6,s.getPhoneNumber());
+        p.setString(7,s.getStatus().name()); p.setString(8,s.getStudentId());
+    }
+
+    /** A read cancelled because a newer query superseded it is routine, so it is logged at INFO. */
+    private static void readFailed(String what, SQLException e) {
+        if (DatabaseManager.isCancelled(e)) AppLogger.info(what+" cancelled: "+e.getMessage());
+        else AppLogger.error(what+" error: "+e.getMessage());
+    }
+
+    static Student map(ResultSet rs) throws SQLException {
         Student s = new Student();
         s.setStudentId(rs.getString("student_id")); s.setFullName(rs.getString("full_name"));
         s.setProgramme(rs.getString("programme")); s.setLevel(rs.getInt("level"));
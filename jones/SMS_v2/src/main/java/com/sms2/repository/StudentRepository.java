@@ -1,17 +1,38 @@
 package com.sms2.repository;
 
+import com.sms2.domain.BulkResult;
+import com.sms2.domain.KpiSummary;
 import com.sms2.domain.Student;
+import com.sms2.domain.StudentOrder;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface StudentRepository {
     boolean add(Student student);
+    boolean addBatch(List<Student> students);
     Optional<Student> findById(String studentId);
+    /** The students with these IDs, in the order given; unknown IDs are left out. */
+    List<Student> findAllByIds(List<String> studentIds);
     List<Student> findAll();
+    /** Every student in name order; throws {@link IllegalStateException} if the read fails part way. */
+    void forEach(Consumer<Student> action);
+    int count();
+    List<Student> findPageAfter(String afterName, String afterId, int limit);
+    List<Student> findPageAt(int offset, int limit);
+    /** Keyset page in {@code order}: the {@code limit} students after {@code after}, or from the start when it is null. */
+    List<Student> findPageAfter(StudentOrder order, Student after, int limit);
+    List<Student> findPageAt(StudentOrder order, int offset, int limit);
     boolean update(Student student);
     boolean delete(String studentId);
+    BulkResult addAll(List<Student> students);
+    BulkResult updateAll(List<Student> students);
+    BulkResult deleteAllByIds(List<String> studentIds);
+    BulkResult updateStatusWhere(String programme, Integer level, Student.StudentStatus status);
     List<Student> search(String query);
+    List<Student> search(String query, int limit);
     List<Student> filter(String programme, Integer level, String status);
     boolean existsById(String studentId);
     List<String> getAllProgrammes();
+    KpiSummary getKpiSummary();
 }
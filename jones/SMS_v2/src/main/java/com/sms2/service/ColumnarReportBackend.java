@@ -0,0 +1,41 @@
+package com.sms2.service;
+
+import com.sms2.domain.ReportSnapshot;
+import com.sms2.domain.Student;
+import com.sms2.repository.StudentRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Reports over a {@link StudentColumnStore}, rebuilt from the repository only when the data
+ * version has moved since the last build.
+ */
+public class ColumnarReportBackend implements ReportBackend {
+    private final StudentRepository repo;
+    private final LongSupplier dataVersion;
+    private StudentColumnStore store;
+    private long builtAt;
+
+    public ColumnarReportBackend(StudentRepository repo, LongSupplier dataVersion) {
+        this.repo = repo;
+        this.dataVersion = dataVersion;
+    }
+
+    /** The current store; reading the version before the scan means a write during it triggers another rebuild. */
+    public synchronized StudentColumnStore store() {
+        long v = dataVersion.getAsLong();
+        if (store == null || v != builtAt) {
+            store = StudentColumnStore.load(repo);
+            builtAt = v;
+        }
+        return store;
+    }
+
+    @Override public List<Student> getTopPerformers(int topN, String programme, Integer level) { return store().topPerformers(topN, programme, level); }
+    @Override public List<Student> getAtRiskStudents(double threshold) { return store().atRisk(threshold); }
+    @Override public Map<String, Long> getGpaDistribution()            { return ReportService.gpaDistribution(store().gpaBandCounts()); }
+    @Override public Map<String, double[]> getProgrammeSummary()       { return store().programmeSummary(); }
+    @Override public double getAverageGpa()                            { return store().averageGpa(); }
+    @Override public ReportSnapshot snapshot(int topN, double threshold) { return store().snapshot(topN, threshold); }
+}
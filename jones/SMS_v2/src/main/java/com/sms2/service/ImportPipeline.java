@@ -0,0 +1,202 @@
+package com.sms2.service;
+
+import com.sms2.domain.ImportResult;
+import com.sms2.domain.Student;
+import com.sms2.repository.StudentRepository;
+import com.sms2.util.CsvHelper;
+import com.sms2.util.Metrics;
+import com.sms2.util.TaskExecutor;
+import java.io.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Three-stage CSV import: a reader on a {@link TaskExecutor} I/O thread cuts the file into blocks
+ * of raw rows, its CPU pool parses and validates blocks in parallel, and the calling thread is the
+ * single DB writer. Blocks travel through a bounded queue of futures in file order, so the reader
+ * blocks once {@code workers*2} blocks are ahead of the writer and errors are reported in
+ * source-row order.
+ * <p>
+ * Stage timings go to the {@code import.read} (whole file), {@code import.parse} and
+ * {@code import.write} (per block) and {@code import.wait} (writer idle per block) timers.
+ */
+public class ImportPipeline {
+    private static final Future<Block> END = CompletableFuture.completedFuture(null);
+    private static final int COLUMNS = 9;          // fields parseRow reads; any extra columns are never decoded
+    private static final Metrics.Timer READ = Metrics.timer("import.read"), PARSE = Metrics.timer("import.parse");
+    private static final Metrics.Timer WAIT = Metrics.timer("import.wait"), WRITE = Metrics.timer("import.write");
+
+    private final StudentRepository repo;
+    private final ValidationService validator;
+    private final int batchSize;
+    private final int workers;
+    private final Consumer<List<Student>> onCommitted;
+    private final TaskExecutor tasks;
+
+    public ImportPipeline(StudentRepository repo, ValidationService validator, int batchSize, int workers) {
+        this(repo, validator, batchSize, workers, saved -> {});
+    }
+
+    /** {@code onCommitted} gets each block's committed rows, in file order, on the writer thread. */
+    public ImportPipeline(StudentRepository repo, ValidationService validator, int batchSize, int workers,
+                          Consumer<List<Student>> onCommitted) {
+        this(repo, validator, batchSize, workers, onCommitted, TaskExecutor.shared());
+    }
+
+    public ImportPipeline(StudentRepository repo, ValidationService validator, int batchSize, int workers,
+                          Consumer<List<Student>> onCommitted, TaskExecutor tasks) {
+        if (batchSize<1) throw new IllegalArgumentException("batchSize must be positive");
+        if (workers<1) throw new IllegalArgumentException("workers must be positive");
+        this.repo = repo;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.onCommitted = onCommitted;
+        this.tasks = tasks;
+    }
+
+    public static int defaultWorkers() { return Math.max(1, Runtime.getRuntime().availableProcessors()-1); }
+
+    public ImportResult run(File file) {
+        ImportResult result = new ImportResult();
+        BlockingQueue<Future<Block>> queue = new ArrayBlockingQueue<>(workers*2);
+        AtomicReference<IOException> readError = new AtomicReference<>();
+        Future<?> reader = tasks.submitIo(() -> { read(file, queue, readError); return null; });
+        try {
+            while (true) {
+                long waitStart = System.nanoTime();
+                Future<Block> next = queue.take();
+                if (next == END) break;
+                Block b = next.get();
+                WAIT.recordSince(waitStart);
+                long writeStart = System.nanoTime();
+                write(b, result);
+                WRITE.recordSince(writeStart);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.addError("Import interrupted.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Import worker failed", e.getCause());
+        } finally {
+            reader.cancel(true);
+            for (Future<Block> f : queue) f.cancel(true);
+        }
+        if (readError.get()!=null) result.addError("Cannot read file: "+readError.get().getMessage());
+        return result;
+    }
+
+    // ── Stage 1: reader ──
+
+    private void read(File file, BlockingQueue<Future<Block>> queue, AtomicReference<IOException> readError) {
+        long start = System.nanoTime();
+        try {
+            Block[] current = { new Block(batchSize) };
+            try {
+                CsvHelper.forEachRow(file, COLUMNS, (row, fields) -> {
+                    current[0].add(row, fields);
+                    if (current[0].size==batchSize) { submit(current[0], queue); current[0] = new Block(batchSize); }
+                });
+            } catch (IOException e) { readError.set(e); }
+            if (current[0].size>0) submit(current[0], queue);
+            queue.put(END);
+        } catch (InterruptedException | CancellationException e) {
+            Thread.currentThread().interrupt();
+        } finally { READ.recordSince(start); }
+    }
+
+    private void submit(Block b, BlockingQueue<Future<Block>> queue) {
+        try { queue.put(tasks.submitCpu(() -> parse(b))); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); throw new CancellationException(); }
+    }
+
+    // ── Stage 2: workers ──
+
+    private Block parse(Block b) {
+        long start = System.nanoTime();
+        for (int i=0;i<b.size;i++) {
+            try {
+                Student s = parseRow(b.raw[i]);
+                int mask = validator.check(s);
+                if (mask==0) b.students[i] = s;
+                else b.invalid[i] = mask;
+            } catch (Exception e) { b.errors[i] = e.getMessage(); }
+            b.raw[i] = null;
+        }
+        PARSE.recordSince(start);
+        return b;
+    }
+
+    static Student parseRow(String[] r) {
+        if (r.length<8) throw new IllegalArgumentException("Not enough columns");
+        Student s = new Student();
+        s.setStudentId(r[0].trim()); s.setFullName(r[1].trim()); s.setProgramme(r[2].trim());
+        s.setLevel(Integer.parseInt(r[3].trim())); s.setGpa(Double.parseDouble(r[4].trim()));
+        s.setEmail(r[5].trim()); s.setPhoneNumber(r[6].trim());
+        s.setDateAdded(r[7].trim().isEmpty() ? LocalDate.now() : LocalDate.parse(r[7].trim()));
+        if (r.length>8&&!r[8].isBlank()) s.setStatus(Student.StudentStatus.valueOf(r[8].trim().toUpperCase()));
+        return s;
+    }
+
+    // ── Stage 3: single writer ──
+
+    /**
+     * Inserts the block's valid rows in one transaction. IDs already in the table are found with one
+     * lookup for the whole block. If the transaction fails it is rolled back and retried in halves,
+     * so a bad row costs a few transactions rather than one per row, and errors stay per row.
+     */
+    private void write(Block b, ImportResult result) {
+        List<String> ids = new ArrayList<>(b.size);
+        for (int i=0;i<b.size;i++) if (b.students[i]!=null) ids.add(b.students[i].getStudentId());
+        Set<String> taken = new HashSet<>();
+        if (!ids.isEmpty()) for (Student s : repo.findAllByIds(ids)) taken.add(s.getStudentId());
+        List<Student> batch = new ArrayList<>(ids.size());
+        for (int i=0;i<b.size;i++) {
+            Student s = b.students[i];
+            if (s==null) continue;
+            if (taken.add(s.getStudentId())) batch.add(s);
+            else { b.students[i] = null; b.errors[i] = "Duplicate ID '"+s.getStudentId()+"'"; }
+        }
+        Set<String> failed = new HashSet<>();
+        insert(batch, failed);
+        List<Student> saved = new ArrayList<>(batch.size());
+        for (int i=0;i<b.size;i++) {
+            Student s = b.students[i];
+            if (s==null) result.addError("Row "+b.rows[i]+": "+b.error(i));
+            else if (failed.contains(s.getStudentId())) result.addError("Row "+b.rows[i]+": Failed to save '"+s.getStudentId()+"'");
+            else { result.incrementSuccess(); saved.add(s); }
+        }
+        if (!saved.isEmpty()) onCommitted.accept(saved);
+    }
+
+    /** Inserts {@code rows} in one transaction, or failing that each half in turn; collects the IDs of rows that fail alone. */
+    private void insert(List<Student> rows, Set<String> failed) {
+        if (rows.isEmpty() || repo.addBatch(rows)) return;
+        if (rows.size()==1) { failed.add(rows.get(0).getStudentId()); return; }
+        int mid = rows.size()/2;
+        insert(rows.subList(0, mid), failed);
+        insert(rows.subList(mid, rows.size()), failed);
+    }
+
+    /** A run of consecutive CSV rows; filled by the reader, completed by a worker, drained by the writer. */
+    private static final class Block {
+        final int[] rows;
+        final String[][] raw;
+        final Student[] students;
+        final String[] errors;
+        final int[] invalid;            // ValidationError masks, rendered only when reported
+        int size;
+
+        Block(int capacity) {
+            rows = new int[capacity]; raw = new String[capacity][];
+            students = new Student[capacity]; errors = new String[capacity]; invalid = new int[capacity];
+        }
+
+        String error(int i) { return invalid[i]!=0 ? ValidationError.describe(invalid[i]) : errors[i]; }
+
+        void add(int row, String[] fields) { rows[size] = row; raw[size++] = fields; }
+    }
+}
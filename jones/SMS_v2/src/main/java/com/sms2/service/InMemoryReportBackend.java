@@ -0,0 +1,32 @@
+package com.sms2.service;
+
+import com.sms2.domain.ReportSnapshot;
+import com.sms2.domain.Student;
+import com.sms2.repository.StudentRepository;
+import java.util.List;
+import java.util.Map;
+
+/** Loads every student and computes reports with {@link ReportService}. */
+public class InMemoryReportBackend implements ReportBackend {
+    private final StudentRepository repo;
+    private final ReportService reports;
+
+    public InMemoryReportBackend(StudentRepository repo, ReportService reports) {
+        this.repo = repo;
+        this.reports = reports;
+    }
+
+    @Override public List<Student> getTopPerformers(int topN, String programme, Integer level) { return reports.getTopPerformers(repo.findAll(), topN, programme, level); }
+    @Override public List<Student> getAtRiskStudents(double threshold) { return reports.getAtRiskStudents(repo.findAll(), threshold); }
+    @Override public Map<String, Long> getGpaDistribution()            { return reports.getGpaDistribution(repo.findAll()); }
+    @Override public Map<String, double[]> getProgrammeSummary()       { return reports.getProgrammeSummary(repo.findAll()); }
+    @Override public double getAverageGpa()                            { return reports.getAverageGpa(repo.findAll()); }
+
+    /** One cursor scan through a {@link ReportEngine}; the student list is never built. */
+    @Override
+    public ReportSnapshot snapshot(int topN, double threshold) {
+        ReportEngine engine = new ReportEngine(topN, threshold);
+        repo.forEach(engine);
+        return engine.finish();
+    }
+}
@@ -0,0 +1,34 @@
+package com.sms2.service;
+
+import com.sms2.domain.ReportSnapshot;
+import com.sms2.domain.ReportSnapshot.ProgrammeStat;
+import com.sms2.domain.Student;
+import com.sms2.repository.ReportRepository;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Runs each report as a query through a {@link ReportRepository}. */
+public class PushDownReportBackend implements ReportBackend {
+    private final ReportRepository repo;
+
+    public PushDownReportBackend(ReportRepository repo) { this.repo = repo; }
+
+    @Override public List<Student> getTopPerformers(int topN, String programme, Integer level) { return repo.findTopByGpa(topN, programme, level); }
+    @Override public List<Student> getAtRiskStudents(double threshold) { return repo.findGpaBelow(threshold); }
+    @Override public Map<String, Long> getGpaDistribution()            { return ReportService.gpaDistribution(repo.countByGpaBand()); }
+    @Override public Map<String, double[]> getProgrammeSummary()       { return repo.summarizeByProgramme(); }
+    @Override public double getAverageGpa()                            { return repo.averageGpa(); }
+
+    /** Each part is its own small query, and none loads the full student set; all of them read one consistent state. */
+    @Override
+    public ReportSnapshot snapshot(int topN, double threshold) {
+        return repo.readConsistent(r -> {
+            Map<String, ProgrammeStat> summary = new LinkedHashMap<>();
+            r.summarizeByProgramme().forEach((k, v) -> summary.put(k, new ProgrammeStat((long) v[0], v[1])));
+            long total = summary.values().stream().mapToLong(ProgrammeStat::count).sum();
+            return new ReportSnapshot(topN, threshold, r.findTopByGpa(topN, null, null), r.findGpaBelow(threshold),
+                    ReportService.gpaDistribution(r.countByGpaBand()), summary, total, r.averageGpa());
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.sms2.service;
+
+import com.sms2.domain.ReportSnapshot;
+import com.sms2.domain.Student;
+import com.sms2.repository.SqliteReportRepository;
+import com.sms2.repository.StudentRepository;
+import com.sms2.util.DatabaseManager;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Source of the report figures. {@link Mode#IN_MEMORY} loads the students and runs
+ * {@link ReportService} over them; {@link Mode#PUSH_DOWN} has SQLite compute each report so the
+ * student set is never materialized; {@link Mode#COLUMNAR} keeps a primitive
+ * {@link StudentColumnStore} that is rebuilt after writes. All return the same results in the
+ * same order.
+ */
+public interface ReportBackend {
+
+    enum Mode { IN_MEMORY, PUSH_DOWN, COLUMNAR }
+
+    List<Student> getTopPerformers(int topN, String programme, Integer level);
+    List<Student> getAtRiskStudents(double threshold);
+    Map<String, Long> getGpaDistribution();
+    Map<String, double[]> getProgrammeSummary();
+    double getAverageGpa();
+
+    /** All reports at once, for the Reports page and its exports to share. */
+    ReportSnapshot snapshot(int topN, double threshold);
+
+    static ReportBackend create(Mode mode, StudentRepository students) {
+        return switch (mode) {
+            case IN_MEMORY -> new InMemoryReportBackend(students, new ReportService());
+            case PUSH_DOWN -> new PushDownReportBackend(new SqliteReportRepository());
+            case COLUMNAR  -> new ColumnarReportBackend(students, DatabaseManager::getDataVersion);
+        };
+    }
+
+    /** The backend named by {@code sms.reports.mode}, push-down by default. */
+    static ReportBackend fromSystemProperty(StudentRepository students) {
+        return create(Mode.valueOf(System.getProperty("sms.reports.mode", Mode.PUSH_DOWN.name()).toUpperCase()), students);
+    }
+}
@@ -0,0 +1,76 @@
+package com.sms2.service;
+
+import com.sms2.domain.ReportSnapshot;
+import com.sms2.domain.ReportSnapshot.ProgrammeStat;
+import com.sms2.domain.Student;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Computes every report in one scan: feed it students (e.g. straight from a repository cursor)
+ * and call {@link #finish()}. Top-N keeps a bounded heap of {@code topN} entries instead of
+ * sorting everything; only the at-risk subset is sorted at the end. Single use, not thread-safe.
+ */
+public class ReportEngine implements Consumer<Student> {
+
+    /** Report order: highest GPA first, ties by name then ID. */
+    static final Comparator<Student> RANK = Comparator.comparingDouble(Student::getGpa).reversed()
+            .thenComparing(Student::getFullName).thenComparing(Student::getStudentId);
+    /** At-risk order: lowest GPA first, ties by name then ID. */
+    static final Comparator<Student> RISK = Comparator.comparingDouble(Student::getGpa)
+            .thenComparing(Student::getFullName).thenComparing(Student::getStudentId);
+
+    private final int topN;
+    private final double threshold;
+    private final PriorityQueue<Student> top;               // worst of the current top-N at the head
+    private final List<Student> atRisk = new ArrayList<>();
+    private final long[] bands = new long[ReportService.GPA_BANDS.size()];
+    private final Map<String, double[]> programmes = new TreeMap<>();   // programme -> {count, gpa sum}
+    private long total;
+    private double gpaSum;
+
+    public ReportEngine(int topN, double threshold) {
+        this.topN = topN;
+        this.threshold = threshold;
+        this.top = new PriorityQueue<>(Math.max(1, topN + 1), RANK.reversed());
+    }
+
+    @Override
+    public void accept(Student s) {
+        double g = s.getGpa();
+        total++;
+        gpaSum += g;
+        bands[g<1.0 ? 0 : g<2.0 ? 1 : g<3.0 ? 2 : 3]++;
+        double[] p = programmes.computeIfAbsent(s.getProgramme(), k -> new double[2]);
+        p[0]++; p[1] += g;
+        if (g < threshold) atRisk.add(s);
+        offer(top, topN, s);
+    }
+
+    public ReportSnapshot finish() {
+        atRisk.sort(RISK);
+        Map<String, ProgrammeStat> summary = new LinkedHashMap<>();
+        programmes.forEach((k, v) -> summary.put(k, new ProgrammeStat((long) v[0], v[1] / v[0])));
+        return new ReportSnapshot(topN, threshold, drain(top), atRisk, ReportService.gpaDistribution(bands),
+                summary, total, total == 0 ? 0.0 : gpaSum / total);
+    }
+
+    /** The best {@code n} students in {@link #RANK} order, using a heap of size {@code n}. */
+    static List<Student> top(Iterable<Student> students, int n) {
+        PriorityQueue<Student> heap = new PriorityQueue<>(Math.max(1, n + 1), RANK.reversed());
+        for (Student s : students) offer(heap, n, s);
+        return drain(heap);
+    }
+
+    private static void offer(PriorityQueue<Student> heap, int n, Student s) {
+        if (n <= 0) return;
+        if (heap.size() < n) heap.add(s);
+        else if (RANK.compare(s, heap.peek()) < 0) { heap.poll(); heap.add(s); }
+    }
+
+    private static List<Student> drain(PriorityQueue<Student> heap) {
+        List<Student> out = new ArrayList<>(heap);
+        out.sort(RANK);
+        return out;
+    }
+}
@@ -6,37 +6,41 @@ import java.util.stream.*;
 
 public class ReportService {
 
+    public static final List<String> GPA_BANDS = List.of("0.0 – 1.0", "1.0 – 2.0", "2.0 – 3.0", "3.0 – 4.0");
+
     public List<Student> getTopPerformers(List<Student> students, int topN, String programme, Integer level) {
-        return students.stream()
+        Stream<Student> matching = students.stream()
                 .filter(s -> programme==null||programme.isBlank()||s.getProgramme().equalsIgnoreCase(programme))
-                .filter(s -> level==null||s.getLevel()==level)
-                .sorted(Comparator.comparingDouble(Student::getGpa).reversed())
-                .limit(topN).collect(Collectors.toList());
+                .filter(s -> level==null||s.getLevel()==level);
+        return ReportEngine.top(matching::iterator, topN);
     }
 
     public List<Student> getAtRiskStudents(List<Student> students, double threshold) {
         return students.stream().filter(s -> s.getGpa()<threshold)
-                .sorted(Comparator.comparingDouble(Student::getGpa)).collect(Collectors.toList());
+                .sorted(ReportEngine.RISK).collect(Collectors.toList());
     }
 
     public Map<String, Long> getGpaDistribution(List<Student> students) {
-        Map<String,Long> d = new LinkedHashMap<>();
-        d.put("0.0 – 1.0",0L); d.put("1.0 – 2.0",0L); d.put("2.0 – 3.0",0L); d.put("3.0 – 4.0",0L);
+        long[] counts = new long[GPA_BANDS.size()];
         for (Student s : students) {
             double g = s.getGpa();
-            if (g<1.0) d.merge("0.0 – 1.0",1L,Long::sum);
-            else if (g<2.0) d.merge("1.0 – 2.0",1L,Long::sum);
-            else if (g<3.0) d.merge("2.0 – 3.0",1L,Long::sum);
-            else d.merge("3.0 – 4.0",1L,Long::sum);
+            counts[g<1.0 ? 0 : g<2.0 ? 1 : g<3.0 ? 2 : 3]++;
         }
+        return gpaDistribution(counts);
+    }
+
+    /** Labels per-band counts in band order. */
+    public static Map<String, Long> gpaDistribution(long[] counts) {
+        Map<String,Long> d = new LinkedHashMap<>();
+        for (int i=0;i<GPA_BANDS.size();i++) d.put(GPA_BANDS.get(i), counts[i]);
         return d;
     }
 
     public Map<String,double[]> getProgrammeSummary(List<Student> students) {
-        Map<String,List<Student>> byProg = students.stream().collect(Collectors.groupingBy(Student::getProgramme));
+        Map<String,DoubleSummaryStatistics> byProg = students.stream().collect(
+                Collectors.groupingBy(Student::getProgramme, TreeMap::new, Collectors.summarizingDouble(Student::getGpa)));
         Map<String,double[]> summary = new LinkedHashMap<>();
-        byProg.forEach((p,list) -> summary.put(p, new double[]{list.size(),
-                list.stream().mapToDouble(Student::getGpa).average().orElse(0.0)}));
+        byProg.forEach((p,st) -> summary.put(p, new double[]{st.getCount(), st.getAverage()}));
         return summary;
     }
 
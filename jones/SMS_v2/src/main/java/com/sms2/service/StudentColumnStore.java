@@ -0,0 +1,332 @@
+package com.sms2.service;
+
+import com.sms2.domain.ReportSnapshot;
+import com.sms2.domain.ReportSnapshot.ProgrammeStat;
+import com.sms2.domain.Student;
+import com.sms2.repository.StudentRepository;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Read-only columnar copy of the students table for analytics. Numeric fields live in primitive
+ * arrays ({@code double[] gpa}, {@code short[] level}, {@code byte[] status}, epoch-day
+ * {@code int[] dateAdded}) and programmes are dictionary-encoded into {@code int[] programmeId},
+ * so the report loops below are straight passes over primitive arrays with no per-row
+ * allocation. The text columns are only read to turn result rows back into {@link Student}s.
+ * <p>
+ * Rows are held in (full_name, student_id) order, so a row index doubles as the name/ID
+ * tie-break of the report orderings. Build a new store to pick up changes.
+ * <p>
+ * {@link #snapshot} runs every report in one fused pass over a reduction tree with fixed
+ * {@value #LEAF}-row leaves. From {@code sms.reports.parallelThreshold} rows on, the tree is
+ * evaluated on the common fork/join pool. Since the tree depends only on the row count, the
+ * floating-point sums (and everything else) come out bit-identical whatever the pool size.
+ */
+public final class StudentColumnStore {
+    private static final byte ACTIVE = 0, INACTIVE = 1;
+    private static final int PARALLEL_THRESHOLD = Integer.getInteger("sms.reports.parallelThreshold", 250_000);
+    static final int LEAF = 16_384;
+
+    private final int size;
+    private final String[] id, name, email, phone;
+    private final double[] gpa;
+    private final short[] level;
+    private final byte[] status;
+    private final int[] programmeId;
+    private final int[] dateAdded;
+    private final String[] programmes;          // dictionary: programmeId -> name
+
+    private StudentColumnStore(Builder b) {
+        int[] order = b.nameOrder();
+        size = b.size;
+        id = new String[size]; name = new String[size]; email = new String[size]; phone = new String[size];
+        gpa = new double[size]; level = new short[size]; status = new byte[size];
+        programmeId = new int[size]; dateAdded = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = order == null ? i : order[i];
+            id[i] = b.id[j]; name[i] = b.name[j]; email[i] = b.email[j]; phone[i] = b.phone[j];
+            gpa[i] = b.gpa[j]; level[i] = b.level[j]; status[i] = b.status[j];
+            programmeId[i] = b.programmeId[j]; dateAdded[i] = b.dateAdded[j];
+        }
+        programmes = b.dictionary.toArray(new String[0]);
+    }
+
+    /** Loads every student through the repository's cursor. */
+    public static StudentColumnStore load(StudentRepository repo) {
+        Builder b = new Builder();
+        repo.forEach(b::add);
+        return new StudentColumnStore(b);
+    }
+
+    public static StudentColumnStore of(Collection<Student> students) {
+        Builder b = new Builder();
+        students.forEach(b::add);
+        return new StudentColumnStore(b);
+    }
+
+    public int size() { return size; }
+
+    public double averageGpa() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) sum += gpa[i];
+        return size == 0 ? 0.0 : sum / size;
+    }
+
+    /** Counts for the {@link ReportService#GPA_BANDS}: [0,1), [1,2), [2,3), [3,4]. */
+    public long[] gpaBandCounts() {
+        long[] bands = new long[4];
+        for (int i = 0; i < size; i++) bands[Math.min((int) gpa[i], 3)]++;
+        return bands;
+    }
+
+    public long countActive() {
+        long n = 0;
+        for (int i = 0; i < size; i++) n += status[i] == ACTIVE ? 1 : 0;
+        return n;
+    }
+
+    public long countInactive() { return size - countActive(); }
+
+    /** Programme -> {student count, average GPA}, ordered by programme. */
+    public Map<String, double[]> programmeSummary() {
+        long[] counts = new long[programmes.length];
+        double[] sums = new double[programmes.length];
+        for (int i = 0; i < size; i++) { counts[programmeId[i]]++; sums[programmeId[i]] += gpa[i]; }
+        Map<String, double[]> out = new TreeMap<>();
+        for (int p = 0; p < programmes.length; p++) if (counts[p] > 0) out.put(programmes[p], new double[]{counts[p], sums[p] / counts[p]});
+        return out;
+    }
+
+    /** Best {@code n} by GPA (ties by name then ID); programme matches case-insensitively. */
+    public List<Student> topPerformers(int n, String programme, Integer lvl) {
+        boolean[] progOk = new boolean[programmes.length];
+        for (int p = 0; p < programmes.length; p++)
+            progOk[p] = programme == null || programme.isBlank() || programmes[p].equalsIgnoreCase(programme);
+        int want = lvl == null ? -1 : lvl;
+        int[] heap = new int[Math.max(0, Math.min(n, size))];
+        int h = 0;
+        for (int i = 0; i < size; i++) {
+            if (!progOk[programmeId[i]] || (want >= 0 && level[i] != want)) continue;
+            if (h < heap.length) siftUp(heap, h++, i);
+            else if (h > 0 && ranksAbove(i, heap[0])) { heap[0] = i; siftDown(heap, h); }
+        }
+        return rows(rankOrder(heap, h), h);
+    }
+
+    /** GPA below {@code threshold}, lowest first (ties by name then ID). */
+    public List<Student> atRisk(double threshold) {
+        int[] rows = new int[16];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (gpa[i] < threshold) {
+                if (n == rows.length) rows = Arrays.copyOf(rows, n * 2);
+                rows[n++] = i;
+            }
+        }
+        // rows are already in name order, so a stable sort on GPA gives (gpa, name, id)
+        sortByGpa(rows, new int[n], 0, n);
+        return rows(rows, n);
+    }
+
+    /** Every report in one pass; parallel on the common pool for large stores. */
+    public ReportSnapshot snapshot(int topN, double threshold) {
+        return snapshot(topN, threshold, size >= PARALLEL_THRESHOLD ? ForkJoinPool.commonPool() : null);
+    }
+
+    /** Every report in one pass on {@code pool}, or on the calling thread when it is null. Same result either way. */
+    public ReportSnapshot snapshot(int topN, double threshold, ForkJoinPool pool) {
+        Reduce root = new Reduce(0, size, topN, threshold, pool != null);
+        Pass all = pool != null ? pool.invoke(root) : root.compute();
+        Map<String, ProgrammeStat> summary = new TreeMap<>();
+        for (int p = 0; p < programmes.length; p++)
+            if (all.progCount[p] > 0) summary.put(programmes[p], new ProgrammeStat(all.progCount[p], all.progSum[p] / all.progCount[p]));
+        return new ReportSnapshot(topN, threshold, rows(all.top, all.topLen), rows(all.risk, all.riskLen),
+                ReportService.gpaDistribution(all.bands), summary, size, size == 0 ? 0.0 : all.gpaSum / size);
+    }
+
+    public Student row(int i) {
+        Student s = new Student(id[i], name[i], programmes[programmeId[i]], level[i], gpa[i], email[i], phone[i]);
+        s.setDateAdded(LocalDate.ofEpochDay(dateAdded[i]));
+        s.setStatus(status[i] == ACTIVE ? Student.StudentStatus.ACTIVE : Student.StudentStatus.INACTIVE);
+        return s;
+    }
+
+    private List<Student> rows(int[] rows, int n) {
+        List<Student> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(row(rows[i]));
+        return out;
+    }
+
+    /** Report order: higher GPA first, then lower row index (name, ID). */
+    private boolean ranksAbove(int a, int b) { return gpa[a] > gpa[b] || (gpa[a] == gpa[b] && a < b); }
+
+    /** Empties a rank heap of {@code h} rows into report order. */
+    private int[] rankOrder(int[] heap, int h) {
+        int[] out = new int[h];
+        for (int k = h; k > 0; ) {
+            out[--k] = heap[0];
+            heap[0] = heap[k];
+            siftDown(heap, k);
+        }
+        return out;
+    }
+
+    // min-heap on rank: the weakest of the current top-N sits at heap[0]
+    private void siftUp(int[] heap, int k, int row) {
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (!ranksAbove(heap[parent], row)) break;
+            heap[k] = heap[parent];
+            k = parent;
+        }
+        heap[k] = row;
+    }
+
+    private void siftDown(int[] heap, int n) {
+        int k = 0, row = heap[0];
+        while (true) {
+            int c = 2 * k + 1;
+            if (c >= n) break;
+            if (c + 1 < n && ranksAbove(heap[c], heap[c + 1])) c++;
+            if (!ranksAbove(row, heap[c])) break;
+            heap[k] = heap[c];
+            k = c;
+        }
+        heap[k] = row;
+    }
+
+    /** Stable merge sort of row indexes by ascending GPA. */
+    private void sortByGpa(int[] a, int[] tmp, int from, int to) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        sortByGpa(a, tmp, from, mid);
+        sortByGpa(a, tmp, mid, to);
+        if (gpa[a[mid - 1]] <= gpa[a[mid]]) return;
+        System.arraycopy(a, from, tmp, from, to - from);
+        for (int i = from, l = from, r = mid; i < to; i++)
+            a[i] = r >= to || (l < mid && gpa[tmp[l]] <= gpa[tmp[r]]) ? tmp[l++] : tmp[r++];
+    }
+
+    /** Splits a row range at a leaf boundary; the split points depend only on the range. */
+    private final class Reduce extends RecursiveTask<Pass> {
+        final int from, to, topN;
+        final double threshold;
+        final boolean fork;
+
+        Reduce(int from, int to, int topN, double threshold, boolean fork) {
+            this.from = from; this.to = to; this.topN = topN; this.threshold = threshold; this.fork = fork;
+        }
+
+        @Override protected Pass compute() {
+            int leaves = (to - from + LEAF - 1) / LEAF;
+            if (leaves <= 1) return new Pass(from, to, topN, threshold);
+            int mid = from + leaves / 2 * LEAF;
+            Reduce left = new Reduce(from, mid, topN, threshold, fork), right = new Reduce(mid, to, topN, threshold, fork);
+            if (!fork) return left.compute().merge(right.compute());
+            left.fork();
+            Pass r = right.compute();
+            return left.join().merge(r);
+        }
+    }
+
+    /** Mergeable report accumulator over a contiguous row range; {@code merge} takes the range to its right. */
+    private final class Pass {
+        final int topN;
+        final long[] bands = new long[4];
+        final long[] progCount = new long[programmes.length];
+        final double[] progSum = new double[programmes.length];
+        double gpaSum;
+        int[] top, risk;            // report order: rank, and (gpa, row)
+        int topLen, riskLen;
+
+        Pass(int from, int to, int topN, double threshold) {
+            this.topN = topN;
+            int[] heap = new int[Math.max(0, Math.min(topN, to - from))];
+            int h = 0;
+            risk = new int[16];
+            for (int i = from; i < to; i++) {
+                double g = gpa[i];
+                int p = programmeId[i];
+                bands[Math.min((int) g, 3)]++;
+                progCount[p]++; progSum[p] += g;
+                gpaSum += g;
+                if (h < heap.length) siftUp(heap, h++, i);
+                else if (h > 0 && ranksAbove(i, heap[0])) { heap[0] = i; siftDown(heap, h); }
+                if (g < threshold) {
+                    if (riskLen == risk.length) risk = Arrays.copyOf(risk, riskLen * 2);
+                    risk[riskLen++] = i;
+                }
+            }
+            top = rankOrder(heap, h);
+            topLen = h;
+            sortByGpa(risk, new int[riskLen], 0, riskLen);
+        }
+
+        Pass merge(Pass o) {
+            for (int b = 0; b < 4; b++) bands[b] += o.bands[b];
+            for (int p = 0; p < progCount.length; p++) { progCount[p] += o.progCount[p]; progSum[p] += o.progSum[p]; }
+            gpaSum += o.gpaSum;
+            int[] t = new int[Math.min(topN, topLen + o.topLen)];
+            for (int k = 0, a = 0, b = 0; k < t.length; k++)
+                t[k] = b >= o.topLen || (a < topLen && ranksAbove(top[a], o.top[b])) ? top[a++] : o.top[b++];
+            top = t; topLen = t.length;
+            int[] r = new int[riskLen + o.riskLen];
+            // every row on the left precedes every row on the right, so GPA ties go left
+            for (int k = 0, a = 0, b = 0; k < r.length; k++)
+                r[k] = b >= o.riskLen || (a < riskLen && gpa[risk[a]] <= gpa[o.risk[b]]) ? risk[a++] : o.risk[b++];
+            risk = r; riskLen = r.length;
+            return this;
+        }
+    }
+
+    /** Growable columns filled in load order. */
+    private static final class Builder {
+        int size;
+        String[] id = new String[1024], name = new String[1024], email = new String[1024], phone = new String[1024];
+        double[] gpa = new double[1024];
+        short[] level = new short[1024];
+        byte[] status = new byte[1024];
+        int[] programmeId = new int[1024], dateAdded = new int[1024];
+        final List<String> dictionary = new ArrayList<>();
+        final Map<String, Integer> codes = new HashMap<>();
+
+        void add(Student s) {
+            if (size == gpa.length) grow();
+            id[size] = s.getStudentId(); name[size] = s.getFullName();
+            email[size] = s.getEmail(); phone[size] = s.getPhoneNumber();
+            gpa[size] = s.getGpa();
+            level[size] = (short) s.getLevel();
+            status[size] = s.getStatus() == Student.StudentStatus.INACTIVE ? INACTIVE : ACTIVE;
+            programmeId[size] = codes.computeIfAbsent(s.getProgramme(), p -> { dictionary.add(p); return dictionary.size() - 1; });
+            dateAdded[size] = (int) s.getDateAdded().toEpochDay();
+            size++;
+        }
+
+        void grow() {
+            int n = size * 2;
+            id = Arrays.copyOf(id, n); name = Arrays.copyOf(name, n); email = Arrays.copyOf(email, n); phone = Arrays.copyOf(phone, n);
+            gpa = Arrays.copyOf(gpa, n); level = Arrays.copyOf(level, n); status = Arrays.copyOf(status, n);
+            programmeId = Arrays.copyOf(programmeId, n); dateAdded = Arrays.copyOf(dateAdded, n);
+        }
+
+        /** Permutation into (name, id) order, or null when rows already arrived in that order. */
+        int[] nameOrder() {
+            boolean sorted = true;
+            for (int i = 1; i < size && sorted; i++) sorted = compare(i - 1, i) <= 0;
+            if (sorted) return null;
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, this::compare);
+            int[] out = new int[size];
+            for (int i = 0; i < size; i++) out[i] = order[i];
+            return out;
+        }
+
+        private int compare(int a, int b) {
+            int c = name[a].compareTo(name[b]);
+            return c != 0 ? c : id[a].compareTo(id[b]);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.sms2.service;
+
+import com.sms2.domain.Student;
+import java.util.*;
+
+/**
+ * In-memory trigram index over student ID, full name and email for search-as-you-type.
+ * <p>
+ * Each trigram maps to a posting list of document numbers stored as delta-encoded varints in a
+ * {@code byte[]}; the trigram table itself is open-addressed over {@code long} keys, so there are
+ * no boxed collections on the query path. A query collects candidates that share enough trigrams
+ * with it (the q-gram lemma), then confirms each one with a substring edit distance that tolerates
+ * one typo from 4 characters and two from 9. Exact matches at the start of a field or word rank
+ * first, then other exact substrings, then fuzzy matches by edit distance; queries shorter than
+ * a trigram fall back to a scan.
+ * <p>
+ * Updates re-add the student under a new document number and tombstone the old one; the index is
+ * compacted once half of it is dead. All methods are synchronized.
+ */
+public class StudentSearchIndex {
+    private static final char SEP = '\u0001';
+
+    // documents
+    private String[] ids = new String[1024];
+    private String[] texts = new String[1024];
+    private int docCount, liveCount;
+    private final Map<String, Integer> docOf = new HashMap<>();
+
+    // trigram -> posting list
+    private long[] slotKeys = new long[1 << 12];
+    private int[] slotList = new int[1 << 12];
+    private int slotsUsed;
+    private byte[][] postings = new byte[1 << 10][];
+    private int[] postingLen = new int[1 << 10];
+    private int[] lastDoc = new int[1 << 10];
+    private int listCount;
+
+    // query scratch
+    private int[] hits = new int[1024];
+    private int[] touched = new int[1024];
+    private int[] col = new int[64];
+
+    public synchronized int size() { return liveCount; }
+
+    public synchronized void put(Student s) {
+        removeDoc(s.getStudentId());
+        String text = normalize(s.getStudentId()) + SEP + normalize(s.getFullName()) + SEP + normalize(s.getEmail());
+        int doc = docCount++;
+        if (doc == ids.length) {
+            ids = Arrays.copyOf(ids, doc * 2);
+            texts = Arrays.copyOf(texts, doc * 2);
+        }
+        ids[doc] = s.getStudentId();
+        texts[doc] = text;
+        docOf.put(s.getStudentId(), doc);
+        liveCount++;
+        for (int i = 0; i + 3 <= text.length(); i++) append(list(key(text, i), true), doc);
+        compactIfSparse();
+    }
+
+    public synchronized void remove(String studentId) {
+        removeDoc(studentId);
+        compactIfSparse();
+    }
+
+    /** IDs of the best {@code limit} matches for {@code query}, best first. */
+    public synchronized List<String> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) return List.of();
+        int k = q.length() >= 9 ? 2 : q.length() >= 4 ? 1 : 0;
+        List<long[]> scored = new ArrayList<>();   // {score, doc}
+        if (q.length() < 3) {
+            for (int d = 0; d < docCount && scored.size() < limit * 4; d++) {
+                if (ids[d] == null) continue;
+                int at = texts[d].indexOf(q);
+                if (at >= 0) scored.add(new long[]{score(texts[d], at, 0), d});
+            }
+        } else {
+            int grams = q.length() - 2, distinct = 0;
+            int[] lists = new int[grams];
+            for (int i = 0; i < grams; i++) {
+                if (q.indexOf(q.substring(i, i + 3)) < i) continue;   // count each distinct trigram once
+                lists[distinct++] = list(key(q, i), false);
+            }
+            // k edits destroy at most 3k trigrams; also insist on half of them so one common trigram is not enough
+            int need = Math.max((distinct + 1) / 2, distinct - 3 * k);
+            int n = 0;
+            if (hits.length < docCount) { hits = new int[ids.length]; touched = new int[ids.length]; }
+            for (int g = 0; g < distinct; g++) {
+                int list = lists[g];
+                if (list < 0) continue;
+                byte[] p = postings[list];
+                int len = postingLen[list], pos = 0, doc = 0;
+                while (pos < len) {
+                    int delta = 0, shift = 0, b;
+                    do { b = p[pos++]; delta |= (b & 0x7F) << shift; shift += 7; } while (b < 0);
+                    doc += delta;
+                    if (ids[doc] != null && hits[doc]++ == 0) touched[n++] = doc;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                int d = touched[i];
+                if (hits[d] >= need) {
+                    int at = texts[d].indexOf(q);
+                    if (at >= 0) scored.add(new long[]{score(texts[d], at, 0), d});
+                    else if (k > 0) {
+                        int dist = substringDistance(q, texts[d], k);
+                        if (dist <= k) scored.add(new long[]{score(texts[d], -1, dist), d});
+                    }
+                }
+                hits[d] = 0;
+            }
+        }
+        scored.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        List<String> out = new ArrayList<>(Math.min(limit, scored.size()));
+        for (int i = 0; i < scored.size() && out.size() < limit; i++) out.add(ids[(int) scored.get(i)[1]]);
+        return out;
+    }
+
+    /** Lower is better: exact substring beats fuzzy, a match at a field start beats one inside. */
+    private static long score(String text, int at, int dist) {
+        if (at < 0) return 1_000L + dist * 100L + text.length();
+        boolean fieldStart = at == 0 || text.charAt(at - 1) == SEP || text.charAt(at - 1) == ' ';
+        return (fieldStart ? 0 : 500L) + text.length();
+    }
+
+    /**
+     * Smallest edit distance between {@code q} and any substring of {@code t} (Sellers), or
+     * {@code k + 1} if above {@code k}. Rows that are already past {@code k} are not computed
+     * (Ukkonen's cut-off), so a rejected candidate costs about O(k * |t|).
+     */
+    private int substringDistance(String q, String t, int k) {
+        int m = q.length();
+        if (col.length <= m) col = new int[m * 2];
+        for (int i = 0; i <= m; i++) col[i] = i;
+        int last = Math.min(k, m);              // deepest row whose value is still <= k
+        int best = last == m ? col[m] : k + 1;
+        for (int j = 0; j < t.length() && best > 0; j++) {
+            char c = t.charAt(j);
+            int diag = 0;
+            for (int i = 1; i <= last; i++) {
+                int up = col[i];
+                col[i] = q.charAt(i - 1) == c ? diag : 1 + Math.min(diag, Math.min(up, col[i - 1]));
+                diag = up;
+            }
+            if (last < m) {
+                last++;
+                col[last] = q.charAt(last - 1) == c ? diag : 1 + Math.min(diag, col[last - 1]);
+            }
+            while (last > 0 && col[last] > k) last--;
+            if (last == m) best = Math.min(best, col[m]);
+        }
+        return best;
+    }
+
+    private void removeDoc(String studentId) {
+        Integer doc = docOf.remove(studentId);
+        if (doc == null) return;
+        ids[doc] = null;
+        texts[doc] = null;
+        liveCount--;
+    }
+
+    private void compactIfSparse() {
+        if (docCount > 1024 && liveCount < docCount / 2) compact();
+    }
+
+    private void compact() {
+        String[] oldIds = ids, oldTexts = texts;
+        int oldCount = docCount;
+        ids = new String[Math.max(1024, liveCount * 2)];
+        texts = new String[ids.length];
+        docCount = liveCount = slotsUsed = listCount = 0;
+        docOf.clear();
+        Arrays.fill(slotKeys, 0);
+        Arrays.fill(postings, null);
+        for (int d = 0; d < oldCount; d++) {
+            if (oldIds[d] == null) continue;
+            int doc = docCount++;
+            ids[doc] = oldIds[d];
+            texts[doc] = oldTexts[d];
+            docOf.put(oldIds[d], doc);
+            liveCount++;
+            for (int i = 0; i + 3 <= oldTexts[d].length(); i++) append(list(key(oldTexts[d], i), true), doc);
+        }
+    }
+
+    private static String normalize(String s) { return s == null ? "" : s.trim().toLowerCase(Locale.ROOT); }
+
+    private static long key(String s, int i) {
+        return 1L << 62 | (long) s.charAt(i) << 32 | (long) s.charAt(i + 1) << 16 | s.charAt(i + 2);
+    }
+
+    /** Posting list number for a trigram, creating it when {@code create} is set; -1 if absent. */
+    private int list(long key, boolean create) {
+        int mask = slotKeys.length - 1;
+        int h = (int) (key ^ key >>> 29) * 0x9E3779B9 & mask;
+        while (slotKeys[h] != 0) {
+            if (slotKeys[h] == key) return slotList[h];
+            h = h + 1 & mask;
+        }
+        if (!create) return -1;
+        if (listCount == postings.length) {
+            postings = Arrays.copyOf(postings, listCount * 2);
+            postingLen = Arrays.copyOf(postingLen, listCount * 2);
+            lastDoc = Arrays.copyOf(lastDoc, listCount * 2);
+        }
+        int list = listCount++;
+        postings[list] = new byte[8];
+        postingLen[list] = 0;
+        lastDoc[list] = -1;
+        slotKeys[h] = key;
+        slotList[h] = list;
+        if (++slotsUsed * 2 > slotKeys.length) rehash();
+        return list;
+    }
+
+    private void rehash() {
+        long[] oldKeys = slotKeys;
+        int[] oldLists = slotList;
+        slotKeys = new long[oldKeys.length * 2];
+        slotList = new int[oldKeys.length * 2];
+        int mask = slotKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) continue;
+            int h = (int) (key ^ key >>> 29) * 0x9E3779B9 & mask;
+            while (slotKeys[h] != 0) h = h + 1 & mask;
+            slotKeys[h] = key;
+            slotList[h] = oldLists[i];
+        }
+    }
+
+    private void append(int list, int doc) {
+        int prev = lastDoc[list];
+        if (prev == doc) return;
+        int delta = prev < 0 ? doc : doc - prev;
+        lastDoc[list] = doc;
+        byte[] p = postings[list];
+        int len = postingLen[list];
+        if (len + 5 > p.length) postings[list] = p = Arrays.copyOf(p, p.length * 2);
+        while ((delta & ~0x7F) != 0) { p[len++] = (byte) (delta & 0x7F | 0x80); delta >>>= 7; }
+        p[len++] = (byte) delta;
+        postingLen[list] = len;
+    }
+}
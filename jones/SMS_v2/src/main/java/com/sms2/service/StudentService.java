@@ -1,53 +1,198 @@
 package com.sms2.service;
 
+import com.sms2.domain.BulkResult;
 import com.sms2.domain.ImportResult;
+import com.sms2.domain.KpiSummary;
 import com.sms2.domain.Student;
+import com.sms2.domain.StudentEvent;
+import com.sms2.domain.StudentOrder;
 import com.sms2.repository.StudentRepository;
 import com.sms2.util.AppLogger;
 import com.sms2.util.CsvHelper;
+import com.sms2.util.EventBus;
+import com.sms2.util.Metrics;
+import com.sms2.util.StudentCsvWriter;
+import com.sms2.util.TaskExecutor;
 import java.io.*;
+import java.nio.file.Files;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
 
 public class StudentService {
     private final StudentRepository repo;
     private final ValidationService validator;
+    private final StudentSearchIndex searchIndex = new StudentSearchIndex();
+    private volatile boolean searchIndexReady;
+    private final Set<String> changedBeforeIndexReady = new HashSet<>();   // guarded by searchIndex
+    private final EventBus<StudentEvent> events = new EventBus<>();
+
+    public static final int SEARCH_LIMIT = 500;
+    public static final int LIVE_SEARCH_LIMIT = 100;
 
     public StudentService(StudentRepository repo) {
         this.repo = repo;
         this.validator = new ValidationService();
+        events.subscribe(this::index);
     }
 
+    /** Every successful add, update, delete and import batch, published on the writing thread. */
+    public EventBus<StudentEvent> events() { return events; }
+
     public List<String> addStudent(Student s) {
         List<String> errors = validator.validate(s);
         if (!errors.isEmpty()) return errors;
         if (repo.existsById(s.getStudentId())) { errors.add("Student ID '"+s.getStudentId()+"' already exists."); return errors; }
         s.setDateAdded(LocalDate.now());
         if (!repo.add(s)) errors.add("Failed to save. Please try again.");
-        else AppLogger.info("Student added: ID="+s.getStudentId());
+        else { AppLogger.info("Student added: ID="+s.getStudentId()); events.publish(new StudentEvent.Inserted(new Student(s))); }
         return errors;
     }
 
     public List<String> updateStudent(Student s) {
         List<String> errors = validator.validate(s);
         if (!errors.isEmpty()) return errors;
+        Student before = repo.findById(s.getStudentId()).orElse(null);
         if (!repo.update(s)) errors.add("Failed to update. Record may not exist.");
-        else AppLogger.info("Student updated: ID="+s.getStudentId());
+        else { AppLogger.info("Student updated: ID="+s.getStudentId()); events.publish(new StudentEvent.Updated(before, new Student(s))); }
         return errors;
     }
 
     public boolean deleteStudent(String id) {
+        Student before = repo.findById(id).orElse(null);
         boolean ok = repo.delete(id);
-        if (ok) AppLogger.info("Student deleted: ID="+id);
+        if (ok) { AppLogger.info("Student deleted: ID="+id); events.publish(new StudentEvent.Deleted(id, before)); }
         else AppLogger.error("Delete failed: ID="+id);
         return ok;
     }
 
+    // ── Bulk operations: one transaction each, per-item outcomes in input order ──
+
+    /** Adds the valid students in one transaction; invalid ones are INVALID with their messages, existing IDs SKIPPED. */
+    public BulkResult addStudents(List<Student> students) {
+        BulkResult r = writeValid(students, repo::addAll);
+        List<Student> added = new ArrayList<>();
+        for (int i=0;i<r.size();i++) if (r.getOutcome(i)==BulkResult.Outcome.APPLIED) added.add(new Student(students.get(i)));
+        if (!added.isEmpty()) events.publish(new StudentEvent.BulkImported(added));
+        AppLogger.info("Bulk add: "+r);
+        return r;
+    }
+
+    /** Updates the valid students in one transaction; unknown IDs are SKIPPED. */
+    public BulkResult updateStudents(List<Student> students) {
+        BulkResult r = writeValid(students, repo::updateAll);
+        List<StudentEvent.Updated> updated = new ArrayList<>();
+        for (int i=0;i<r.size();i++)
+            if (r.getOutcome(i)==BulkResult.Outcome.APPLIED) updated.add(new StudentEvent.Updated(r.getBefore(i), new Student(students.get(i))));
+        if (!updated.isEmpty()) events.publish(new StudentEvent.BulkUpdated(updated));
+        AppLogger.info("Bulk update: "+r);
+        return r;
+    }
+
+    public BulkResult deleteStudents(List<String> ids) {
+        BulkResult r = repo.deleteAllByIds(ids);
+        List<StudentEvent.Deleted> deleted = new ArrayList<>();
+        for (int i=0;i<r.size();i++)
+            if (r.getOutcome(i)==BulkResult.Outcome.APPLIED) deleted.add(new StudentEvent.Deleted(r.getId(i), r.getBefore(i)));
+        if (!deleted.isEmpty()) events.publish(new StudentEvent.BulkDeleted(deleted));
+        AppLogger.info("Bulk delete: "+r);
+        return r;
+    }
+
+    /** Sets {@code status} for a whole programme and/or level (null means any), e.g. a graduating cohort. */
+    public BulkResult setStatusWhere(String programme, Integer level, Student.StudentStatus status) {
+        BulkResult r = repo.updateStatusWhere(programme, level, status);
+        List<StudentEvent.Updated> updated = new ArrayList<>(r.size());
+        for (int i=0;i<r.size();i++) {
+            if (r.getOutcome(i)!=BulkResult.Outcome.APPLIED) continue;
+            Student after = new Student(r.getBefore(i));
+            after.setStatus(status);
+            updated.add(new StudentEvent.Updated(r.getBefore(i), after));
+        }
+        if (!updated.isEmpty()) events.publish(new StudentEvent.BulkUpdated(updated));
+        AppLogger.info("Status set to "+status+" for programme="+programme+" level="+level+": "+r);
+        return r;
+    }
+
+    /** Validates first, writes only the valid students and maps the write's outcomes back to input positions. */
+    private BulkResult writeValid(List<Student> students, Function<List<Student>, BulkResult> write) {
+        int[] masks = new int[students.size()];
+        validator.checkAll(students, masks);
+        List<String> ids = new ArrayList<>(students.size());
+        for (Student s : students) ids.add(s.getStudentId());
+        BulkResult r = new BulkResult(ids);
+        List<Student> valid = new ArrayList<>(students.size());
+        int[] at = new int[students.size()];
+        for (int i=0;i<masks.length;i++) {
+            if (masks[i]!=0) r.set(i, BulkResult.Outcome.INVALID, ValidationError.describe(masks[i]));
+            else { at[valid.size()] = i; valid.add(students.get(i)); }
+        }
+        if (valid.isEmpty()) return r;
+        BulkResult w = write.apply(valid);
+        for (int j=0;j<w.size();j++) { r.set(at[j], w.getOutcome(j), w.getMessage(j)); r.setBefore(at[j], w.getBefore(j)); }
+        r.setError(w.getError());
+        r.setElapsedMillis(w.getElapsedMillis());
+        return r;
+    }
+
     public Optional<Student> findById(String id)                      { return repo.findById(id); }
     public List<Student> getAllStudents()                              { return repo.findAll(); }
     public List<Student> searchStudents(String q)                     { return repo.search(q); }
+    public List<Student> searchStudents(String q, int limit)          { return repo.search(q, limit); }
+    /**
+     * Loads every student into the in-memory search index. Meant for a background thread at
+     * startup; changes made through this service while it runs are applied to the index too, and
+     * win over the rows the build's cursor reads afterwards from its older snapshot.
+     */
+    public void buildSearchIndex() {
+        long start = System.nanoTime();
+        try {
+            repo.forEach(s -> {
+                synchronized (searchIndex) { if (!changedBeforeIndexReady.contains(s.getStudentId())) searchIndex.put(s); }
+            });
+        } catch (IllegalStateException e) { AppLogger.error("Search index not built, live search stays on the database: "+e.getMessage()); return; }
+        synchronized (searchIndex) { changedBeforeIndexReady.clear(); searchIndexReady = true; }
+        AppLogger.info("Search index built: "+searchIndex.size()+" students in "+(System.nanoTime()-start)/1_000_000+" ms");
+    }
+
+    /** Typo-tolerant search for search-as-you-type; uses the database until the index is built. */
+    public List<Student> liveSearch(String q, int limit) {
+        if (!searchIndexReady) return repo.search(q, limit);
+        return repo.findAllByIds(searchIndex.search(q, limit));
+    }
+
+    private void index(StudentEvent e) {
+        switch (e) {
+            case StudentEvent.Inserted ins -> indexPut(ins.student());
+            case StudentEvent.Updated upd -> indexPut(upd.after());
+            case StudentEvent.Deleted del -> indexRemove(del.studentId());
+            case StudentEvent.BulkImported bulk -> bulk.students().forEach(this::indexPut);
+            case StudentEvent.BulkUpdated bulk -> bulk.updates().forEach(u -> indexPut(u.after()));
+            case StudentEvent.BulkDeleted bulk -> bulk.deletes().forEach(d -> indexRemove(d.studentId()));
+        }
+    }
+
+    private void indexPut(Student s) {
+        synchronized (searchIndex) {
+            if (!searchIndexReady) changedBeforeIndexReady.add(s.getStudentId());
+            searchIndex.put(s);
+        }
+    }
+
+    private void indexRemove(String id) {
+        synchronized (searchIndex) {
+            if (!searchIndexReady) changedBeforeIndexReady.add(id);
+            searchIndex.remove(id);
+        }
+    }
+
     public List<Student> filterStudents(String p, Integer l, String s){ return repo.filter(p,l,s); }
     public List<String> getAllProgrammes()                             { return repo.getAllProgrammes(); }
+    public int countStudents()                                         { return repo.count(); }
+    public KpiSummary getKpiSummary()                                  { return repo.getKpiSummary(); }
+    public List<Student> getStudentPage(StudentOrder order, Student after, int limit) { return repo.findPageAfter(order, after, limit); }
+    public List<Student> getStudentPageAt(StudentOrder order, int offset, int limit)  { return repo.findPageAt(order, offset, limit); }
 
     public List<Student> getSortedByGpa(List<Student> list, boolean asc) {
         List<Student> s = new ArrayList<>(list);
@@ -62,23 +207,38 @@ public class StudentService {
         return s;
     }
 
-    public ImportResult importFromCsv(File file) {
-        ImportResult result = new ImportResult();
-        List<String[]> rows;
-        try { rows = CsvHelper.readCsv(file); }
-        catch (IOException e) { result.addError("Cannot read file: "+e.getMessage()); return result; }
-        int row = 1;
-        for (String[] r : rows) {
-            row++;
-            try {
-                Student s = parseRow(r);
-                List<String> errs = validator.validate(s);
-                if (!errs.isEmpty()) { result.addError("Row "+row+": "+String.join("; ",errs)); continue; }
-                if (repo.existsById(s.getStudentId())) { result.addError("Row "+row+": Duplicate ID '"+s.getStudentId()+"'"); continue; }
-                repo.add(s); result.incrementSuccess();
-            } catch (Exception e) { result.addError("Row "+row+": "+e.getMessage()); }
-        }
-        AppLogger.info("Import done. Success="+result.getSuccessCount()+" Errors="+result.getErrorCount());
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int PROGRESS_EVERY = 1_000;
+
+    public ImportResult importFromCsv(File file) { return importFromCsv(file, DEFAULT_BATCH_SIZE); }
+
+    public ImportResult importFromCsv(File file, int batchSize) {
+        return importFromCsv(file, batchSize, ImportPipeline.defaultWorkers());
+    }
+
+    public ImportResult importFromCsv(File file, int batchSize, int workers) {
+        return importFromCsv(file, batchSize, workers, TaskExecutor.Progress.NONE);
+    }
+
+    /**
+     * Imports rows through an {@link ImportPipeline}: parsing and validation run on {@code workers}
+     * threads while inserts are committed in transactions of {@code batchSize} rows. {@code progress}
+     * gets the running count of committed rows after each transaction; the total is not known upfront.
+     * Interrupting the calling thread stops the import after the current transaction.
+     */
+    public ImportResult importFromCsv(File file, int batchSize, int workers, TaskExecutor.Progress progress) {
+        long start = System.nanoTime();
+        long[] committed = {0};
+        ImportResult result = new ImportPipeline(repo, validator, batchSize, workers, saved -> {
+            events.publish(new StudentEvent.BulkImported(List.copyOf(saved)));
+            progress.update(committed[0] += saved.size(), -1);
+        }).run(file);
+        Metrics.timer("import.total").recordSince(start);
+        Metrics.counter("import.rows.imported").add(result.getSuccessCount());
+        Metrics.counter("import.rows.rejected").add(result.getErrorCount());
+        result.setElapsedMillis((System.nanoTime()-start)/1_000_000);
+        AppLogger.info("Import done. Success="+result.getSuccessCount()+" Errors="+result.getErrorCount()
+                +String.format(" (%.0f rows/s)", result.getRowsPerSecond()));
         if (result.getErrorCount()>0) {
             try { CsvHelper.exportErrors("import_errors.csv",result.getErrors()); }
             catch (IOException e) { AppLogger.error("Cannot write error report: "+e.getMessage()); }
@@ -86,25 +246,50 @@ public class StudentService {
         return result;
     }
 
-    private Student parseRow(String[] r) {
-        if (r.length<8) throw new IllegalArgumentException("Not enough columns");
-        Student s = new Student();
-        s.setStudentId(r[0].trim()); s.setFullName(r[1].trim()); s.setProgramme(r[2].trim());
-        s.setLevel(Integer.parseInt(r[3].trim())); s.setGpa(Double.parseDouble(r[4].trim()));
-        s.setEmail(r[5].trim()); s.setPhoneNumber(r[6].trim());
-        s.setDateAdded(r[7].trim().isEmpty() ? LocalDate.now() : LocalDate.parse(r[7].trim()));
-        if (r.length>8&&!r[8].isBlank()) s.setStatus(Student.StudentStatus.valueOf(r[8].trim().toUpperCase()));
-        return s;
+    public void exportAllToCsv(String fn) throws IOException { exportAllToCsv(fn, TaskExecutor.Progress.NONE); }
+
+    /**
+     * Streams the table from a DB cursor into the file, so memory use does not grow with row count.
+     * Reports rows written every {@value #PROGRESS_EVERY} rows; an interrupt abandons the export
+     * with a {@link CancellationException}. A cancelled or failed export deletes the partial file.
+     */
+    public void exportAllToCsv(String fn, TaskExecutor.Progress progress) throws IOException {
+        long start = System.nanoTime();
+        int count = 0, total = repo.count();
+        boolean complete = false;
+        try {
+            try (StudentCsvWriter w = CsvHelper.openStudentWriter(fn)) {
+                repo.forEach(s -> {
+                    w.accept(s);
+                    if (w.getCount() % PROGRESS_EVERY != 0) return;
+                    if (Thread.currentThread().isInterrupted()) throw new CancellationException("Export cancelled");
+                    progress.update(w.getCount(), total);
+                });
+                count = w.getCount();
+            }
+            complete = true;
+            progress.update(count, total);
+        } catch (UncheckedIOException e) { throw e.getCause(); }
+        catch (CancellationException e) { throw e; }
+        catch (IllegalStateException e) { throw new IOException(e.getMessage(), e); }
+        finally {
+            if (!complete) deletePartial(fn);
+            Metrics.timer("export.all").recordSince(start);
+        }
+        Metrics.counter("export.rows").add(count);
+        AppLogger.info("Export: "+fn+" ("+count+" records)");
     }
 
-    public void exportAllToCsv(String fn) throws IOException {
-        List<Student> all = repo.findAll();
-        CsvHelper.exportStudents(fn, all);
-        AppLogger.info("Export: "+fn+" ("+all.size()+" records)");
+    private static void deletePartial(String fn) {
+        try { Files.deleteIfExists(CsvHelper.dataPath(fn)); AppLogger.warn("Export of "+fn+" abandoned; partial file deleted."); }
+        catch (IOException e) { AppLogger.error("Cannot delete partial export "+fn+": "+e.getMessage()); }
     }
 
     public void exportListToCsv(String fn, List<Student> list) throws IOException {
-        CsvHelper.exportStudents(fn, list);
+        long start = System.nanoTime();
+        try { CsvHelper.exportStudents(fn, list); }
+        finally { Metrics.timer("export.list").recordSince(start); }
+        Metrics.counter("export.rows").add(list.size());
         AppLogger.info("Export: "+fn+" ("+list.size()+" records)");
     }
 }
@@ -0,0 +1,46 @@
+package com.sms2.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One failed validation rule. {@link ValidationService#check} reports failures as a bitmask of
+ * {@link #bit()}s, so a row costs an {@code int}; messages are only built when a mask is rendered.
+ * Declaration order is the order {@link ValidationService#validate} lists the messages in.
+ */
+public enum ValidationError {
+    ID_REQUIRED("Student ID is required."),
+    ID_LENGTH("Student ID must be 4–20 characters."),
+    ID_CHARS("Student ID must contain only letters and digits."),
+    NAME_REQUIRED("Full name is required."),
+    NAME_LENGTH("Full name must be 2–60 characters."),
+    NAME_DIGITS("Full name must not contain digits."),
+    PROGRAMME_REQUIRED("Programme is required."),
+    LEVEL_INVALID("Level must be one of: 100,200,300,400,500,600,700."),
+    GPA_RANGE("GPA must be between 0.0 and 4.0."),
+    EMAIL_REQUIRED("Email is required."),
+    EMAIL_FORMAT("Email must contain '@' and '.'."),
+    PHONE_REQUIRED("Phone number is required."),
+    PHONE_DIGITS("Phone number must contain digits only."),
+    PHONE_LENGTH("Phone must be 10–15 digits.");
+
+    private static final ValidationError[] VALUES = values();
+
+    private final String message;
+
+    ValidationError(String message) { this.message = message; }
+
+    public int bit()          { return 1 << ordinal(); }
+    public String message()   { return message; }
+    public boolean in(int mask) { return (mask & bit()) != 0; }
+
+    /** Messages for every bit set in {@code mask}, in declaration order. */
+    public static List<String> messages(int mask) {
+        List<String> out = new ArrayList<>(Integer.bitCount(mask));
+        for (ValidationError e : VALUES) if (e.in(mask)) out.add(e.message);
+        return out;
+    }
+
+    /** The messages of {@code mask} joined with "; ", as the import report shows them. */
+    public static String describe(int mask) { return String.join("; ", messages(mask)); }
+}
@@ -2,57 +2,82 @@ package com.sms2.service;
 
 import com.sms2.domain.Student;
 import java.util.*;
+import static com.sms2.service.ValidationError.*;
 
+/**
+ * Field rules for students. The {@code check*} methods are the engine: hand-written scanners that
+ * return a {@link ValidationError} bitmask (0 = valid) without allocating. {@code validate*} render
+ * those masks as the English messages for callers that want text.
+ */
 public class ValidationService {
-    private static final Set<Integer> VALID_LEVELS = Set.of(100,200,300,400,500,600,700);
-
-    public List<String> validate(Student s) {
-        List<String> e = new ArrayList<>();
-        validateStudentId(s.getStudentId(), e);
-        validateFullName(s.getFullName(), e);
-        validateProgramme(s.getProgramme(), e);
-        validateLevel(s.getLevel(), e);
-        validateGpa(s.getGpa(), e);
-        validateEmail(s.getEmail(), e);
-        validatePhone(s.getPhoneNumber(), e);
-        return e;
-    }
 
-    public void validateStudentId(String id, List<String> e) {
-        if (id==null||id.isBlank()) { e.add("Student ID is required."); return; }
-        if (id.length()<4||id.length()>20) e.add("Student ID must be 4–20 characters.");
-        if (!id.matches("[A-Za-z0-9]+")) e.add("Student ID must contain only letters and digits.");
+    /** Bitmask of every rule {@code s} breaks; 0 when it is valid. */
+    public int check(Student s) {
+        return checkStudentId(s.getStudentId()) | checkFullName(s.getFullName()) | checkProgramme(s.getProgramme())
+                | checkLevel(s.getLevel()) | checkGpa(s.getGpa()) | checkEmail(s.getEmail()) | checkPhone(s.getPhoneNumber());
     }
 
-    public void validateFullName(String n, List<String> e) {
-        if (n==null||n.isBlank()) { e.add("Full name is required."); return; }
-        if (n.length()<2||n.length()>60) e.add("Full name must be 2–60 characters.");
-        if (n.matches(".*\\d.*")) e.add("Full name must not contain digits.");
+    /** Fills {@code masks[i]} for {@code students.get(i)} and returns how many are invalid. */
+    public int checkAll(List<Student> students, int[] masks) {
+        int invalid = 0;
+        for (int i=0;i<students.size();i++) if ((masks[i] = check(students.get(i))) != 0) invalid++;
+        return invalid;
     }
 
-    public void validateProgramme(String p, List<String> e) {
-        if (p==null||p.isBlank()) e.add("Programme is required.");
+    public int checkStudentId(String id) {
+        if (id==null||id.isBlank()) return ID_REQUIRED.bit();
+        int m = id.length()<4||id.length()>20 ? ID_LENGTH.bit() : 0;
+        for (int i=0;i<id.length();i++) {
+            char c = id.charAt(i);
+            if (!(c>='A'&&c<='Z'||c>='a'&&c<='z'||c>='0'&&c<='9')) return m | ID_CHARS.bit();
+        }
+        return m;
     }
 
-    public void validateLevel(int l, List<String> e) {
-        if (!VALID_LEVELS.contains(l)) e.add("Level must be one of: 100,200,300,400,500,600,700.");
+    public int checkFullName(String n) {
+        if (n==null||n.isBlank()) return NAME_REQUIRED.bit();
+        int m = n.length()<2||n.length()>60 ? NAME_LENGTH.bit() : 0;
+        // same verdict as the old n.matches(".*\\d.*"): '.' stops at line terminators
+        boolean digit = false;
+        for (int i=0;i<n.length();i++) {
+            char c = n.charAt(i);
+            if (c>='0'&&c<='9') digit = true;
+            else if (c=='\n'||c=='\r'||c=='\u0085'||c=='\u2028'||c=='\u2029') return m;
+        }
+        return digit ? m | NAME_DIGITS.bit() : m;
     }
 
-    public void validateGpa(double g, List<String> e) {
-        if (g<0.0||g>4.0) e.add("GPA must be between 0.0 and 4.0.");
-    }
+    public int checkProgramme(String p) { return p==null||p.isBlank() ? PROGRAMME_REQUIRED.bit() : 0; }
+
+    public int checkLevel(int l) { return l>=100&&l<=700&&l%100==0 ? 0 : LEVEL_INVALID.bit(); }
 
-    public void validateEmail(String em, List<String> e) {
-        if (em==null||em.isBlank()) { e.add("Email is required."); return; }
-        if (!em.contains("@")||!em.contains(".")) e.add("Email must contain '@' and '.'.");
+    public int checkGpa(double g) { return g<0.0||g>4.0 ? GPA_RANGE.bit() : 0; }
+
+    public int checkEmail(String em) {
+        if (em==null||em.isBlank()) return EMAIL_REQUIRED.bit();
+        return em.indexOf('@')<0||em.indexOf('.')<0 ? EMAIL_FORMAT.bit() : 0;
     }
 
-    public void validatePhone(String ph, List<String> e) {
-        if (ph==null||ph.isBlank()) { e.add("Phone number is required."); return; }
-        if (!ph.matches("\\d+")) e.add("Phone number must contain digits only.");
-        if (ph.length()<10||ph.length()>15) e.add("Phone must be 10–15 digits.");
+    public int checkPhone(String ph) {
+        if (ph==null||ph.isBlank()) return PHONE_REQUIRED.bit();
+        int m = 0;
+        for (int i=0;i<ph.length();i++) {
+            char c = ph.charAt(i);
+            if (c<'0'||c>'9') { m = PHONE_DIGITS.bit(); break; }
+        }
+        return ph.length()<10||ph.length()>15 ? m | PHONE_LENGTH.bit() : m;
     }
 
-    public boolean isValid(Student s) { return validate(s).isEmpty(); }
+    public List<String> validate(Student s) { return messages(check(s)); }
+
+    public void validateStudentId(String id, List<String> e) { e.addAll(messages(checkStudentId(id))); }
+    public void validateFullName(String n, List<String> e)   { e.addAll(messages(checkFullName(n))); }
+    public void validateProgramme(String p, List<String> e)  { e.addAll(messages(checkProgramme(p))); }
+    public void validateLevel(int l, List<String> e)         { e.addAll(messages(checkLevel(l))); }
+    public void validateGpa(double g, List<String> e)        { e.addAll(messages(checkGpa(g))); }
+    public void validateEmail(String em, List<String> e)     { e.addAll(messages(checkEmail(em))); }
+    public void validatePhone(String ph, List<String> e)     { e.addAll(messages(checkPhone(ph))); }
+
+    public boolean isValid(Student s) { return check(s)==0; }
     public boolean isValidGpaThreshold(double t) { return t>=0.0&&t<=4.0; }
 }
@@ -0,0 +1,196 @@
+package com.sms2.ui;
+
+import com.sms2.domain.Student;
+import com.sms2.domain.StudentEvent;
+import com.sms2.domain.StudentOrder;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.IntSupplier;
+
+/**
+ * Read-only ObservableList for the student table that holds only the pages the user has scrolled
+ * to. {@link #get(int)} returns {@code null} for a row whose page is not loaded yet and schedules
+ * the page on the background executor; when it arrives the rows are replaced on the FX thread.
+ * Pages are fetched in the current {@link StudentOrder} by keyset from the previous page's last
+ * row, and by offset only for jumps past pages never visited. At most {@code maxPages} pages are kept.
+ * All methods must be called on the FX thread, which is the {@code fx} executor
+ * ({@link Platform#runLater} unless given).
+ */
+public class PagedStudentList extends ObservableListBase<Student> {
+
+    /** Fetches a page in {@code order}, after the given row when there is one, else at the offset. */
+    public interface PageLoader { List<Student> load(StudentOrder order, Student after, int offset, int limit); }
+
+    private final PageLoader loader;
+    private final IntSupplier counter;
+    private final Executor executor;
+    private final Executor fx;
+    private final int pageSize;
+    private final Map<Integer, List<Student>> pages;
+    private final Map<Integer, Student> lastRows = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private StudentOrder order = StudentOrder.NAME;
+    private int size;
+    private long generation;
+    private boolean refreshing;
+
+    public PagedStudentList(PageLoader loader, IntSupplier counter, Executor executor, int pageSize, int maxPages) {
+        this(loader, counter, executor, Platform::runLater, pageSize, maxPages);
+    }
+
+    public PagedStudentList(PageLoader loader, IntSupplier counter, Executor executor, Executor fx, int pageSize, int maxPages) {
+        this.loader = loader;
+        this.counter = counter;
+        this.executor = executor;
+        this.fx = fx;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(maxPages * 2, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Integer, List<Student>> e) { return size() > maxPages; }
+        };
+    }
+
+    @Override public int size() { return size; }
+
+    public StudentOrder getOrder() { return order; }
+
+    /** Switches the order rows are paged in and refreshes; {@code onDone} as for {@link #refresh}. */
+    public void setOrder(StudentOrder order, Runnable onDone) {
+        this.order = order;
+        refresh(onDone);
+    }
+
+    @Override
+    public Student get(int index) {
+        Objects.checkIndex(index, size);
+        int page = index / pageSize;
+        List<Student> rows = pages.get(page);
+        if (rows == null) { request(page); return null; }
+        int i = index % pageSize;
+        return i < rows.size() ? rows.get(i) : null;
+    }
+
+    /** Drops every cached page and re-reads the row count; {@code onDone} runs on the FX thread afterwards. */
+    public void refresh(Runnable onDone) {
+        long gen = ++generation;
+        refreshing = true;
+        executor.execute(() -> {
+            int n = counter.getAsInt();
+            fx.execute(() -> {
+                if (gen != generation) return;
+                refreshing = false;
+                int old = size;
+                pages.clear(); lastRows.clear(); loading.clear();
+                size = n;
+                beginChange();
+                if (old > 0) nextRemove(0, Collections.nCopies(old, (Student) null));
+                if (n > 0) nextAdd(0, n);
+                endChange();
+                if (onDone != null) onDone.run();
+            });
+        });
+    }
+
+    /**
+     * Applies committed changes without re-reading the table, as one list change. Updates that keep
+     * a row's sort key replace the loaded rows in place, in one pass over the loaded pages however
+     * many there are. Otherwise pages that end before the smallest changed key keep their rows and
+     * indexes, later (and partial) pages are dropped to be re-fetched when shown, and the size moves
+     * by the net row count. Falls back to {@link #refresh} when an event lacks the old row or a
+     * refresh is still pending.
+     */
+    public void apply(List<StudentEvent> events, Runnable onDone) {
+        Delta d = new Delta(order.comparator());
+        for (StudentEvent e : events) {
+            boolean known = switch (e) {
+                case StudentEvent.Inserted ins -> d.insert(ins.student());
+                case StudentEvent.BulkImported bulk -> bulk.students().stream().allMatch(d::insert);
+                case StudentEvent.Deleted del -> d.delete(del);
+                case StudentEvent.BulkDeleted bulk -> bulk.deletes().stream().allMatch(d::delete);
+                case StudentEvent.Updated upd -> d.update(upd);
+                case StudentEvent.BulkUpdated bulk -> bulk.updates().stream().allMatch(d::update);
+            };
+            if (!known) { refresh(onDone); return; }
+        }
+        if (refreshing) { refresh(onDone); return; }
+        if (d.first == null && d.replaced.isEmpty()) { if (onDone != null) onDone.run(); return; }
+
+        Set<Integer> stale = new TreeSet<>(loading);
+        if (d.first != null)
+            for (Map.Entry<Integer, List<Student>> p : pages.entrySet()) {
+                List<Student> rows = p.getValue();
+                if (rows.size() < pageSize || d.order.compare(rows.get(rows.size() - 1), d.first) >= 0) stale.add(p.getKey());
+            }
+        generation++;                               // in-flight loads may predate the change
+        loading.clear();
+        int old = size;
+        size = Math.max(0, size + d.delta);
+        beginChange();
+        if (!d.replaced.isEmpty())
+            for (Map.Entry<Integer, List<Student>> p : pages.entrySet()) {
+                if (stale.contains(p.getKey())) continue;
+                List<Student> rows = p.getValue();
+                for (int i = 0; i < rows.size(); i++) {
+                    Student s = d.replaced.get(rows.get(i).getStudentId());
+                    if (s != null) nextSet(p.getKey() * pageSize + i, rows.set(i, s));
+                }
+            }
+        for (int page : stale) { pages.remove(page); lastRows.remove(page); }
+        for (int page : stale)
+            for (int i = page * pageSize, to = Math.min(Math.min(old, size), i + pageSize); i < to; i++) nextSet(i, null);
+        if (size > old) nextAdd(old, size);
+        else if (size < old) nextRemove(size, Collections.nCopies(old - size, (Student) null));
+        endChange();
+        if (onDone != null) onDone.run();
+    }
+
+    /** What one batch of events does to the list; each method returns false when the event lacks the old row. */
+    private static final class Delta {
+        final Comparator<Student> order;
+        final Map<String, Student> replaced = new HashMap<>();
+        Student first;
+        int delta;
+
+        Delta(Comparator<Student> order) { this.order = order; }
+
+        boolean insert(Student s) { first = min(first, s); delta++; return true; }
+
+        boolean delete(StudentEvent.Deleted del) {
+            if (del.before() == null) return false;
+            first = min(first, del.before());
+            delta--;
+            return true;
+        }
+
+        boolean update(StudentEvent.Updated upd) {
+            if (upd.before() == null) return false;
+            if (order.compare(upd.before(), upd.after()) == 0) replaced.put(upd.after().getStudentId(), upd.after());
+            else first = min(min(first, upd.before()), upd.after());
+            return true;
+        }
+
+        private Student min(Student a, Student s) { return a == null || order.compare(s, a) < 0 ? s : a; }
+    }
+
+    private void request(int page) {
+        if (!loading.add(page)) return;
+        long gen = generation;
+        StudentOrder o = order;
+        Student after = page == 0 ? null : lastRows.get(page - 1);
+        executor.execute(() -> {
+            List<Student> rows = loader.load(o, after, after != null ? -1 : page * pageSize, pageSize);
+            fx.execute(() -> {
+                if (gen != generation) return;
+                loading.remove(page);
+                pages.put(page, new ArrayList<>(rows));
+                if (!rows.isEmpty()) lastRows.put(page, rows.get(rows.size() - 1));
+                int from = page * pageSize, to = Math.min(size, from + rows.size());
+                if (from >= to) return;
+                beginChange();
+                for (int i = from; i < to; i++) nextSet(i, null);
+                endChange();
+            });
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.sms2.ui;
+
+import com.sms2.util.AppLogger;
+import com.sms2.util.DatabaseManager;
+import com.sms2.util.Metrics;
+import com.sms2.util.TaskExecutor;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs the table's search and sort queries on {@link TaskExecutor} I/O threads, newest wins.
+ * Each {@link #submit} supersedes the previous query: if it is still waiting out its debounce delay
+ * it never runs, and if it is running its thread is interrupted and its JDBC statement cancelled.
+ * A result is handed to the publish executor (the FX thread) only if no newer query was submitted
+ * or {@link #cancel()} called in the meantime; the check is repeated there, so a stale result
+ * never reaches the table. Counters are kept under {@code <name>.submitted}, {@code .cancelled},
+ * {@code .interrupted} and {@code .pending} (queued or running right now).
+ */
+public final class QueryScheduler {
+    private final TaskExecutor tasks;
+    private final Executor publish;
+    private final Metrics.Counter submitted, cancelled, interrupted, pending;
+    private final Metrics.Timer latency;
+    private Job<?> current;                 // guarded by this
+
+    public QueryScheduler(String name, TaskExecutor tasks, Executor publish) {
+        this.tasks = tasks;
+        this.publish = publish;
+        this.submitted   = Metrics.counter(name + ".submitted");
+        this.cancelled   = Metrics.counter(name + ".cancelled");
+        this.interrupted = Metrics.counter(name + ".interrupted");
+        this.pending     = Metrics.counter(name + ".pending");
+        this.latency     = Metrics.timer(name + ".run");
+    }
+
+    /** Runs {@code query} after {@code delayMs} and passes its result to {@code onResult} unless superseded first. */
+    public synchronized <T> void submit(long delayMs, Callable<T> query, Consumer<? super T> onResult) {
+        if (current != null) current.cancel();
+        Job<T> job = new Job<>(query, onResult);
+        current = job;
+        submitted.increment();
+        pending.increment();
+        if (delayMs <= 0) tasks.io().execute(job::run);
+        else job.delay = tasks.schedule(delayMs, () -> tasks.io().execute(job::run));
+    }
+
+    /** Supersedes whatever is queued or running without starting anything new. */
+    public synchronized void cancel() {
+        if (current != null) current.cancel();
+        current = null;
+    }
+
+    /** Queries submitted but not yet finished or cancelled. */
+    public long queueDepth()        { return pending.get(); }
+    public long cancelledCount()    { return cancelled.get(); }
+    public long interruptedCount()  { return interrupted.get(); }
+
+    private synchronized boolean isCurrent(Job<?> job) { return current == job; }
+
+    private final class Job<T> {
+        private final Callable<T> query;
+        private final Consumer<? super T> onResult;
+        private volatile Future<?> delay;
+        private Thread runner;              // guarded by this job, set only while query.call() runs
+        private boolean started, done, dropped;
+
+        Job(Callable<T> query, Consumer<? super T> onResult) { this.query = query; this.onResult = onResult; }
+
+        void run() {
+            synchronized (this) {
+                if (dropped) return;
+                started = true;
+                runner = Thread.currentThread();
+            }
+            long start = System.nanoTime();
+            T result;
+            try {
+                result = query.call();
+            } catch (Exception e) {
+                if (!isDropped()) AppLogger.error("Query failed: " + e.getMessage());
+                return;
+            } finally {
+                synchronized (this) { runner = null; }
+                Thread.interrupted();       // an interrupt aimed at this query must not leak into the next
+                finish();
+            }
+            latency.recordSince(start);
+            if (!isDropped()) publish.execute(() -> { if (isCurrent(this)) onResult.accept(result); });
+        }
+
+        synchronized void cancel() {
+            if (dropped || done) return;
+            dropped = true;
+            cancelled.increment();
+            if (!started) {
+                if (delay != null) delay.cancel(false);
+                finish();
+                return;
+            }
+            if (runner != null) {
+                runner.interrupt();
+                if (DatabaseManager.cancelStatement(runner)) interrupted.increment();
+            }
+        }
+
+        private synchronized boolean isDropped() { return dropped; }
+
+        private synchronized void finish() {
+            if (done) return;
+            done = true;
+            pending.add(-1);
+        }
+    }
+}
@@ -1,12 +1,25 @@
 package com.sms2.ui.controllers;
 
 import com.sms2.domain.ImportResult;
+import com.sms2.domain.KpiSummary;
+import com.sms2.domain.ReportSnapshot;
 import com.sms2.domain.Student;
+import com.sms2.domain.StudentEvent;
+import com.sms2.domain.StudentOrder;
+import com.sms2.repository.CachingStudentRepository;
 import com.sms2.repository.SqliteStudentRepository;
-import com.sms2.service.ReportService;
+import com.sms2.repository.StudentRepository;
+import com.sms2.service.ImportPipeline;
+import com.sms2.service.ReportBackend;
 import com.sms2.service.StudentService;
 import com.sms2.service.ValidationService;
+import com.sms2.ui.PagedStudentList;
+import com.sms2.ui.QueryScheduler;
 import com.sms2.util.AppLogger;
+import com.sms2.util.CsvHelper;
+import com.sms2.util.EventCoalescer;
+import com.sms2.util.Metrics;
+import com.sms2.util.TaskExecutor;
 import javafx.applicationproperty.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -24,15 +37,15 @@ import java.io.IOException;
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Optional;
-import java.util.ResourceBundle;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 public class MainController implements Initializable {
 
     // ── Services ──
     private final StudentService studentService;
-    private final ReportService reportService;
+    private final ReportBackend reportBackend;
     private final ValidationService validationService;
 
     // ── Top Nav ──
@@ -73,12 +86,22 @@ public class MainController implements Initializable {
     @FXML private Label lblStatusMsg;
 
     private double atRiskThreshold = 2.0;
+    private static final int TOP_N = 10;
+    private static final long TYPING_DEBOUNCE_MS = Long.getLong("sms.search.debounceMs", 250);
+    private static final DateTimeFormatter CLOCK_FORMAT = DateTimeFormatter.ofPattern("EEE dd MMM  HH:mm");
+    private ReportSnapshot report;          // what the Reports page shows; exports reuse it until data changes
     private ObservableList<Student> studentData;
+    private PagedStudentList pagedStudents;
+    private final TaskExecutor tasks = TaskExecutor.shared();
+    private final QueryScheduler queries = new QueryScheduler("query.students", tasks, Platform::runLater);
     private File selectedImportFile;
+    private KpiSummary kpis;                // last shown; change events are applied to it
 
     public MainController() {
-        this.studentService   = new StudentService(new SqliteStudentRepository());
-        this.reportService    = new ReportService();
+        StudentRepository repo = new CachingStudentRepository(
+                Metrics.instrument(StudentRepository.class, new SqliteStudentRepository(), "repo"));
+        this.studentService   = new StudentService(repo);
+        this.reportBackend    = Metrics.instrument(ReportBackend.class, ReportBackend.fromSystemProperty(repo), "reports");
         this.validationService= new ValidationService();
     }
 
@@ -89,6 +112,9 @@ public class MainController implements Initializable {
         loadStudents();
         refreshKpis();
         startClock();
+        txtSearch.textProperty().addListener((obs, old, now) -> onLiveSearch(now));
+        studentService.events().subscribe(new EventCoalescer<StudentEvent>(Platform::runLater, 100, this::onStudentEvents));
+        tasks.io().execute(studentService::buildSearchIndex);
         AppLogger.info("Application started.");
     }
 
@@ -96,13 +122,15 @@ public class MainController implements Initializable {
     //  NAVIGATION
     // ═══════════════════════════════
 
-    @FXML public void showHome()         { switchPage(homePage,         navHome);     refreshKpis(); }
-    @FXML public void showStudents()     { switchPage(studentsPage,     navStudents); loadStudents(); }
-    @FXML public void showReports()      { switchPage(reportsPage,      navReports);  buildReports(); }
-    @FXML public void showImportExport() { switchPage(importExportPage, navImport); }
-    @FXML public void showSettings()     { switchPage(settingsPage,     navSettings); txtThreshold.setText(String.valueOf(atRiskThreshold)); }
+    @FXML public void showHome()         { switchPage("home",     homePage,         navHome,     this::refreshKpis); }
+    @FXML public void showStudents()     { switchPage("students", studentsPage,     navStudents, this::loadStudents); }
+    @FXML public void showReports()      { switchPage("reports",  reportsPage,      navReports,  this::buildReports); }
+    @FXML public void showImportExport() { switchPage("import",   importExportPage, navImport,   () -> {}); }
+    @FXML public void showSettings()     { switchPage("settings", settingsPage,     navSettings, () -> txtThreshold.setText(String.valueOf(atRiskThreshold))); }
 
-    private void switchPage(Node activePage, Button activeBtn) {
+    /** Shows the page and runs its loader, timing both on the FX thread as {@code ui.page.<name>}. */
+    private void switchPage(String name, Node activePage, Button activeBtn, Runnable load) {
+        long start = System.nanoTime();
         Node[] pages = {homePage, studentsPage, reportsPage, importExportPage, settingsPage};
         Button[] btns = {navHome, navStudents, navReports, navImport, navSettings};
         for (Node p : pages) { p.setVisible(false); p.setManaged(false); }
@@ -111,31 +139,29 @@ public class MainController implements Initializable {
         activePage.setManaged(true);
         activeBtn.getStyleClass().add("nav-tab-active");
         setStatus("Ready");
+        load.run();
+        Metrics.timer("ui.page." + name).recordSince(start);
     }
 
     // ═══════════════════════════════
     //  HOME KPIs
     // ═══════════════════════════════
 
-    private void refreshKpis() {
-        List<Student> all = studentService.getAllStudents();
-        kpiTotal.setText(String.valueOf(all.size()));
-        kpiActive.setText(String.valueOf(reportService.countActive(all)));
-        kpiInactive.setText(String.valueOf(reportService.countInactive(all)));
-        kpiAvgGpa.setText(String.format("%.2f", reportService.getAverageGpa(all)));
+    private void refreshKpis() { showKpis(studentService.getKpiSummary()); }
+
+    private void showKpis(KpiSummary k) {
+        kpis = k;
+        kpiTotal.setText(String.valueOf(k.getTotal()));
+        kpiActive.setText(String.valueOf(k.getActive()));
+        kpiInactive.setText(String.valueOf(k.getInactive()));
+        kpiAvgGpa.setText(String.format("%.2f", k.getAverageGpa()));
     }
 
     private void startClock() {
-        Thread t = new Thread(() -> {
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern("EEE dd MMM  HH:mm");
-            while (true) {
-                String now = LocalDateTime.now().format(fmt);
-                Platform.runLater(() -> lblClock.setText(now));
-                try { Thread.sleep(1000); } catch (InterruptedException e) { break; }
-            }
+        tasks.every(1000, () -> {
+            String now = LocalDateTime.now().format(CLOCK_FORMAT);
+            Platform.runLater(() -> lblClock.setText(now));
         });
-        t.setDaemon(true);
-        t.start();
     }
 
     // ═══════════════════════════════
@@ -143,17 +169,23 @@ public class MainController implements Initializable {
     // ═══════════════════════════════
 
     private void initTable() {
-        colId.setCellValueFactory(d -> new SimpleStringProperty(d.getValue().getStudentId()));
-        colName.setCellValueFactory(d -> new SimpleStringProperty(d.getValue().getFullName()));
-        colProg.setCellValueFactory(d -> new SimpleStringProperty(d.getValue().getProgramme()));
-        colLevel.setCellValueFactory(d -> new SimpleIntegerProperty(d.getValue().getLevel()).asObject());
-        colGpa.setCellValueFactory(d -> new SimpleDoubleProperty(d.getValue().getGpa()).asObject());
-        colEmail.setCellValueFactory(d -> new SimpleStringProperty(d.getValue().getEmail()));
-        colPhone.setCellValueFactory(d -> new SimpleStringProperty(d.getValue().getPhoneNumber()));
-        colDate.setCellValueFactory(d -> new SimpleStringProperty(d.getValue().getDateAdded().toString()));
-        colStatus.setCellValueFactory(d -> new SimpleStringProperty(d.getValue().getStatus().name()));
+        // Rows of the paged list are null until their page arrives, so every factory is null-safe
+        colId.setCellValueFactory(d -> text(d.getValue(), Student::getStudentId));
+        colName.setCellValueFactory(d -> text(d.getValue(), Student::getFullName));
+        colProg.setCellValueFactory(d -> text(d.getValue(), Student::getProgramme));
+        colLevel.setCellValueFactory(d -> d.getValue() == null ? null : new SimpleIntegerProperty(d.getValue().getLevel()).asObject());
+        colGpa.setCellValueFactory(d -> d.getValue() == null ? null : new SimpleDoubleProperty(d.getValue().getGpa()).asObject());
+        colEmail.setCellValueFactory(d -> text(d.getValue(), Student::getEmail));
+        colPhone.setCellValueFactory(d -> text(d.getValue(), Student::getPhoneNumber));
+        colDate.setCellValueFactory(d -> text(d.getValue(), s -> s.getDateAdded().toString()));
+        colStatus.setCellValueFactory(d -> text(d.getValue(), s -> s.getStatus().name()));
         studentData = FXCollections.observableArrayList();
-        studentTable.setItems(studentData);
+        pagedStudents = new PagedStudentList(
+                (order, after, offset, limit) -> after != null || offset == 0
+                        ? studentService.getStudentPage(order, after, limit)
+                        : studentService.getStudentPageAt(order, offset, limit),
+                studentService::countStudents, tasks.io(), 200, 25);
+        studentTable.setItems(pagedStudents);
 
         // Colour-code GPA column
         colGpa.setCellFactory(col -> new TableCell<>() {
@@ -190,38 +222,176 @@ public class MainController implements Initializable {
         cboProgramme.getItems().add("All");
     }
 
+    private static SimpleStringProperty text(Student s, Function<Student,String> f) {
+        return s == null ? null : new SimpleStringProperty(f.apply(s));
+    }
+
+    /** Shows the whole table through the paged list; only visible pages are fetched. */
     private void loadStudents() {
-        List<Student> students = studentService.getAllStudents();
-        studentData.setAll(students);
-        lblStudentCount.setText(students.size() + " records");
+        queries.cancel();                   // a search or sort still in flight must not replace the full view
+        studentTable.setItems(pagedStudents);
+        pagedStudents.refresh(() -> lblStudentCount.setText(pagedStudents.size() + " records"));
         refreshProgrammeFilter();
     }
 
+    private void showRows(List<Student> rows) {
+        studentData.setAll(rows);
+        studentTable.setItems(studentData);
+        lblStudentCount.setText(rows.size() + " records");
+    }
+
     private void refreshProgrammeFilter() {
+        tasks.io().execute(() -> {
+            List<String> programmes = studentService.getAllProgrammes();
+            Platform.runLater(() -> showProgrammes(programmes));
+        });
+    }
+
+    private void showProgrammes(Collection<String> programmes) {
         String sel = cboProgramme.getValue();
-        cboProgramme.getItems().clear();
-        cboProgramme.getItems().add("All");
-        cboProgramme.getItems().addAll(studentService.getAllProgrammes());
+        cboProgramme.getItems().setAll("All");
+        cboProgramme.getItems().addAll(programmes);
         cboProgramme.setValue(sel != null && cboProgramme.getItems().contains(sel) ? sel : "All");
     }
 
+    // ═══════════════════════════════
+    //  CHANGE EVENTS
+    // ═══════════════════════════════
+
+    /** Applies a coalesced batch of committed changes to every view instead of reloading them. */
+    private void onStudentEvents(List<StudentEvent> batch) {
+        report = null;
+        pagedStudents.apply(batch, () -> lblStudentCount.setText(pagedStudents.size() + " records"));
+        if (studentTable.getItems() == studentData) patchShownRows(batch);
+        applyKpis(batch);
+        applyProgrammes(batch);
+    }
+
+    /** Search and sort results: replace updated rows, drop deleted ones; new rows may not match, so they are left out. */
+    private void patchShownRows(List<StudentEvent> batch) {
+        Map<String, Student> updated = new HashMap<>();
+        Set<String> deleted = new HashSet<>();
+        for (StudentEvent e : batch) {
+            switch (e) {
+                case StudentEvent.Updated upd -> updated.put(upd.after().getStudentId(), upd.after());
+                case StudentEvent.BulkUpdated bulk -> { for (StudentEvent.Updated upd : bulk.updates()) updated.put(upd.after().getStudentId(), upd.after()); }
+                case StudentEvent.Deleted del -> deleted.add(del.studentId());
+                case StudentEvent.BulkDeleted bulk -> { for (StudentEvent.Deleted del : bulk.deletes()) deleted.add(del.studentId()); }
+                case StudentEvent.Inserted ins -> {}
+                case StudentEvent.BulkImported bulk -> {}
+            }
+        }
+        if (updated.isEmpty() && deleted.isEmpty()) return;
+        List<Student> rows = new ArrayList<>(studentData.size());
+        boolean changed = false;
+        for (Student s : studentData) {
+            if (deleted.contains(s.getStudentId())) { changed = true; continue; }
+            Student u = updated.get(s.getStudentId());
+            changed |= u != null;
+            rows.add(u != null ? u : s);
+        }
+        if (!changed) return;
+        boolean shrank = rows.size() < studentData.size();
+        studentData.setAll(rows);
+        if (shrank) lblStudentCount.setText(studentData.size() + " records");
+    }
+
+    private void applyKpis(List<StudentEvent> batch) {
+        KpiSummary k = kpis;
+        for (StudentEvent e : batch) {
+            if (k == null) break;
+            switch (e) {
+                case StudentEvent.Inserted ins -> k = k.with(ins.student(), 1);
+                case StudentEvent.BulkImported bulk -> { for (Student s : bulk.students()) k = k.with(s, 1); }
+                case StudentEvent.Deleted del -> k = without(k, del);
+                case StudentEvent.BulkDeleted bulk -> { for (StudentEvent.Deleted del : bulk.deletes()) k = without(k, del); }
+                case StudentEvent.Updated upd -> k = changed(k, upd);
+                case StudentEvent.BulkUpdated bulk -> { for (StudentEvent.Updated upd : bulk.updates()) k = changed(k, upd); }
+            }
+        }
+        if (k == null) refreshKpis(); else showKpis(k);
+    }
+
+    /** Null (re-read the KPIs) once an event lacks the old row. */
+    private static KpiSummary without(KpiSummary k, StudentEvent.Deleted del) {
+        return k == null || del.before() == null ? null : k.with(del.before(), -1);
+    }
+
+    private static KpiSummary changed(KpiSummary k, StudentEvent.Updated upd) {
+        return k == null || upd.before() == null ? null : k.with(upd.before(), -1).with(upd.after(), 1);
+    }
+
+    /** Adds new programmes directly; re-reads the list only when a programme may have lost its last student. */
+    private void applyProgrammes(List<StudentEvent> batch) {
+        boolean maybeGone = false;
+        Set<String> seen = new TreeSet<>(cboProgramme.getItems().subList(1, cboProgramme.getItems().size()));
+        int known = seen.size();
+        for (StudentEvent e : batch) {
+            switch (e) {
+                case StudentEvent.Inserted ins -> seen.add(ins.student().getProgramme());
+                case StudentEvent.BulkImported bulk -> { for (Student s : bulk.students()) seen.add(s.getProgramme()); }
+                case StudentEvent.Deleted del -> maybeGone = true;
+                case StudentEvent.BulkDeleted bulk -> maybeGone = true;
+                case StudentEvent.Updated upd -> maybeGone |= programmeChanged(upd, seen);
+                case StudentEvent.BulkUpdated bulk -> { for (StudentEvent.Updated upd : bulk.updates()) maybeGone |= programmeChanged(upd, seen); }
+            }
+        }
+        if (maybeGone) { refreshProgrammeFilter(); return; }
+        if (seen.size() != known) showProgrammes(seen);
+    }
+
+    /** Adds the new programme to {@code seen}; true when the old one may have lost its last student. */
+    private static boolean programmeChanged(StudentEvent.Updated upd, Set<String> seen) {
+        seen.add(upd.after().getProgramme());
+        return upd.before() == null || !upd.before().getProgramme().equals(upd.after().getProgramme());
+    }
+
     @FXML private void onSearch() {
         String q = txtSearch.getText().trim();
-        List<Student> r = q.isEmpty() ? studentService.getAllStudents() : studentService.searchStudents(q);
-        studentData.setAll(r);
-        lblStudentCount.setText(r.size() + " records");
-        setStatus("Found " + r.size() + " student(s).");
+        if (q.isEmpty()) { loadStudents(); setStatus("Showing all students."); return; }
+        queries.submit(0, () -> studentService.searchStudents(q, StudentService.SEARCH_LIMIT + 1),
+                r -> showMatches(r, StudentService.SEARCH_LIMIT, "Found " + r.size() + " student(s)."));
+    }
+
+    private void onLiveSearch(String text) {
+        String q = text == null ? "" : text.trim();
+        if (q.isEmpty()) { loadStudents(); return; }
+        queries.submit(TYPING_DEBOUNCE_MS, () -> studentService.liveSearch(q, StudentService.LIVE_SEARCH_LIMIT + 1),
+                r -> showMatches(r, StudentService.LIVE_SEARCH_LIMIT, r.size() + " match(es) for '" + q + "'."));
+    }
+
+    /** Shows at most {@code limit} rows; searches ask for one more, so a cut-off result says so. */
+    private void showMatches(List<Student> rows, int limit, String status) {
+        if (rows.size() <= limit) { showRows(rows); setStatus(status); return; }
+        showRows(rows.subList(0, limit));
+        lblStudentCount.setText(limit + "+ records");
+        setStatus("Showing the first " + limit + " matches; refine the search to see the rest.");
     }
 
     @FXML private void onClearFilter() {
         cboProgramme.setValue("All"); cboLevel.setValue("All"); cboStatus.setValue("All");
-        txtSearch.clear(); loadStudents(); setStatus("Filters cleared.");
+        if (txtSearch.getText().isEmpty()) loadStudents();
+        else txtSearch.clear();                     // the text listener reloads once
+        setStatus("Filters cleared.");
     }
 
     @FXML private void onRefresh()      { loadStudents(); setStatus("Refreshed."); }
-    @FXML private void onSortByName()   { studentData.setAll(studentService.getSortedByName(studentData)); }
-    @FXML private void onSortGpaAsc()   { studentData.setAll(studentService.getSortedByGpa(studentData, true)); }
-    @FXML private void onSortGpaDesc()  { studentData.setAll(studentService.getSortedByGpa(studentData, false)); }
+    @FXML private void onSortByName()   { sortRows(StudentOrder.NAME, studentService::getSortedByName); }
+    @FXML private void onSortGpaAsc()   { sortRows(StudentOrder.GPA_ASC, rows -> studentService.getSortedByGpa(rows, true)); }
+    @FXML private void onSortGpaDesc()  { sortRows(StudentOrder.GPA_DESC, rows -> studentService.getSortedByGpa(rows, false)); }
+
+    /**
+     * Re-pages the full table in {@code order}, still fetching only the pages shown; search and
+     * filter results are already in memory and are sorted there in the background.
+     */
+    private void sortRows(StudentOrder order, UnaryOperator<List<Student>> sort) {
+        if (studentTable.getItems() == pagedStudents) {
+            pagedStudents.setOrder(order, () -> lblStudentCount.setText(pagedStudents.size() + " records"));
+            return;
+        }
+        List<Student> shown = List.copyOf(studentData);
+        queries.submit(0, () -> sort.apply(shown), this::showRows);
+    }
 
     // ═══════════════════════════════
     //  ADD / EDIT / DELETE
@@ -244,7 +414,7 @@ public class MainController implements Initializable {
         c.setContentText("This action cannot be undone.");
         c.showAndWait().filter(r -> r == ButtonType.OK).ifPresent(r -> {
             if (studentService.deleteStudent(s.getStudentId())) {
-                loadStudents(); setStatus("Student deleted.");
+                setStatus("Student deleted.");
             } else alert(Alert.AlertType.ERROR, "Error", "Failed to delete student.");
         });
     }
@@ -311,7 +481,6 @@ public class MainController implements Initializable {
         dialog.showAndWait().ifPresent(s -> {
             List<String> errors = existing == null ? studentService.addStudent(s) : studentService.updateStudent(s);
             if (errors.isEmpty()) {
-                loadStudents();
                 setStatus(existing == null ? "Student added successfully." : "Student updated successfully.");
             } else {
                 alert(Alert.AlertType.ERROR, "Validation Error", String.join("\n", errors));
@@ -323,19 +492,30 @@ public class MainController implements Initializable {
     //  REPORTS
     // ═══════════════════════════════
 
+    /** Computes the snapshot on the CPU pool and renders it on the FX thread when it is ready. */
     private void buildReports() {
-        List<Student> all = studentService.getAllStudents();
+        double threshold = atRiskThreshold;
+        tasks.cpu().execute(() -> {
+            try {
+                ReportSnapshot r = reportBackend.snapshot(TOP_N, threshold);
+                Platform.runLater(() -> showReport(r));
+            } catch (RuntimeException e) { AppLogger.error("Report build failed: " + e.getMessage()); }
+        });
+    }
+
+    private void showReport(ReportSnapshot r) {
+        report = r;
 
         // Tab 1 – Top Performers
-        List<Student> top = reportService.getTopPerformers(all, 10, null, null);
+        List<Student> top = r.getTopPerformers();
         tabTop.setContent(buildReportTable(top, "Top 10 students by GPA across all programmes"));
 
         // Tab 2 – At Risk
-        List<Student> risk = reportService.getAtRiskStudents(all, atRiskThreshold);
+        List<Student> risk = r.getAtRisk();
         tabRisk.setContent(buildReportTable(risk, "Students with GPA below threshold of " + atRiskThreshold));
 
         // Tab 3 – GPA Distribution
-        java.util.Map<String,Long> dist = reportService.getGpaDistribution(all);
+        java.util.Map<String,Long> dist = r.getGpaDistribution();
         TableView<String[]> tDist = new TableView<>();
         TableColumn<String[],String> cBand = new TableColumn<>("GPA Band");
         cBand.setCellValueFactory(d -> new SimpleStringProperty(d.getValue()[0]));
@@ -353,14 +533,14 @@ public class MainController implements Initializable {
         tabDist.setContent(distBox);
 
         // Tab 4 – Programme Summary
-        java.util.Map<String,double[]> summary = reportService.getProgrammeSummary(all);
+        java.util.Map<String,ReportSnapshot.ProgrammeStat> summary = r.getProgrammeSummary();
         TableView<String[]> tProg = new TableView<>();
         TableColumn<String[],String> cPName  = new TableColumn<>("Programme");    cPName.setCellValueFactory(d -> new SimpleStringProperty(d.getValue()[0]));  cPName.setPrefWidth(220);
         TableColumn<String[],String> cPCount = new TableColumn<>("Total Students"); cPCount.setCellValueFactory(d -> new SimpleStringProperty(d.getValue()[1])); cPCount.setPrefWidth(140);
         TableColumn<String[],String> cPAvg   = new TableColumn<>("Average GPA");   cPAvg.setCellValueFactory(d -> new SimpleStringProperty(d.getValue()[2]));   cPAvg.setPrefWidth(140);
         tProg.getColumns().addAll(cPName, cPCount, cPAvg);
         ObservableList<String[]> pRows = FXCollections.observableArrayList();
-        summary.forEach((k,v) -> pRows.add(new String[]{k, String.valueOf((int)v[0]), String.format("%.2f", v[1])}));
+        summary.forEach((k,v) -> pRows.add(new String[]{k, String.valueOf(v.count()), String.format("%.2f", v.averageGpa())}));
         tProg.setItems(pRows); tProg.setMaxHeight(280);
         tProg.getStyleClass().add("data-table");
         VBox progBox = new VBox(10, new Label("Student count and average GPA per programme"), tProg);
@@ -402,27 +582,56 @@ public class MainController implements Initializable {
 
     @FXML private void onImport() {
         if (selectedImportFile == null) { alert(Alert.AlertType.WARNING,"No File","Please browse for a CSV file first."); return; }
-        Task<ImportResult> task = new Task<>() { @Override protected ImportResult call() { return studentService.importFromCsv(selectedImportFile); } };
+        File file = selectedImportFile;
+        Task<ImportResult> task = new Task<>() {
+            @Override protected ImportResult call() {
+                return studentService.importFromCsv(file, StudentService.DEFAULT_BATCH_SIZE, ImportPipeline.defaultWorkers(), (done, total) -> {
+                    updateProgress(done, total);
+                    updateMessage("Importing… " + done + " rows saved.");
+                });
+            }
+        };
+        task.messageProperty().addListener((obs, old, now) -> setStatus(now));
         task.setOnSucceeded(e -> {
             ImportResult r = task.getValue();
             lblImportSuccess.setText("✓ Imported: " + r.getSuccessCount() + " rows");
-            lblImportErrors.setText(r.getErrorCount() > 0 ? "✗ Errors: " + r.getErrorCount() + "  (see data/import_errors.csv)" : "");
-            loadStudents();
-            setStatus("Import complete. " + r.getSuccessCount() + " added.");
+            lblImportErrors.setText(r.getErrorCount() > 0 ? "✗ Errors: " + r.getErrorCount() + "  (see " + CsvHelper.dataPath("import_errors.csv") + ")" : "");
+            setStatus(String.format("Import complete. %d added (%.0f rows/s).", r.getSuccessCount(), r.getRowsPerSecond()));
         });
         task.setOnFailed(e -> alert(Alert.AlertType.ERROR,"Import Failed", task.getException().getMessage()));
-        new Thread(task).start();
+        tasks.run(task, true);
+    }
+
+    @FXML private void onExportAll()           { doExport("students_export.csv", "All students", p -> studentService.exportAllToCsv("students_export.csv", p)); }
+    @FXML private void onExportTopPerformers() { exportReport("top_performers_export.csv", "Top performers", ReportSnapshot::getTopPerformers); }
+    @FXML private void onExportAtRisk()        { exportReport("at_risk_export.csv", "At-risk students", ReportSnapshot::getAtRisk); }
+
+    /**
+     * Exports part of the snapshot the Reports page last built. Only if data or the threshold has
+     * changed since is a new one computed, inside the export task rather than on the FX thread.
+     */
+    private void exportReport(String fn, String label, Function<ReportSnapshot, List<Student>> part) {
+        ReportSnapshot shown = report != null && report.getThreshold() == atRiskThreshold ? report : null;
+        double threshold = atRiskThreshold;
+        doExport(fn, label, p -> {
+            ReportSnapshot r = shown != null ? shown : reportBackend.snapshot(TOP_N, threshold);
+            studentService.exportListToCsv(fn, part.apply(r));
+        });
     }
 
-    @FXML private void onExportAll()           { doExport("students_export.csv",    studentService.getAllStudents(), "All students"); }
-    @FXML private void onExportTopPerformers() { doExport("top_performers_export.csv", reportService.getTopPerformers(studentService.getAllStudents(),10,null,null), "Top performers"); }
-    @FXML private void onExportAtRisk()        { doExport("at_risk_export.csv",     reportService.getAtRiskStudents(studentService.getAllStudents(), atRiskThreshold), "At-risk students"); }
+    private interface ExportAction { void run(TaskExecutor.Progress progress) throws IOException; }
 
-    private void doExport(String fn, List<Student> list, String label) {
-        Task<Void> task = new Task<>() { @Override protected Void call() throws IOException { studentService.exportListToCsv(fn, list); return null; } };
-        task.setOnSucceeded(e -> { lblExportStatus.setText("✓ " + label + " exported → data/" + fn); setStatus("Export saved: " + fn); });
+    private void doExport(String fn, String label, ExportAction action) {
+        Task<Void> task = new Task<>() {
+            @Override protected Void call() throws IOException {
+                action.run((done, total) -> { updateProgress(done, total); updateMessage("Exporting… " + done + " of " + total + " rows."); });
+                return null;
+            }
+        };
+        task.messageProperty().addListener((obs, old, now) -> setStatus(now));
+        task.setOnSucceeded(e -> { lblExportStatus.setText("✓ " + label + " exported → " + CsvHelper.dataPath(fn)); setStatus("Export saved: " + fn); });
         task.setOnFailed(e -> { lblExportStatus.setText("✗ Export failed: " + task.getException().getMessage()); });
-        new Thread(task).start();
+        tasks.run(task, false);
     }
 
     // ═══════════════════════════════
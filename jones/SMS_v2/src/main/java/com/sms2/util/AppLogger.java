@@ -1,29 +1,226 @@
 package com.sms2.util;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Asynchronous file logger. {@link #info}/{@link #warn}/{@link #error} only claim a slot in a
+ * pre-allocated lock-free ring buffer and return; a background thread drains the ring in batches,
+ * formats the timestamps and appends to {@code sms.log.file} (default {@code app.log} next to the
+ * database) through a channel that stays open.
+ * <p>
+ * Tuned with system properties: {@code sms.log.bufferSize} (slots, rounded up to a power of two),
+ * {@code sms.log.overflow} ({@code BLOCK} waits for space, {@code DROP} discards and counts,
+ * {@code SYNC} writes on the caller's thread), {@code sms.log.maxBytes} and {@code sms.log.backups}
+ * for size-based rotation to {@code app.log.1 .. app.log.N}.
+ */
 public class AppLogger {
-    private static final String LOG_FILE = "data/app.log";
+    private static final Path LOG_FILE = Paths.get(System.getProperty("sms.log.file", DatabaseManager.dataFile("app.log").toString()));
     private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    public enum Overflow { BLOCK, DROP, SYNC }
+
+    private static final String OVERFLOW_SETTING = System.getProperty("sms.log.overflow", "BLOCK");
+    private static final Overflow OVERFLOW = parseOverflow(OVERFLOW_SETTING);
+    private static final long MAX_BYTES = Long.getLong("sms.log.maxBytes", 10L << 20);
+    private static final int BACKUPS = Integer.getInteger("sms.log.backups", 3);
+    private static final int BATCH = 256;
+
+    private static final Slot[] RING;
+    private static final int MASK;
+    private static final AtomicLong TAIL = new AtomicLong();
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static long head;                        // consumer thread only
+    private static volatile long written;            // slots fully written to disk
+    private static volatile boolean running = true;
+    private static final Thread WRITER;
+
+    private static FileChannel channel;              // guarded by AppLogger.class
+    private static final ByteBuffer OUT = ByteBuffer.allocate(64 << 10);
+    private static final StringBuilder LINE = new StringBuilder(256);
+    private static long stampSecond = Long.MIN_VALUE;
+    private static String stamp;
+
+    static {
+        int size = Integer.highestOneBit(Math.max(2, Integer.getInteger("sms.log.bufferSize", 8192)) * 2 - 1);
+        RING = new Slot[size];
+        for (int i = 0; i < size; i++) RING[i] = new Slot(i);
+        MASK = size - 1;
+        WRITER = new Thread(AppLogger::drainLoop, "app-logger");
+        WRITER.setDaemon(true);
+        WRITER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(AppLogger::shutdown, "app-logger-shutdown"));
+        if (!OVERFLOW.name().equalsIgnoreCase(OVERFLOW_SETTING.trim()))
+            warn("Unknown sms.log.overflow '" + OVERFLOW_SETTING + "'; using " + OVERFLOW + ".");
+    }
+
     private AppLogger() {}
 
     public static void info(String msg)  { log("INFO ", msg); }
     public static void error(String msg) { log("ERROR", msg); }
     public static void warn(String msg)  { log("WARN ", msg); }
 
+    /** The overflow policy named by {@code value}, ignoring case; {@code BLOCK} when it names none. */
+    static Overflow parseOverflow(String value) {
+        try { return Overflow.valueOf(value.trim().toUpperCase(Locale.ROOT)); }
+        catch (IllegalArgumentException e) { return Overflow.BLOCK; }
+    }
+
+    /** The file being written; {@code sms.log.file}, or {@code app.log} next to the database. */
+    static Path file() { return LOG_FILE; }
+
+    /** Blocks until everything logged before this call has been written, or the timeout passes. */
+    public static void flush(long timeout, TimeUnit unit) {
+        long target = TAIL.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (running && written < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(WRITER);
+            LockSupport.parkNanos(200_000);
+        }
+    }
+
+    /** Drains the buffer, stops the writer thread and closes the file. Later calls log synchronously. */
+    public static void shutdown() {
+        if (!running) return;
+        flush(5, TimeUnit.SECONDS);
+        running = false;
+        LockSupport.unpark(WRITER);
+        try { WRITER.join(2000); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        synchronized (AppLogger.class) {
+            try { if (channel != null) channel.close(); } catch (IOException e) { System.err.println("Logger error: " + e.getMessage()); }
+            channel = null;
+        }
+    }
+
     private static void log(String level, String msg) {
-        String line = "[" + LocalDateTime.now().format(FMT) + "] [" + level + "] " + msg;
-        System.out.println(line);
+        long now = System.currentTimeMillis();
+        if (!running) { writeSync(level, msg, now); return; }
+        while (!offer(level, msg, now)) {
+            switch (OVERFLOW) {
+                case DROP: DROPPED.incrementAndGet(); return;
+                case SYNC: writeSync(level, msg, now); return;
+                default:
+                    LockSupport.unpark(WRITER);
+                    LockSupport.parkNanos(50_000);
+                    if (!running) { writeSync(level, msg, now); return; }
+            }
+        }
+    }
+
+    /** Bounded multi-producer enqueue (Vyukov): claim a sequence with one CAS, fill the slot, publish. */
+    private static boolean offer(String level, String msg, long time) {
+        long pos = TAIL.get();
+        while (true) {
+            Slot s = RING[(int) pos & MASK];
+            long dif = s.seq - pos;
+            if (dif == 0) {
+                if (TAIL.compareAndSet(pos, pos + 1)) {
+                    s.time = time; s.level = level; s.msg = msg;
+                    s.seq = pos + 1;
+                    return true;
+                }
+                pos = TAIL.get();
+            } else if (dif < 0) return false;
+            else pos = TAIL.get();
+        }
+    }
+
+    private static void drainLoop() {
+        int idle = 0;
+        while (running || RING[(int) head & MASK].seq == head + 1) {
+            int n = drainBatch();
+            if (n > 0) { idle = 0; continue; }
+            LockSupport.parkNanos(Math.min(10_000_000L, 100_000L << Math.min(idle++, 7)));
+        }
+    }
+
+    private static int drainBatch() {
+        int n = 0;
+        synchronized (AppLogger.class) {
+            long dropped = DROPPED.getAndSet(0);
+            if (dropped > 0) append("WARN ", dropped + " log records dropped (buffer full)", System.currentTimeMillis());
+            while (n < BATCH) {
+                Slot s = RING[(int) head & MASK];
+                if (s.seq != head + 1) break;
+                append(s.level, s.msg, s.time);
+                s.msg = null;
+                s.seq = head + RING.length;
+                head++;
+                n++;
+            }
+            if (n > 0 || dropped > 0) writeOut();
+        }
+        written = head;
+        return n;
+    }
+
+    private static synchronized void writeSync(String level, String msg, long time) {
+        append(level, msg, time);
+        writeOut();
+    }
+
+    private static void append(String level, String msg, long time) {
+        long second = time / 1000;
+        if (second != stampSecond) {
+            stampSecond = second;
+            stamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault()).format(FMT);
+        }
+        LINE.setLength(0);
+        LINE.append('[').append(stamp).append("] [").append(level).append("] ").append(msg).append(System.lineSeparator());
+        System.out.print(LINE);
+        byte[] bytes = LINE.toString().getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > OUT.remaining()) writeOut();
+        if (bytes.length > OUT.capacity()) { write(ByteBuffer.wrap(bytes)); return; }
+        OUT.put(bytes);
+    }
+
+    private static void writeOut() {
+        OUT.flip();
+        if (OUT.hasRemaining()) write(OUT);
+        OUT.clear();
+    }
+
+    private static void write(ByteBuffer buf) {
         try {
-            new java.io.File("data").mkdirs();
-            try (PrintWriter pw = new PrintWriter(new FileWriter(LOG_FILE, true))) {
-                pw.println(line);
+            if (channel == null) {
+                if (LOG_FILE.getParent() != null) Files.createDirectories(LOG_FILE.getParent());
+                channel = FileChannel.open(LOG_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
             }
+            while (buf.hasRemaining()) channel.write(buf);
+            if (MAX_BYTES > 0 && channel.size() >= MAX_BYTES) rotate();
         } catch (IOException e) {
             System.err.println("Logger error: " + e.getMessage());
+            buf.position(buf.limit());
         }
     }
+
+    private static void rotate() throws IOException {
+        channel.close();
+        channel = null;
+        for (int i = BACKUPS; i >= 1; i--) {
+            Path src = i == 1 ? LOG_FILE : LOG_FILE.resolveSibling(LOG_FILE.getFileName() + "." + (i - 1));
+            Path dst = LOG_FILE.resolveSibling(LOG_FILE.getFileName() + "." + i);
+            if (Files.exists(src)) Files.move(src, dst, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (BACKUPS < 1) Files.deleteIfExists(LOG_FILE);
+    }
+
+    private static final class Slot {
+        volatile long seq;
+        long time;
+        String level;
+        String msg;
+        Slot(long seq) { this.seq = seq; }
+    }
 }
@@ -0,0 +1,231 @@
+package com.sms2.util;
+
+import java.lang.reflect.*;
+import java.sql.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * SQLite connection pool laid out for WAL mode: up to {@code maxReaders} read-only connections
+ * that can query concurrently, plus one writer connection handed to a single thread at a time.
+ * Leases are {@link Connection} proxies whose {@code close()} returns the physical connection to
+ * the pool; callers keep using try-with-resources exactly as with a plain connection.
+ * <p>
+ * The writer lease is re-entrant, and a thread that holds it gets the writer for reads too,
+ * so it sees its own uncommitted changes. Each physical connection keeps a {@link StatementCache},
+ * so {@code prepareStatement(sql)} on a lease reuses an already-compiled statement when it can;
+ * every statement made through a lease can be cancelled with {@link StatementCache#cancel}.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final String url;
+    private final long leaseTimeoutMs;
+    private final Semaphore readerPermits;
+    private final int statementCacheSize;
+    private final BlockingQueue<Pooled> idleReaders;
+    private final Semaphore writerPermit = new Semaphore(1, true);
+    private Pooled writer;               // guarded by writerPermit
+    private volatile Thread writerOwner;
+    private int writerDepth;
+    private volatile boolean closed;
+
+    private final AtomicLong writeVersion = new AtomicLong();
+    private final AtomicInteger activeReaders = new AtomicInteger();
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+
+    public interface SchemaInitializer { void init(Connection writer) throws SQLException; }
+
+    public ConnectionPool(String url, int maxReaders, long leaseTimeoutMs, int statementCacheSize,
+                          SchemaInitializer schema) throws SQLException {
+        if (maxReaders<1) throw new IllegalArgumentException("maxReaders must be positive");
+        this.url = url;
+        this.leaseTimeoutMs = leaseTimeoutMs;
+        this.statementCacheSize = statementCacheSize;
+        this.readerPermits = new Semaphore(maxReaders, true);
+        this.idleReaders = new ArrayBlockingQueue<>(maxReaders);
+        this.writer = open(false);
+        schema.init(writer.connection);
+    }
+
+    public Connection leaseReader() throws SQLException {
+        if (writerOwner == Thread.currentThread()) return leaseWriter();
+        long waited = acquire(readerPermits, "reader");
+        Pooled physical = idleReaders.poll();
+        try {
+            if (physical == null || physical.connection.isClosed()) physical = open(true);
+        } catch (SQLException e) { readerPermits.release(); throw e; }
+        activeReaders.incrementAndGet();
+        record(waited);
+        return lease(physical, true);
+    }
+
+    public Connection leaseWriter() throws SQLException {
+        if (writerOwner == Thread.currentThread()) { ensureOpen(); writerDepth++; return lease(writer, false); }
+        long waited = acquire(writerPermit, "writer");
+        try {
+            if (writer.connection.isClosed()) writer = open(false);
+        } catch (SQLException e) { writerPermit.release(); throw e; }
+        writerOwner = Thread.currentThread();
+        writerDepth = 1;
+        record(waited);
+        return lease(writer, false);
+    }
+
+    /**
+     * Bumped each time the writer lease is handed back, i.e. after anything that may have changed
+     * data. Equal values mean nothing was written in between; used to tell when derived in-memory
+     * copies of the data are stale.
+     */
+    public long writeVersion() { return writeVersion.get(); }
+
+    public Stats stats() {
+        long n = leases.sum();
+        return new Stats(activeReaders.get(), idleReaders.size(), writerOwner != null ? 1 : 0, n,
+                n == 0 ? 0 : waitNanos.sum() / n / 1_000_000.0, maxWaitNanos.get() / 1_000_000.0, timeouts.sum(),
+                statementHits.sum(), statementMisses.sum());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Pooled c;
+        while ((c = idleReaders.poll()) != null) quietClose(c);
+        quietClose(writer);
+    }
+
+    private Pooled open(boolean readOnly) throws SQLException {
+        Connection c = DriverManager.getConnection(url);
+        try (Statement s = c.createStatement()) {
+            s.execute("PRAGMA busy_timeout=" + leaseTimeoutMs);
+            if (readOnly) s.execute("PRAGMA query_only=ON");
+        }
+        return new Pooled(c, new StatementCache(c, statementCacheSize, statementHits, statementMisses));
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+    }
+
+    private long acquire(Semaphore permits, String kind) throws SQLException {
+        ensureOpen();
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(leaseTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + leaseTimeoutMs + " ms waiting for a " + kind + " connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a " + kind + " connection", e);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void record(long waited) {
+        leases.increment();
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    private void release(Pooled pooled, boolean reader) {
+        if (!reader && --writerDepth > 0) return;
+        Connection physical = pooled.connection;
+        try {
+            if (!physical.isClosed() && !physical.getAutoCommit()) { physical.rollback(); physical.setAutoCommit(true); }
+        } catch (SQLException e) {
+            AppLogger.warn("Discarding connection after failed reset: " + e.getMessage());
+            quietClose(pooled);
+        }
+        if (reader) {
+            activeReaders.decrementAndGet();
+            if (closed || !idleReaders.offer(pooled)) quietClose(pooled);
+            readerPermits.release();
+        } else {
+            writeVersion.incrementAndGet();
+            writerOwner = null;
+            writerPermit.release();
+        }
+    }
+
+    private Connection lease(Pooled pooled, boolean reader) {
+        Connection physical = pooled.connection;
+        InvocationHandler h = new InvocationHandler() {
+            private boolean returned;
+            @Override public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+                switch (m.getName()) {
+                    case "close":
+                        if (!returned) {
+                            returned = true;
+                            release(pooled, reader);
+                        }
+                        return null;
+                    case "isClosed": return returned || physical.isClosed();
+                    case "equals": return proxy == args[0];
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "toString": return (reader ? "reader" : "writer") + " lease of " + physical;
+                    default:
+                        if (returned) throw new SQLException("Connection lease already returned to the pool");
+                        if (m.getName().equals("prepareStatement") && args.length == 1) return pooled.statements.prepare((String) args[0]);
+                        Object r;
+                        try { r = m.invoke(physical, args); }
+                        catch (InvocationTargetException e) { throw e.getCause(); }
+                        return switch (m.getName()) {
+                            case "createStatement" -> StatementCache.track((Statement) r, Statement.class);
+                            case "prepareStatement" -> StatementCache.track((PreparedStatement) r, PreparedStatement.class);
+                            default -> r;
+                        };
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, h);
+    }
+
+    private static void quietClose(Pooled p) {
+        p.statements.closeAll();
+        try { p.connection.close(); } catch (SQLException e) { AppLogger.error("DB close error: " + e.getMessage()); }
+    }
+
+    /** A physical connection and the statements cached on it. */
+    private static final class Pooled {
+        final Connection connection;
+        final StatementCache statements;
+        Pooled(Connection connection, StatementCache statements) { this.connection = connection; this.statements = statements; }
+    }
+
+    /** Point-in-time pool metrics; wait times are in milliseconds. */
+    public static class Stats {
+        private final int activeReaders, idleReaders, activeWriters;
+        private final long leaseCount, timeouts, statementHits, statementMisses;
+        private final double avgWaitMillis, maxWaitMillis;
+
+        Stats(int activeReaders, int idleReaders, int activeWriters, long leaseCount,
+              double avgWaitMillis, double maxWaitMillis, long timeouts, long statementHits, long statementMisses) {
+            this.activeReaders = activeReaders; this.idleReaders = idleReaders; this.activeWriters = activeWriters;
+            this.leaseCount = leaseCount; this.avgWaitMillis = avgWaitMillis; this.maxWaitMillis = maxWaitMillis;
+            this.timeouts = timeouts; this.statementHits = statementHits; this.statementMisses = statementMisses;
+        }
+
+        public int getActiveReaders()     { return activeReaders; }
+        public int getIdleReaders()       { return idleReaders; }
+        public int getActiveWriters()     { return activeWriters; }
+        public long getLeaseCount()       { return leaseCount; }
+        public double getAvgWaitMillis()  { return avgWaitMillis; }
+        public double getMaxWaitMillis()  { return maxWaitMillis; }
+        public long getTimeouts()         { return timeouts; }
+        public long getStatementHits()    { return statementHits; }
+        public long getStatementMisses()  { return statementMisses; }
+        public double getStatementHitRate() {
+            long n = statementHits + statementMisses;
+            return n == 0 ? 0 : (double) statementHits / n;
+        }
+
+        @Override public String toString() {
+            return String.format("readers active=%d idle=%d, writer active=%d, leases=%d, wait avg=%.2fms max=%.2fms, timeouts=%d, statement cache hits=%d misses=%d",
+                    activeReaders, idleReaders, activeWriters, leaseCount, avgWaitMillis, maxWaitMillis, timeouts, statementHits, statementMisses);
+        }
+    }
+}
@@ -2,60 +2,79 @@ package com.sms2.util;
 
 import com.sms2.domain.Student;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
 
 public class CsvHelper {
-    private static final String DATA = "data";
     private CsvHelper() {}
 
+    /** Where exports and error reports named {@code filename} are written: the database's directory. */
+    public static Path dataPath(String filename) { return DatabaseManager.dataFile(filename); }
+
     public static void exportStudents(String filename, List<Student> students) throws IOException {
-        Path out = Paths.get(DATA, filename);
-        Files.createDirectories(out.getParent());
-        try (PrintWriter w = new PrintWriter(new FileWriter(out.toFile()))) {
-            w.println("StudentID,FullName,Programme,Level,GPA,Email,PhoneNumber,DateAdded,Status");
-            for (Student s : students) {
-                w.printf("%s,%s,%s,%d,%.2f,%s,%s,%s,%s%n",
-                        esc(s.getStudentId()), esc(s.getFullName()), esc(s.getProgramme()),
-                        s.getLevel(), s.getGpa(), esc(s.getEmail()),
-                        esc(s.getPhoneNumber()), s.getDateAdded(), s.getStatus().name());
-            }
+        try (StudentCsvWriter w = openStudentWriter(filename)) {
+            for (Student s : students) w.write(s);
+            AppLogger.info("Exported " + w.getCount() + " records to " + dataPath(filename));
         }
-        AppLogger.info("Exported " + students.size() + " records to " + out);
+    }
+
+    /** Opens a buffered writer for {@link #dataPath(String) dataPath(filename)} with the header row already written. */
+    public static StudentCsvWriter openStudentWriter(String filename) throws IOException {
+        Path out = dataPath(filename);
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        return new StudentCsvWriter(out);
     }
 
     public static void exportErrors(String filename, List<String> errors) throws IOException {
-        Path out = Paths.get(DATA, filename);
-        Files.createDirectories(out.getParent());
+        Path out = dataPath(filename);
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
         try (PrintWriter w = new PrintWriter(new FileWriter(out.toFile()))) {
             w.println("Row,Error");
             for (String e : errors) w.println(esc(e));
         }
     }
 
+    /**
+     * Receives one parsed data row. {@code row} numbers the non-blank records from 2, counting the
+     * header as row 1, as the old line-by-line reader did; a quoted field spanning several lines is
+     * still one row, so it can run behind the file's line numbers.
+     */
+    @FunctionalInterface
+    public interface RowVisitor { void visit(int row, String[] fields); }
+
     public static List<String[]> readCsv(File file) throws IOException {
         List<String[]> rows = new ArrayList<>();
-        try (BufferedReader r = new BufferedReader(new FileReader(file))) {
-            String line; boolean first = true;
-            while ((line = r.readLine()) != null) {
-                if (first) { first = false; continue; }
-                if (!line.isBlank()) rows.add(parseLine(line));
+        forEachRow(file, (row, fields) -> rows.add(fields));
+        return rows;
+    }
+
+    /**
+     * Streams the data rows of {@code file} to {@code visitor} one at a time, skipping the header
+     * and blank lines, so memory use does not depend on file size. Returns the number of rows visited.
+     */
+    public static int forEachRow(File file, RowVisitor visitor) throws IOException {
+        return forEachRow(file, Integer.MAX_VALUE, visitor);
+    }
+
+    /** As {@link #forEachRow(File, RowVisitor)}, but only the first {@code maxFields} fields of each row are decoded. */
+    public static int forEachRow(File file, int maxFields, RowVisitor visitor) throws IOException {
+        int count = 0;
+        try (CsvTokenizer t = CsvTokenizer.open(file.toPath())) {
+            if (!t.next()) return 0;
+            while (t.next()) {
+                if (!t.isBlankRecord()) visitor.visit(++count + 1, t.toArray(maxFields));
             }
         }
-        return rows;
+        return count;
     }
 
+    /** Parses a single CSV record; see {@link CsvTokenizer} for quoting rules. */
     public static String[] parseLine(String line) {
-        List<String> fields = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        boolean inQ = false;
-        for (char c : line.toCharArray()) {
-            if (c == '"') { inQ = !inQ; }
-            else if (c == ',' && !inQ) { fields.add(sb.toString().trim()); sb.setLength(0); }
-            else sb.append(c);
-        }
-        fields.add(sb.toString().trim());
-        return fields.toArray(new String[0]);
+        CsvTokenizer t = new CsvTokenizer(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+        try { return t.next() ? t.toArray() : new String[]{""}; }
+        catch (IOException e) { throw new UncheckedIOException(e); }
     }
 
     private static String esc(String v) {
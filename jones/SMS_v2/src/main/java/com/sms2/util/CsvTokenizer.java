@@ -0,0 +1,180 @@
+package com.sms2.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * RFC 4180 CSV tokenizer that scans UTF-8 bytes straight out of a memory-mapped file.
+ * {@link #next()} only records field boundaries; a String is created when {@link #field(int)} is
+ * called, so unused columns cost nothing. Quoted fields may contain commas, line breaks and
+ * {@code ""} escapes. Fields are trimmed, quoted or not, as {@link CsvHelper#parseLine} always did.
+ * Files are mapped in windows, so records must be shorter than the window size (64 MB).
+ */
+public final class CsvTokenizer implements Closeable {
+    static final int DEFAULT_WINDOW = 64 << 20;
+    private static final byte QUOTED = 1, ESCAPED = 2;
+
+    private final FileChannel channel;   // null when tokenizing an in-memory buffer
+    private final long length;
+    private final int window;
+    private ByteBuffer buf;
+    private long base;                   // file offset of buf index 0
+    private int pos;
+
+    private int count;
+    private int[] starts = new int[16], ends = new int[16];
+    private byte[] flags = new byte[16];
+    private byte[] scratch = new byte[128];
+
+    public static CsvTokenizer open(Path file) throws IOException {
+        return new CsvTokenizer(FileChannel.open(file, StandardOpenOption.READ), DEFAULT_WINDOW);
+    }
+
+    CsvTokenizer(FileChannel channel, int window) throws IOException {
+        this.channel = channel;
+        this.length = channel.size();
+        this.window = window;
+        map(0);
+        skipBom();
+    }
+
+    /** Tokenizes the remaining bytes of {@code in} without copying them. */
+    public CsvTokenizer(ByteBuffer in) {
+        this.channel = null;
+        this.buf = in.slice();
+        this.length = buf.limit();
+        this.window = buf.limit();
+        skipBom();
+    }
+
+    /** Advances to the next record. Field accessors refer to that record until the next call. */
+    public boolean next() throws IOException {
+        while (true) {
+            if (base+pos >= length) { count = 0; return false; }
+            int end = scan(pos);
+            if (end >= 0) { pos = end; return true; }
+            if (pos == 0) throw new IOException("CSV record at offset "+base+" exceeds "+window+" bytes");
+            map(base+pos);
+        }
+    }
+
+    public int fieldCount() { return count; }
+
+    public String field(int i) {
+        Objects.checkIndex(i, count);
+        int s = starts[i], e = ends[i];
+        while (s < e && (buf.get(s) & 0xFF) <= ' ') s++;
+        while (e > s && (buf.get(e-1) & 0xFF) <= ' ') e--;
+        int n = e-s;
+        if (scratch.length < n) scratch = new byte[Math.max(n, scratch.length*2)];
+        if ((flags[i] & ESCAPED) == 0) buf.get(s, scratch, 0, n);
+        else {
+            n = 0;
+            for (int p = s; p < e; p++) { byte b = buf.get(p); scratch[n++] = b; if (b == '"') p++; }
+        }
+        return new String(scratch, 0, n, StandardCharsets.UTF_8);
+    }
+
+    public String[] toArray() { return toArray(count); }
+
+    /** The first {@code max} fields of the record, or all of them if it has fewer. */
+    public String[] toArray(int max) {
+        String[] out = new String[Math.min(max, count)];
+        for (int i = 0; i < out.length; i++) out[i] = field(i);
+        return out;
+    }
+
+    /** True for a record that is a single unquoted field of whitespace, i.e. a blank line. */
+    public boolean isBlankRecord() {
+        if (count != 1 || flags[0] != 0) return false;
+        for (int p = starts[0]; p < ends[0]; p++) if ((buf.get(p) & 0xFF) > ' ') return false;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+
+    private void map(long offset) throws IOException {
+        long size = Math.min(window, length-offset);
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        base = offset;
+        pos = 0;
+    }
+
+    private void skipBom() {
+        if (length >= 3 && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF) pos = 3;
+    }
+
+    /**
+     * Records the field boundaries of the record starting at {@code p} and returns the index just
+     * past its line break, or -1 if the record runs past the end of the current window.
+     */
+    private int scan(int p) {
+        int lim = buf.limit();
+        boolean eof = base+lim >= length;
+        count = 0;
+        while (true) {
+            int q = p;
+            while (q < lim && (buf.get(q) == ' ' || buf.get(q) == '\t')) q++;
+            if (q < lim && buf.get(q) == '"') {
+                byte flag = QUOTED;
+                int start = ++q;
+                while (true) {
+                    if (q >= lim) { if (!eof) return -1; break; }
+                    if (buf.get(q) == '"') {
+                        if (q+1 >= lim && !eof) return -1;
+                        if (q+1 < lim && buf.get(q+1) == '"') { flag |= ESCAPED; q += 2; continue; }
+                        break;
+                    }
+                    q++;
+                }
+                int end = Math.min(q, lim);
+                p = skipToDelimiter(q+1, lim);
+                if (p >= lim && !eof) return -1;
+                addField(start, end, flag);
+            } else {
+                if (q >= lim && !eof) return -1;
+                int start = p;
+                p = skipToDelimiter(q, lim);
+                if (p >= lim && !eof) return -1;
+                addField(start, p, (byte) 0);
+            }
+            if (p >= lim) return lim;
+            byte b = buf.get(p);
+            if (b == ',') { p++; continue; }
+            if (b == '\r') {
+                if (p+1 >= lim && !eof) return -1;
+                if (p+1 < lim && buf.get(p+1) == '\n') p++;
+            }
+            return p+1;
+        }
+    }
+
+    private int skipToDelimiter(int p, int lim) {
+        while (p < lim) {
+            byte b = buf.get(p);
+            if (b == ',' || b == '\n' || b == '\r') return p;
+            p++;
+        }
+        return p;
+    }
+
+    private void addField(int start, int end, byte flag) {
+        if (count == starts.length) {
+            int n = count*2;
+            starts = Arrays.copyOf(starts, n);
+            ends = Arrays.copyOf(ends, n);
+            flags = Arrays.copyOf(flags, n);
+        }
+        starts[count] = start; ends[count] = end; flags[count++] = flag;
+    }
+}
@@ -1,48 +1,73 @@
 package com.sms2.util;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
 
 public class DatabaseManager {
-    private static final String DB_FILE = "data/students.db";
-    private static Connection connection;
+    private static final String DEFAULT_DB_FILE = "data/students.db";
+    private static final int READERS = Integer.getInteger("sms.db.readers", 4);
+    private static final long LEASE_TIMEOUT_MS = Long.getLong("sms.db.leaseTimeoutMs", 10_000);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("sms.db.statementCacheSize", 64);
+    private static final int SQLITE_INTERRUPT = 9;
+    private static ConnectionPool pool;
 
     private DatabaseManager() {}
 
-    public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            new File("data").mkdirs();
-            connection = DriverManager.getConnection("jdbc:sqlite:" + DB_FILE);
-            initSchema(connection);
+    /** Opens the pool and applies the schema without holding on to a connection. */
+    public static void init() throws SQLException { pool(); }
+
+    /** Leases the writer connection. Close it to hand it back to the pool. */
+    public static Connection getConnection() throws SQLException { return getWriteConnection(); }
+
+    public static Connection getWriteConnection() throws SQLException { return pool().leaseWriter(); }
+
+    /** Leases one of the read-only connections; several can query at once under WAL. */
+    public static Connection getReadConnection() throws SQLException { return pool().leaseReader(); }
+
+    /** Changes whenever the database may have been written; see {@link ConnectionPool#writeVersion()}. */
+    public static synchronized long getDataVersion() { return pool == null ? 0 : pool.writeVersion(); }
+
+    /** Database file, {@code sms.db.path} or {@code data/students.db}; read each time the pool opens. */
+    public static String getDbPath() { return System.getProperty("sms.db.path", DEFAULT_DB_FILE); }
+
+    /** {@code name} in the database's directory, so logs and snapshots follow {@code sms.db.path}. */
+    public static Path dataFile(String name) { return Paths.get(getDbPath()).resolveSibling(name); }
+
+    /** Cancels the pooled statement {@code t} is executing or reading from, so a superseded query stops early. */
+    public static boolean cancelStatement(Thread t) { return StatementCache.cancel(t); }
+
+    /** Whether a failed call was stopped by {@link #cancelStatement} or by interrupting its thread, rather than failing. */
+    public static boolean isCancelled(SQLException e) {
+        return e.getErrorCode() == SQLITE_INTERRUPT || Thread.currentThread().isInterrupted();
+    }
+
+    public static ConnectionPool.Stats getPoolStats() throws SQLException { return pool().stats(); }
+
+    private static synchronized ConnectionPool pool() throws SQLException {
+        if (pool == null) {
+            String path = getDbPath();
+            File dir = new File(path).getAbsoluteFile().getParentFile();
+            if (dir != null) dir.mkdirs();
+            pool = new ConnectionPool("jdbc:sqlite:" + path, READERS, LEASE_TIMEOUT_MS,
+                    STATEMENT_CACHE_SIZE, DatabaseManager::initSchema);
         }
-        return connection;
+        return pool;
     }
 
     private static void initSchema(Connection conn) throws SQLException {
-        String sql = """
-            CREATE TABLE IF NOT EXISTS students (
-                student_id   TEXT PRIMARY KEY,
-                full_name    TEXT NOT NULL,
-                programme    TEXT NOT NULL,
-                level        INTEGER NOT NULL CHECK(level IN (100,200,300,400,500,600,700)),
-                gpa          REAL NOT NULL CHECK(gpa >= 0.0 AND gpa <= 4.0),
-                email        TEXT NOT NULL,
-                phone_number TEXT NOT NULL,
-                date_added   TEXT NOT NULL,
-                status       TEXT NOT NULL DEFAULT 'ACTIVE'
-            );
-            """;
         try (Statement s = conn.createStatement()) {
             s.execute("PRAGMA journal_mode=WAL;");
-            s.execute(sql);
         }
+        SchemaMigrations.migrate(conn);
     }
 
-    public static void close() {
-        try {
-            if (connection != null && !connection.isClosed()) connection.close();
-        } catch (SQLException e) {
-            AppLogger.error("DB close error: " + e.getMessage());
+    public static synchronized void close() {
+        if (pool != null) {
+            AppLogger.info("DB pool closing: " + pool.stats());
+            pool.close();
+            pool = null;
         }
     }
 }
@@ -0,0 +1,27 @@
+package com.sms2.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe. {@link #publish} calls every subscriber synchronously on the
+ * publishing thread, in subscription order; subscribers that need another thread hand off
+ * themselves (see {@link EventCoalescer}). A failing subscriber is logged and skipped.
+ */
+public final class EventBus<E> {
+    private final List<Consumer<? super E>> subscribers = new CopyOnWriteArrayList<>();
+
+    /** Returns an action that removes the subscription again. */
+    public Runnable subscribe(Consumer<? super E> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    public void publish(E event) {
+        for (Consumer<? super E> s : subscribers) {
+            try { s.accept(event); }
+            catch (RuntimeException e) { AppLogger.error("Subscriber failed on " + event.getClass().getSimpleName() + ": " + e); }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.sms2.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Batches events from any thread and hands them to {@code handler} on {@code target} (for the UI,
+ * {@code Platform::runLater}). At most one drain is queued at a time and drains are at least
+ * {@code minIntervalMs} apart, so a burst such as a large import arrives as a few lists instead of
+ * one task per event. Delays run on the {@link TaskExecutor#shared() shared} scheduler.
+ */
+public final class EventCoalescer<E> implements Consumer<E> {
+    private final Executor target;
+    private final long intervalNanos;
+    private final Consumer<List<E>> handler;
+    private final Queue<E> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile long lastDrain;
+
+    public EventCoalescer(Executor target, long minIntervalMs, Consumer<List<E>> handler) {
+        this.target = target;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMs);
+        this.handler = handler;
+        this.lastDrain = System.nanoTime() - intervalNanos;
+    }
+
+    @Override
+    public void accept(E event) {
+        pending.add(event);
+        if (!scheduled.compareAndSet(false, true)) return;
+        long wait = lastDrain + intervalNanos - System.nanoTime();
+        if (wait <= 0) target.execute(this::drain);
+        else TaskExecutor.shared().schedule(TimeUnit.NANOSECONDS.toMillis(wait) + 1, () -> target.execute(this::drain));
+    }
+
+    private void drain() {
+        lastDrain = System.nanoTime();
+        scheduled.set(false);               // events from here on schedule the next drain
+        List<E> batch = new ArrayList<>();
+        for (E e; (e = pending.poll()) != null; ) batch.add(e);
+        if (!batch.isEmpty()) handler.accept(batch);
+    }
+}
@@ -0,0 +1,73 @@
+package com.sms2.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear latency histogram in the style of HdrHistogram. Values below 32 get a bucket
+ * each; above that every power of two is split into 32 sub-buckets, so any recorded value is
+ * reported to within about 3% of itself across the full {@code long} range, in a fixed 15 KB.
+ * Recording is one bucket increment plus two adders and does not allocate.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) max.accumulateAndGet(value, Math::max);
+    }
+
+    static int bucket(long v) {
+        if (v < SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB + (int) ((v >>> shift) - SUB);
+    }
+
+    /** Largest value that lands in bucket {@code b}. */
+    static long highestIn(int b) {
+        if (b < SUB) return b;
+        int shift = b / SUB - 1;
+        return ((long) (b % SUB + SUB + 1) << shift) - 1;
+    }
+
+    public Snapshot snapshot() {
+        long[] c = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += c[i] = counts.get(i);
+        return new Snapshot(c, n, sum.sum(), max.get());
+    }
+
+    /** Point-in-time copy; concurrent recording may leave {@code count} and the buckets a few apart. */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count, sum, max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts; this.count = count; this.sum = sum; this.max = max;
+        }
+
+        public long getCount() { return count; }
+        public long getMax()   { return max; }
+        public double getMean() { return count == 0 ? 0 : (double) sum / count; }
+
+        /** Upper bound of the bucket holding the {@code q} quantile (0..1), capped at the true max. */
+        public long percentile(double q) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * count)), seen = 0;
+            for (int i = 0; i < counts.length; i++)
+                if ((seen += counts[i]) >= rank) return Math.min(highestIn(i), max);
+            return max;
+        }
+    }
+}
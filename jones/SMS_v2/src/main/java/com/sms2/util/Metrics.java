@@ -0,0 +1,176 @@
+package com.sms2.util;
+
+import javax.management.*;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.*;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide named counters and latency timers. Hot paths hold on to a {@link Timer} or
+ * {@link Counter} and record into {@link LongAdder}s and a {@link LatencyHistogram}, so
+ * measuring costs a couple of uncontended increments.
+ * <p>
+ * Every timer is published as an MXBean {@code com.sms2:type=Timer,name=<name>} with count, mean,
+ * p50, p99 and max in microseconds; {@code com.sms2:type=Metrics} adds the counters and a text
+ * report. The same report is written to {@code sms.metrics.file} (default {@code metrics.txt} next
+ * to the database) every {@code sms.metrics.intervalSec} seconds from the shared {@link TaskExecutor}
+ * timer and once more at exit; 0 disables both.
+ */
+public final class Metrics {
+    private static final Path SNAPSHOT_FILE = Paths.get(System.getProperty("sms.metrics.file",
+            DatabaseManager.dataFile("metrics.txt").toString()));
+    private static final long INTERVAL_SEC = Long.getLong("sms.metrics.intervalSec", 60);
+
+    private static final ConcurrentMap<String, Timer> TIMERS = new ConcurrentSkipListMap<>();
+    private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+
+    static {
+        register("com.sms2:type=Metrics", new Registry());
+        if (INTERVAL_SEC > 0) {
+            TaskExecutor tasks = TaskExecutor.shared();
+            tasks.every(TimeUnit.SECONDS.toMillis(INTERVAL_SEC), () -> tasks.io().execute(Metrics::writeSnapshot));
+            Runtime.getRuntime().addShutdownHook(new Thread(Metrics::writeSnapshot, "metrics-shutdown"));
+        }
+    }
+
+    private Metrics() {}
+
+    public static Timer timer(String name) {
+        Timer t = TIMERS.get(name);
+        if (t != null) return t;
+        Timer created = new Timer(name);
+        t = TIMERS.putIfAbsent(name, created);
+        if (t != null) return t;
+        register("com.sms2:type=Timer,name=" + ObjectName.quote(name), created);
+        return created;
+    }
+
+    public static Counter counter(String name) { return COUNTERS.computeIfAbsent(name, Counter::new); }
+
+    /**
+     * Wraps {@code target} so every call through {@code iface} is timed as {@code prefix.method};
+     * calls that throw also count towards {@code prefix.method.errors}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T instrument(Class<T> iface, T target, String prefix) {
+        Map<Method, Timer> timers = new ConcurrentHashMap<>();
+        return (T) Proxy.newProxyInstance(iface.getClassLoader(), new Class<?>[]{iface}, (proxy, m, args) -> {
+            if (m.getDeclaringClass() == Object.class) return m.invoke(target, args);
+            Timer t = timers.computeIfAbsent(m, k -> timer(prefix + "." + k.getName()));
+            long start = System.nanoTime();
+            try { return m.invoke(target, args); }
+            catch (InvocationTargetException e) { counter(t.name + ".errors").increment(); throw e.getCause(); }
+            finally { t.recordSince(start); }
+        });
+    }
+
+    /** All timers and counters as aligned text, slowest p99 first. */
+    public static String report() {
+        StringBuilder sb = new StringBuilder("# metrics at ").append(LocalDateTime.now()).append(System.lineSeparator());
+        sb.append(String.format("%-36s %10s %10s %10s %10s %10s%n", "timer (µs)", "count", "mean", "p50", "p99", "max"));
+        record Row(String name, LatencyHistogram.Snapshot s, long p99) {}
+        List<Row> rows = new ArrayList<>();
+        for (Timer t : TIMERS.values()) {
+            LatencyHistogram.Snapshot s = t.snapshot();
+            if (s.getCount() > 0) rows.add(new Row(t.name, s, s.percentile(0.99)));
+        }
+        rows.sort(Comparator.comparingLong(Row::p99).reversed());
+        for (Row r : rows)
+            sb.append(String.format("%-36s %10d %10.1f %10.1f %10.1f %10.1f%n", r.name, r.s.getCount(), r.s.getMean() / 1e3,
+                    r.s.percentile(0.50) / 1e3, r.p99 / 1e3, r.s.getMax() / 1e3));
+        sb.append(String.format("%-36s %10s%n", "counter", "value"));
+        COUNTERS.forEach((name, c) -> sb.append(String.format("%-36s %10d%n", name, c.get())));
+        return sb.toString();
+    }
+
+    /** Replaces the snapshot file atomically, so readers never see half a report. */
+    public static void writeSnapshot() {
+        try {
+            if (SNAPSHOT_FILE.getParent() != null) Files.createDirectories(SNAPSHOT_FILE.getParent());
+            Path tmp = SNAPSHOT_FILE.resolveSibling(SNAPSHOT_FILE.getFileName() + ".tmp");
+            Files.writeString(tmp, report());
+            Files.move(tmp, SNAPSHOT_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) { AppLogger.warn("Cannot write metrics snapshot: " + e.getMessage()); }
+    }
+
+    private static void register(String name, Object bean) {
+        try { ManagementFactory.getPlatformMBeanServer().registerMBean(bean, new ObjectName(name)); }
+        catch (JMException e) { AppLogger.warn("Cannot register MBean " + name + ": " + e.getMessage()); }
+    }
+
+    // ── Metric types ──
+
+    public static final class Timer implements TimerMXBean {
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Timer(String name) { this.name = name; }
+
+        public void record(long nanos) { histogram.record(nanos); }
+
+        /** Records the time since {@code startNanos}, a value from {@link System#nanoTime()}. */
+        public void recordSince(long startNanos) { histogram.record(System.nanoTime() - startNanos); }
+
+        public <T> T time(Supplier<T> work) {
+            long start = System.nanoTime();
+            try { return work.get(); } finally { recordSince(start); }
+        }
+
+        public void time(Runnable work) {
+            long start = System.nanoTime();
+            try { work.run(); } finally { recordSince(start); }
+        }
+
+        public LatencyHistogram.Snapshot snapshot() { return histogram.snapshot(); }
+
+        @Override public String getName()       { return name; }
+        @Override public long getCount()        { return snapshot().getCount(); }
+        @Override public double getMeanMicros() { return snapshot().getMean() / 1e3; }
+        @Override public double getP50Micros()  { return snapshot().percentile(0.50) / 1e3; }
+        @Override public double getP99Micros()  { return snapshot().percentile(0.99) / 1e3; }
+        @Override public double getMaxMicros()  { return snapshot().getMax() / 1e3; }
+    }
+
+    public static final class Counter {
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name) { this.name = name; }
+
+        public String getName()      { return name; }
+        public void increment()      { value.increment(); }
+        public void add(long n)      { value.add(n); }
+        public long get()            { return value.sum(); }
+    }
+
+    public interface TimerMXBean {
+        String getName();
+        long getCount();
+        double getMeanMicros();
+        double getP50Micros();
+        double getP99Micros();
+        double getMaxMicros();
+    }
+
+    public interface MetricsMXBean {
+        Map<String, Long> getCounters();
+        String getReport();
+        void writeSnapshot();
+    }
+
+    private static final class Registry implements MetricsMXBean {
+        @Override public Map<String, Long> getCounters() {
+            Map<String, Long> out = new TreeMap<>();
+            COUNTERS.forEach((k, c) -> out.put(k, c.get()));
+            return out;
+        }
+        @Override public String getReport()     { return report(); }
+        @Override public void writeSnapshot()   { Metrics.writeSnapshot(); }
+    }
+}
@@ -0,0 +1,243 @@
+package com.sms2.util;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ordered, versioned schema changes. The applied version is recorded in {@code schema_version};
+ * {@link #migrate} runs every later migration in its own transaction at startup. Migrations are
+ * written to be idempotent, so databases created before versioning existed (which already have
+ * the students table and search index) upgrade cleanly from version 0.
+ * <p>
+ * Never edit a released migration; append a new one with the next version number.
+ */
+public final class SchemaMigrations {
+
+    private interface Step { void apply(Statement s) throws SQLException; }
+
+    private record Migration(int version, String description, Step step) {}
+
+    private static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "students table", SchemaMigrations::createStudents),
+        new Migration(2, "trigram full-text search index", SchemaMigrations::createSearchIndex),
+        new Migration(3, "filter and sort indexes", SchemaMigrations::createFilterIndexes),
+        new Migration(4, "student_stats aggregates", SchemaMigrations::createStudentStats),
+        new Migration(5, "stable integer key for the search index", SchemaMigrations::keySearchIndexOnId),
+        new Migration(6, "GPA sort index", SchemaMigrations::createGpaIndex),
+        new Migration(7, "case-insensitive name sort index", SchemaMigrations::createNameNocaseIndex)
+    );
+
+    private SchemaMigrations() {}
+
+    public static int latestVersion() { return MIGRATIONS.get(MIGRATIONS.size() - 1).version(); }
+
+    public static int currentVersion(Connection conn) throws SQLException {
+        try (Statement s = conn.createStatement()) {
+            ensureVersionTable(s);
+            try (ResultSet rs = s.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /** Applies pending migrations in order and returns how many ran. A failed migration is rolled back and rethrown. */
+    public static int migrate(Connection conn) throws SQLException {
+        int from = currentVersion(conn), applied = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            for (Migration m : MIGRATIONS) {
+                if (m.version() <= from) continue;
+                conn.setAutoCommit(false);
+                try (Statement s = conn.createStatement();
+                     PreparedStatement p = conn.prepareStatement("INSERT INTO schema_version(version, description, applied_at) VALUES (?,?,?)")) {
+                    m.step().apply(s);
+                    p.setInt(1, m.version()); p.setString(2, m.description()); p.setString(3, LocalDateTime.now().toString());
+                    p.executeUpdate();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("Migration " + m.version() + " (" + m.description() + ") failed: " + e.getMessage(), e);
+                }
+                applied++;
+                AppLogger.info("Applied schema migration " + m.version() + ": " + m.description());
+            }
+        } finally { conn.setAutoCommit(autoCommit); }
+        return applied;
+    }
+
+    private static void ensureVersionTable(Statement s) throws SQLException {
+        s.execute("""
+            CREATE TABLE IF NOT EXISTS schema_version (
+                version     INTEGER PRIMARY KEY,
+                description TEXT NOT NULL,
+                applied_at  TEXT NOT NULL
+            )
+            """);
+    }
+
+    // ── Migrations ──
+
+    private static void createStudents(Statement s) throws SQLException {
+        s.execute("""
+            CREATE TABLE IF NOT EXISTS students (
+                student_id   TEXT PRIMARY KEY,
+                full_name    TEXT NOT NULL,
+                programme    TEXT NOT NULL,
+                level        INTEGER NOT NULL CHECK(level IN (100,200,300,400,500,600,700)),
+                gpa          REAL NOT NULL CHECK(gpa >= 0.0 AND gpa <= 4.0),
+                email        TEXT NOT NULL,
+                phone_number TEXT NOT NULL,
+                date_added   TEXT NOT NULL,
+                status       TEXT NOT NULL DEFAULT 'ACTIVE'
+            )
+            """);
+    }
+
+    /**
+     * Trigram FTS5 index over student_id and full_name, stored as an external-content table on
+     * students' rowid and kept in sync by triggers. Built from existing rows the first time it is
+     * created. The rowid link is why the database must not be VACUUMed without a 'rebuild';
+     * superseded by {@link #keySearchIndexOnId}.
+     */
+    private static void createSearchIndex(Statement s) throws SQLException {
+        boolean exists;
+        try (ResultSet rs = s.executeQuery("SELECT 1 FROM sqlite_master WHERE type='table' AND name='students_fts'")) {
+            exists = rs.next();
+        }
+        s.execute("""
+            CREATE VIRTUAL TABLE IF NOT EXISTS students_fts USING fts5(
+                student_id, full_name, content='students', content_rowid='rowid', tokenize='trigram')
+            """);
+        s.execute("""
+            CREATE TRIGGER IF NOT EXISTS students_fts_ai AFTER INSERT ON students BEGIN
+                INSERT INTO students_fts(rowid, student_id, full_name) VALUES (new.rowid, new.student_id, new.full_name);
+            END
+            """);
+        s.execute("""
+            CREATE TRIGGER IF NOT EXISTS students_fts_ad AFTER DELETE ON students BEGIN
+                INSERT INTO students_fts(students_fts, rowid, student_id, full_name) VALUES ('delete', old.rowid, old.student_id, old.full_name);
+            END
+            """);
+        s.execute("""
+            CREATE TRIGGER IF NOT EXISTS students_fts_au AFTER UPDATE OF student_id, full_name ON students BEGIN
+                INSERT INTO students_fts(students_fts, rowid, student_id, full_name) VALUES ('delete', old.rowid, old.student_id, old.full_name);
+                INSERT INTO students_fts(rowid, student_id, full_name) VALUES (new.rowid, new.student_id, new.full_name);
+            END
+            """);
+        if (!exists) s.execute("INSERT INTO students_fts(students_fts) VALUES ('rebuild')");
+    }
+
+    /**
+     * {@code (programme, level, status, full_name)} serves filter() with no sort when all three are
+     * given and covers {@code SELECT DISTINCT programme}; {@code (full_name, student_id)} serves
+     * every name-ordered listing and the keyset page seek without a temp B-tree.
+     */
+    private static void createFilterIndexes(Statement s) throws SQLException {
+        s.execute("CREATE INDEX IF NOT EXISTS idx_students_filter ON students(programme, level, status, full_name)");
+        s.execute("CREATE INDEX IF NOT EXISTS idx_students_name ON students(full_name, student_id)");
+    }
+
+    /**
+     * Per (programme, level) totals kept current by triggers on students, so dashboard KPIs and
+     * the row count are a read of a handful of rows instead of a table scan. Backfilled here.
+     */
+    private static void createStudentStats(Statement s) throws SQLException {
+        String add = """
+            INSERT INTO student_stats VALUES (new.programme, new.level, 1, new.status = 'ACTIVE', new.status = 'INACTIVE', new.gpa)
+            ON CONFLICT (programme, level) DO UPDATE SET total = total + 1, active = active + excluded.active,
+                inactive = inactive + excluded.inactive, gpa_sum = gpa_sum + excluded.gpa_sum;
+            """;
+        String remove = """
+            UPDATE student_stats SET total = total - 1, active = active - (old.status = 'ACTIVE'),
+                inactive = inactive - (old.status = 'INACTIVE'), gpa_sum = gpa_sum - old.gpa
+            WHERE programme = old.programme AND level = old.level;
+            DELETE FROM student_stats WHERE programme = old.programme AND level = old.level AND total = 0;
+            """;
+        s.execute("""
+            CREATE TABLE IF NOT EXISTS student_stats (
+                programme TEXT NOT NULL,
+                level     INTEGER NOT NULL,
+                total     INTEGER NOT NULL,
+                active    INTEGER NOT NULL,
+                inactive  INTEGER NOT NULL,
+                gpa_sum   REAL NOT NULL,
+                PRIMARY KEY (programme, level)
+            ) WITHOUT ROWID
+            """);
+        s.execute("CREATE TRIGGER IF NOT EXISTS student_stats_ai AFTER INSERT ON students BEGIN " + add + " END");
+        s.execute("CREATE TRIGGER IF NOT EXISTS student_stats_ad AFTER DELETE ON students BEGIN " + remove + " END");
+        s.execute("CREATE TRIGGER IF NOT EXISTS student_stats_au AFTER UPDATE OF programme, level, gpa, status ON students BEGIN "
+                + remove + add + " END");
+        s.execute("DELETE FROM student_stats");
+        s.execute("""
+            INSERT INTO student_stats
+            SELECT programme, level, COUNT(*), SUM(status = 'ACTIVE'), SUM(status = 'INACTIVE'), SUM(gpa)
+            FROM students GROUP BY programme, level
+            """);
+    }
+
+    /**
+     * Rebuilds students with an explicit {@code id INTEGER PRIMARY KEY}, seeded from the old rowids,
+     * and re-keys the search index on it. The index used the implicit rowid, which VACUUM may
+     * renumber on a table whose primary key is TEXT, leaving matches pointing at other students.
+     * student_id stays the key callers use; the indexes and triggers dropped with the old table
+     * are recreated and the index and aggregates rebuilt.
+     */
+    private static void keySearchIndexOnId(Statement s) throws SQLException {
+        s.execute("DROP TABLE IF EXISTS students_fts");
+        s.execute("""
+            CREATE TABLE students_new (
+                id           INTEGER PRIMARY KEY,
+                student_id   TEXT NOT NULL UNIQUE,
+                full_name    TEXT NOT NULL,
+                programme    TEXT NOT NULL,
+                level        INTEGER NOT NULL CHECK(level IN (100,200,300,400,500,600,700)),
+                gpa          REAL NOT NULL CHECK(gpa >= 0.0 AND gpa <= 4.0),
+                email        TEXT NOT NULL,
+                phone_number TEXT NOT NULL,
+                date_added   TEXT NOT NULL,
+                status       TEXT NOT NULL DEFAULT 'ACTIVE'
+            )
+            """);
+        s.execute("""
+            INSERT INTO students_new (id, student_id, full_name, programme, level, gpa, email, phone_number, date_added, status)
+            SELECT rowid, student_id, full_name, programme, level, gpa, email, phone_number, date_added, status FROM students
+            """);
+        s.execute("DROP TABLE students");
+        s.execute("ALTER TABLE students_new RENAME TO students");
+        s.execute("""
+            CREATE VIRTUAL TABLE students_fts USING fts5(
+                student_id, full_name, content='students', content_rowid='id', tokenize='trigram')
+            """);
+        s.execute("""
+            CREATE TRIGGER students_fts_ai AFTER INSERT ON students BEGIN
+                INSERT INTO students_fts(rowid, student_id, full_name) VALUES (new.id, new.student_id, new.full_name);
+            END
+            """);
+        s.execute("""
+            CREATE TRIGGER students_fts_ad AFTER DELETE ON students BEGIN
+                INSERT INTO students_fts(students_fts, rowid, student_id, full_name) VALUES ('delete', old.id, old.student_id, old.full_name);
+            END
+            """);
+        s.execute("""
+            CREATE TRIGGER students_fts_au AFTER UPDATE OF student_id, full_name ON students BEGIN
+                INSERT INTO students_fts(students_fts, rowid, student_id, full_name) VALUES ('delete', old.id, old.student_id, old.full_name);
+                INSERT INTO students_fts(rowid, student_id, full_name) VALUES (new.id, new.student_id, new.full_name);
+            END
+            """);
+        s.execute("INSERT INTO students_fts(students_fts) VALUES ('rebuild')");
+        createFilterIndexes(s);
+        createStudentStats(s);
+    }
+
+    /** {@code (gpa, student_id)} serves the GPA-ordered keyset pages in both directions without a sort. */
+    private static void createGpaIndex(Statement s) throws SQLException {
+        s.execute("CREATE INDEX IF NOT EXISTS idx_students_gpa ON students(gpa, student_id)");
+    }
+
+    /** {@code (full_name COLLATE NOCASE, student_id)} serves the name-ordered keyset pages, which sort without case as the app always has. */
+    private static void createNameNocaseIndex(Statement s) throws SQLException {
+        s.execute("CREATE INDEX IF NOT EXISTS idx_students_name_nocase ON students(full_name COLLATE NOCASE, student_id)");
+    }
+}
@@ -0,0 +1,132 @@
+package com.sms2.util;
+
+import java.lang.reflect.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL text. Callers get a
+ * proxy whose {@code close()} resets the statement (closes its open result set, clears parameters
+ * and batch) and hands it back to the cache instead of finalizing it, so SQLite does not re-parse
+ * and re-plan the same SQL on every call. Only used by the thread holding the connection lease.
+ * <p>
+ * A statement counts as running for its thread from {@code execute*} until it is handed back, which
+ * covers stepping through the result set; {@link #cancel(Thread)} interrupts it from another thread.
+ * Statements created outside the cache are tracked the same way through {@link #track}.
+ */
+final class StatementCache {
+    private static final ConcurrentMap<Thread, Statement> RUNNING = new ConcurrentHashMap<>();
+
+    private final Connection physical;
+    private final LongAdder hits, misses;
+    private final LinkedHashMap<String, Entry> lru;
+
+    StatementCache(Connection physical, int capacity, LongAdder hits, LongAdder misses) {
+        this.physical = physical;
+        this.hits = hits;
+        this.misses = misses;
+        this.lru = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= capacity) return false;
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement prepare(String sql) throws SQLException {
+        Entry e = lru.get(sql);
+        if (e != null && !e.inUse && !e.stmt.isClosed()) { hits.increment(); e.inUse = true; return e.proxy; }
+        misses.increment();
+        if (e != null && e.inUse) return physical.prepareStatement(sql);   // same SQL open twice: don't cache the second
+        e = new Entry(physical.prepareStatement(sql));
+        e.inUse = true;                       // before put: a full cache may evict this very entry
+        lru.put(sql, e);
+        return e.proxy;
+    }
+
+    /** Cancels the statement {@code t} is running, if any; returns whether there was one. */
+    static boolean cancel(Thread t) {
+        Statement s = RUNNING.get(t);
+        if (s == null) return false;
+        try { s.cancel(); return true; }
+        catch (SQLException e) { AppLogger.warn("Statement cancel failed: " + e.getMessage()); return false; }
+    }
+
+    /**
+     * Wraps a statement the cache does not hold ({@code createStatement}, or a prepare with options)
+     * so it too counts as running for its thread from {@code execute*} until it is closed.
+     */
+    static <S extends Statement> S track(S stmt, Class<S> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            switch (m.getName()) {
+                case "equals": return p == args[0];
+                case "hashCode": return System.identityHashCode(p);
+                case "close": RUNNING.remove(Thread.currentThread(), stmt); break;
+                default: if (m.getName().startsWith("execute")) RUNNING.put(Thread.currentThread(), stmt);
+            }
+            try { return m.invoke(stmt, args); }
+            catch (InvocationTargetException e) { throw e.getCause(); }
+        }));
+    }
+
+    void closeAll() {
+        for (Entry e : lru.values()) e.evict();
+        lru.clear();
+    }
+
+    private static final class Entry implements InvocationHandler {
+        final PreparedStatement stmt;
+        final PreparedStatement proxy;
+        boolean inUse, evicted;
+        ResultSet open;
+
+        Entry(PreparedStatement stmt) {
+            this.stmt = stmt;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object p, Method m, Object[] args) throws Throwable {
+            switch (m.getName()) {
+                case "close": if (inUse) giveBack(); return null;
+                case "isClosed": return !inUse || stmt.isClosed();
+                case "equals": return p == args[0];
+                case "hashCode": return System.identityHashCode(p);
+                case "toString": return "cached " + stmt;
+                default:
+                    if (!inUse) throw new SQLException("Statement already returned to the cache");
+                    if (m.getName().startsWith("execute")) RUNNING.put(Thread.currentThread(), stmt);
+                    try {
+                        Object r = m.invoke(stmt, args);
+                        if (r instanceof ResultSet rs) open = rs;
+                        return r;
+                    } catch (InvocationTargetException e) { throw e.getCause(); }
+            }
+        }
+
+        private void giveBack() throws SQLException {
+            inUse = false;
+            RUNNING.remove(Thread.currentThread(), stmt);
+            try {
+                if (open != null) { open.close(); open = null; }
+                stmt.clearParameters();
+                stmt.clearBatch();
+            } catch (SQLException e) { evicted = true; throw e; }
+            finally { if (evicted) quietClose(); }
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) quietClose();
+        }
+
+        private void quietClose() {
+            RUNNING.values().remove(stmt);
+            try { stmt.close(); } catch (SQLException e) { AppLogger.warn("Statement close error: " + e.getMessage()); }
+        }
+    }
+}
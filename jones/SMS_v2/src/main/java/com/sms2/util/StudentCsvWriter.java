@@ -0,0 +1,109 @@
+package com.sms2.util;
+
+import com.sms2.domain.Student;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Writes students as CSV rows through a large buffer, formatting every field by hand instead of
+ * {@code printf}. As a {@link Consumer} it can be fed straight from a repository cursor;
+ * I/O failures inside {@link #accept} surface as {@link UncheckedIOException}.
+ */
+public class StudentCsvWriter implements Consumer<Student>, Closeable {
+    static final String HEADER = "StudentID,FullName,Programme,Level,GPA,Email,PhoneNumber,DateAdded,Status";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer out;
+    private int count;
+
+    public StudentCsvWriter(Path file) throws IOException {
+        out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+        out.write(HEADER);
+        out.write('\n');
+    }
+
+    public void write(Student s) throws IOException {
+        field(s.getStudentId()); out.write(',');
+        field(s.getFullName()); out.write(',');
+        field(s.getProgramme()); out.write(',');
+        number(s.getLevel()); out.write(',');
+        gpa(s.getGpa()); out.write(',');
+        field(s.getEmail()); out.write(',');
+        field(s.getPhoneNumber()); out.write(',');
+        date(s.getDateAdded()); out.write(',');
+        out.write(s.getStatus().name());
+        out.write('\n');
+        count++;
+    }
+
+    @Override
+    public void accept(Student s) {
+        try { write(s); } catch (IOException e) { throw new UncheckedIOException(e); }
+    }
+
+    public int getCount() { return count; }
+
+    @Override
+    public void close() throws IOException { out.close(); }
+
+    private void field(String v) throws IOException {
+        if (v == null) return;
+        boolean quote = false;
+        for (int i = 0; i < v.length() && !quote; i++) {
+            char c = v.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) { out.write(v); return; }
+        out.write('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private void number(long v) throws IOException {
+        if (v < 0) { out.write('-'); v = -v; }
+        if (v >= 10) number(v / 10);
+        out.write((char) ('0' + v % 10));
+    }
+
+    /**
+     * Two decimals, rounded half-up on the shortest decimal form of {@code g}, which is what
+     * {@code %.2f} does, but without the format-string parsing or locale lookup.
+     */
+    private void gpa(double g) throws IOException {
+        String d = Double.toString(g);
+        int dot = d.indexOf('.');
+        if (d.indexOf('E') >= 0 || dot < 0) { out.write(String.format(Locale.ROOT, "%.2f", g)); return; }
+        int start = d.charAt(0) == '-' ? 1 : 0;
+        long cents = 0;
+        for (int i = start; i < dot; i++) cents = cents * 10 + (d.charAt(i) - '0');
+        for (int i = 1; i <= 2; i++) cents = cents * 10 + (dot + i < d.length() ? d.charAt(dot + i) - '0' : 0);
+        if (dot + 3 < d.length() && d.charAt(dot + 3) >= '5') cents++;
+        if (start == 1) out.write('-');                  // %.2f keeps the sign of values that round to zero
+        number(cents / 100);
+        out.write('.');
+        out.write((char) ('0' + cents / 10 % 10));
+        out.write((char) ('0' + cents % 10));
+    }
+
+    private void date(LocalDate d) throws IOException {
+        int y = d.getYear();
+        if (y < 1000 || y > 9999) { out.write(d.toString()); return; }
+        number(y); out.write('-');
+        two(d.getMonthValue()); out.write('-');
+        two(d.getDayOfMonth());
+    }
+
+    private void two(int v) throws IOException {
+        out.write((char) ('0' + v / 10));
+        out.write((char) ('0' + v % 10));
+    }
+}
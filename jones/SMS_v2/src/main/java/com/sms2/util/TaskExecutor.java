@@ -0,0 +1,128 @@
+package com.sms2.util;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs all of the application's background work. Blocking DB and file I/O gets a virtual thread
+ * per task; CPU-heavy work (report snapshots, sorts) goes to a bounded pool of platform threads;
+ * timers fire on one scheduler thread and should only hand work on. {@link #submitWrite} also
+ * holds one of {@code maxWriters} permits, so concurrent imports queue here instead of timing out
+ * on the pool's single writer connection.
+ * <p>
+ * Cancelling a returned future (or a JavaFX {@code Task} passed to {@link #run}) interrupts its
+ * thread, and the work started from it is expected to stop with it. {@link #shutdown} stops
+ * timers, lets queued and running tasks finish for up to the drain period, then interrupts the rest.
+ * <p>
+ * {@link #shared()} is the application instance: {@code sms.tasks.cpuThreads} (default one
+ * fewer than the cores), {@code sms.tasks.maxWriters} (1) and {@code sms.tasks.drainMs} (5000).
+ */
+public final class TaskExecutor {
+    private static final int CPU_THREADS = Integer.getInteger("sms.tasks.cpuThreads", Math.max(1, Runtime.getRuntime().availableProcessors()-1));
+    private static final int MAX_WRITERS = Integer.getInteger("sms.tasks.maxWriters", 1);
+    private static final long DRAIN_MS = Long.getLong("sms.tasks.drainMs", 5_000);
+    private static TaskExecutor shared;
+
+    /** Receives progress from long tasks; {@code total} is -1 while unknown. */
+    public interface Progress {
+        Progress NONE = (done, total) -> {};
+        void update(long done, long total);
+    }
+
+    private final ExecutorService io;
+    private final ThreadPoolExecutor cpu;
+    private final ScheduledExecutorService timer;
+    private final Semaphore writers;
+
+    public TaskExecutor(int cpuThreads, int maxWriters) {
+        if (cpuThreads<1) throw new IllegalArgumentException("cpuThreads must be positive");
+        if (maxWriters<1) throw new IllegalArgumentException("maxWriters must be positive");
+        this.io = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sms-io-", 0).factory());
+        this.cpu = new ThreadPoolExecutor(cpuThreads, cpuThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), platformFactory("sms-cpu-"));
+        this.timer = Executors.newSingleThreadScheduledExecutor(platformFactory("sms-timer-"));
+        this.writers = new Semaphore(maxWriters, true);
+    }
+
+    public static synchronized TaskExecutor shared() {
+        if (shared == null) shared = new TaskExecutor(CPU_THREADS, MAX_WRITERS);
+        return shared;
+    }
+
+    /** Drains and stops the shared instance, if one was started. */
+    public static synchronized void shutdownShared() {
+        if (shared != null) { shared.shutdown(DRAIN_MS); shared = null; }
+    }
+
+    public Executor io()  { return io; }
+    public Executor cpu() { return cpu; }
+
+    public <T> Future<T> submitIo(Callable<T> work)  { return io.submit(work); }
+    public <T> Future<T> submitCpu(Callable<T> work) { return cpu.submit(work); }
+
+    /** I/O work that writes to the database; waits for a writer permit on its own virtual thread. */
+    public <T> Future<T> submitWrite(Callable<T> work) { return io.submit(() -> withWriter(work)); }
+
+    /**
+     * Runs a task, typically a JavaFX {@code Task}, on a virtual thread and returns it; cancelling it
+     * interrupts that thread. With {@code writes} it holds a writer permit while it runs.
+     */
+    public <F extends RunnableFuture<?>> F run(F task, boolean writes) {
+        io.execute(!writes ? task : () -> {
+            try { writers.acquire(); }
+            catch (InterruptedException e) { task.cancel(false); return; }
+            try { task.run(); }
+            finally { writers.release(); }
+        });
+        return task;
+    }
+
+    /** Runs {@code action} once after the delay, on the scheduler thread. */
+    public ScheduledFuture<?> schedule(long delayMs, Runnable action) {
+        return timer.schedule(action, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Runs {@code action} every {@code periodMs} on the scheduler thread until the future is cancelled. */
+    public ScheduledFuture<?> every(long periodMs, Runnable action) {
+        return timer.scheduleAtFixedRate(action, 0, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Tasks waiting for a CPU thread, and writes waiting for a permit. */
+    public int cpuQueueDepth()      { return cpu.getQueue().size(); }
+    public int writersWaiting()     { return writers.getQueueLength(); }
+
+    /**
+     * Stops timers and new submissions, waits up to {@code drainMs} for the rest to finish, then
+     * interrupts what is still running. Returns whether everything finished within the drain period.
+     */
+    public boolean shutdown(long drainMs) {
+        for (Runnable r : timer.shutdownNow()) if (r instanceof Future<?> f) f.cancel(false);
+        io.shutdown();
+        cpu.shutdown();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainMs);
+        boolean drained;
+        try {
+            drained = io.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)
+                    && cpu.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drained = false;
+        }
+        if (!drained) {
+            int dropped = io.shutdownNow().size() + cpu.shutdownNow().size();
+            AppLogger.warn("Background tasks still running after " + drainMs + " ms were interrupted; " + dropped + " queued task(s) dropped.");
+        }
+        return drained;
+    }
+
+    private <T> T withWriter(Callable<T> work) throws Exception {
+        writers.acquire();
+        try { return work.call(); }
+        finally { writers.release(); }
+    }
+
+    private static ThreadFactory platformFactory(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> { Thread t = new Thread(r, prefix+n.incrementAndGet()); t.setDaemon(true); return t; };
+    }
+}
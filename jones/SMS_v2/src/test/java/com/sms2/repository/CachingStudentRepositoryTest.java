@@ -0,0 +1,162 @@
+package com.sms2.repository;
+
+import com.sms2.domain.BulkResult;
+import com.sms2.domain.Student;
+import com.sms2.util.Metrics;
+import org.junit.jupiter.api.*;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingStudentRepositoryTest {
+
+    private final Map<String, Student> db = new TreeMap<>();
+    private final Map<String, Integer> calls = new HashMap<>();
+    private CachingStudentRepository cache;
+
+    /** In-memory stand-in for the SQLite repository that counts calls per method. */
+    private StudentRepository fake() {
+        return (StudentRepository) Proxy.newProxyInstance(StudentRepository.class.getClassLoader(),
+                new Class<?>[]{StudentRepository.class}, (p, m, a) -> {
+            calls.merge(m.getName(), 1, Integer::sum);
+            switch (m.getName()) {
+                case "findById": return Optional.ofNullable(db.get((String) a[0])).map(Student::new);
+                case "existsById": return db.containsKey((String) a[0]);
+                case "findAllByIds": {
+                    calls.merge("findAllByIds.ids", ((List<?>) a[0]).size(), Integer::sum);
+                    return ((List<?>) a[0]).stream().filter(db::containsKey).map(id -> new Student(db.get(id))).toList();
+                }
+                case "findAll": return db.values().stream().map(Student::new).toList();
+                case "filter": return db.values().stream()
+                        .filter(s -> a[0] == null || a[0].equals(s.getProgramme()))
+                        .filter(s -> a[1] == null || a[1].equals(s.getLevel()))
+                        .filter(s -> a[2] == null || a[2].equals(s.getStatus().name()))
+                        .map(Student::new).toList();
+                case "getAllProgrammes": return db.values().stream().map(Student::getProgramme).distinct().sorted().toList();
+                case "count": return db.size();
+                case "add": case "update": db.put(((Student) a[0]).getStudentId(), new Student((Student) a[0])); return true;
+                case "delete": return db.remove((String) a[0]) != null;
+                case "updateStatusWhere": {
+                    List<Student> hit = db.values().stream().filter(s -> a[0].equals(s.getProgramme()) && s.getStatus() != a[2]).map(Student::new).toList();
+                    BulkResult r = new BulkResult(hit.stream().map(Student::getStudentId).toList());
+                    for (int i = 0; i < hit.size(); i++) {
+                        r.set(i, BulkResult.Outcome.APPLIED, null); r.setBefore(i, hit.get(i));
+                        db.get(hit.get(i).getStudentId()).setStatus((Student.StudentStatus) a[2]);
+                    }
+                    return r;
+                }
+                default: throw new UnsupportedOperationException(m.getName());
+            }
+        });
+    }
+
+    private Student mk(String id, String prog, int lvl) { return new Student(id, "Name " + id, prog, lvl, 3.0, id + "@u.edu", "0241234567"); }
+
+    private int calls(String method) { return calls.getOrDefault(method, 0); }
+
+    @BeforeEach void setUp() {
+        cache = new CachingStudentRepository(fake(), 2, 8, 60_000);
+        cache.add(mk("S1", "CS", 100)); cache.add(mk("S2", "Math", 200)); cache.add(mk("S3", "CS", 200));
+        calls.clear();
+    }
+
+    @Test @DisplayName("Repeated reads are served from cache")
+    void hits() {
+        long entityHits = Metrics.counter("cache.entity.hits").get(), queryMisses = Metrics.counter("cache.query.misses").get();
+        cache.findAll(); cache.findAll(); cache.filter("CS", null, null); cache.filter("CS", null, null);
+        cache.findById("S1"); cache.findById("S1");
+        assertEquals(1, calls("findAll"));
+        assertEquals(1, calls("filter"));
+        assertEquals(1, calls("findById"));
+        assertTrue(cache.getStats().getHitRate() > 0.4);
+        assertEquals(entityHits + 1, Metrics.counter("cache.entity.hits").get(), "published to Metrics");
+        assertEquals(queryMisses + 2, Metrics.counter("cache.query.misses").get());
+    }
+
+    @Test @DisplayName("Returned students are copies")
+    void copies() {
+        cache.findById("S1").get().setFullName("Changed");
+        cache.findAll().get(0).setFullName("Changed");
+        assertEquals("Name S1", cache.findById("S1").get().getFullName());
+        assertEquals("Name S1", cache.findAll().get(0).getFullName());
+    }
+
+    @Test @DisplayName("Update invalidates only queries matching old or new values")
+    void preciseInvalidation() {
+        cache.filter("CS", null, null); cache.filter("Math", null, null); cache.filter("Bio", null, null);
+        Student s = cache.findById("S2").get();
+        s.setProgramme("CS");
+        cache.update(s);
+        calls.clear();
+        assertEquals(3, cache.filter("CS", null, null).size());
+        assertEquals(0, cache.filter("Math", null, null).size());
+        cache.filter("Bio", null, null);
+        assertEquals(2, calls("filter"));
+        assertEquals(List.of("CS"), cache.getAllProgrammes());
+    }
+
+    @Test @DisplayName("Delete drops the entity, matching queries and the count")
+    void delete() {
+        cache.findById("S1"); cache.findAll(); cache.count();
+        cache.delete("S1");
+        assertTrue(cache.findById("S1").isEmpty());
+        assertEquals(2, cache.findAll().size());
+        assertEquals(2, cache.count());
+    }
+
+    @Test @DisplayName("A bulk status change invalidates queries its old or new rows match, and nothing else")
+    void bulkStatus() {
+        cache.findById("S1"); cache.filter(null, null, "ACTIVE"); cache.filter(null, null, "INACTIVE"); cache.filter("Math", null, null);
+        assertEquals(2, cache.updateStatusWhere("CS", null, Student.StudentStatus.INACTIVE).getAppliedCount());
+        calls.clear();
+        assertEquals(Student.StudentStatus.INACTIVE, cache.findById("S1").get().getStatus());
+        assertEquals(1, cache.filter(null, null, "ACTIVE").size());
+        assertEquals(2, cache.filter(null, null, "INACTIVE").size());
+        cache.filter("Math", null, null);
+        assertEquals(1, calls("findById"));
+        assertEquals(2, calls("filter"));
+    }
+
+    @Test @DisplayName("findAllByIds serves cached students and loads only the rest, in the order asked")
+    void findAllByIds() {
+        cache.findById("S2");
+        calls.clear();
+        List<Student> got = cache.findAllByIds(List.of("S3", "S2", "S9", "S1"));
+        assertEquals(List.of("S3", "S2", "S1"), got.stream().map(Student::getStudentId).toList());
+        assertEquals(1, calls("findAllByIds"));
+        assertEquals(3, calls("findAllByIds.ids"));
+        cache.findAllByIds(List.of("S1", "S3"));
+        assertEquals(1, calls("findAllByIds"));
+    }
+
+    @Test @DisplayName("Entity cache is bounded")
+    void eviction() {
+        cache.findById("S1"); cache.findById("S2"); cache.findById("S3");
+        cache.findById("S1");
+        assertEquals(4, calls("findById"));
+        assertEquals(2, cache.getStats().getEntityCount());
+    }
+
+    @Test @DisplayName("Query cache is bounded by total rows and does not keep oversized results")
+    void queryRowLimits() {
+        cache = new CachingStudentRepository(fake(), 10, 8, 3, 2, 60_000);
+        cache.findAll(); cache.findAll();
+        assertEquals(2, calls("findAll"), "3 rows is over the per-result limit");
+        cache.filter("CS", null, null); cache.filter("Math", null, null);
+        assertEquals(3, cache.getStats().getQueryRows());
+        cache.filter(null, 200, null);
+        assertEquals(2, cache.getStats().getQueryCount(), "CS was least recently used");
+        assertEquals(3, cache.getStats().getQueryRows());
+        cache.filter("Math", null, null); cache.filter("CS", null, null);
+        assertEquals(4, calls("filter"));
+    }
+
+    @Test @DisplayName("Entries expire after the TTL")
+    void ttl() throws InterruptedException {
+        cache = new CachingStudentRepository(fake(), 10, 8, 1);
+        cache.findAll();
+        Thread.sleep(5);
+        cache.findAll();
+        assertEquals(2, calls("findAll"));
+    }
+}
@@ -1,6 +1,8 @@
 package com.sms2.repository;
 
+import com.sms2.domain.BulkResult;
 import com.sms2.domain.Student;
+import com.sms2.domain.StudentOrder;
 import com.sms2.util.DatabaseManager;
 import org.junit.jupiter.api.*;
 import java.sql.*;
@@ -88,4 +90,145 @@ class SqliteStudentRepositoryTest {
         Student s2 = make("T071"); s2.setProgramme("Phys"); repo.add(s2);
         repo.filter("Math",null,null).forEach(s -> assertEquals("Math",s.getProgramme()));
     }
+
+    @Test @Order(13) @DisplayName("addAll inserts new rows and skips existing or repeated IDs")
+    void addAll() {
+        repo.add(make("T080"));
+        BulkResult r = repo.addAll(List.of(make("T080"), make("T081"), make("T082"), make("T081")));
+        assertEquals(List.of(BulkResult.Outcome.SKIPPED, BulkResult.Outcome.APPLIED, BulkResult.Outcome.APPLIED, BulkResult.Outcome.SKIPPED),
+                List.of(r.getOutcome(0), r.getOutcome(1), r.getOutcome(2), r.getOutcome(3)));
+        assertEquals(3, repo.count());
+    }
+
+    @Test @Order(14) @DisplayName("updateAll applies known IDs, keeps their old rows and skips unknown ones")
+    void updateAll() {
+        repo.addAll(List.of(make("T090"), make("T091")));
+        Student a = make("T090"); a.setGpa(3.8);
+        Student ghost = make("GHOST");
+        BulkResult r = repo.updateAll(List.of(a, ghost));
+        assertEquals(BulkResult.Outcome.APPLIED, r.getOutcome(0));
+        assertEquals(3.0, r.getBefore(0).getGpa(), 0.001);
+        assertEquals(BulkResult.Outcome.SKIPPED, r.getOutcome(1));
+        assertEquals(3.8, repo.findById("T090").orElseThrow().getGpa(), 0.001);
+    }
+
+    @Test @Order(15) @DisplayName("deleteAllByIds removes every listed student in one go")
+    void deleteAll() {
+        List<Student> many = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) many.add(make(String.format("D%04d", i)));
+        repo.addAll(many);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1_200; i += 2) ids.add(String.format("D%04d", i));
+        ids.add("GHOST");
+        BulkResult r = repo.deleteAllByIds(ids);
+        assertEquals(600, r.getAppliedCount());
+        assertEquals(List.of("GHOST"), r.getIds(BulkResult.Outcome.SKIPPED));
+        assertEquals(600, repo.count());
+        assertFalse(repo.existsById("D0000"));
+        assertTrue(repo.existsById("D0001"));
+    }
+
+    @Test @Order(16) @DisplayName("updateStatusWhere changes only matching rows whose status differs")
+    void updateStatusWhere() {
+        Student a = make("T100"), b = make("T101"), c = make("T102"), d = make("T103");
+        b.setLevel(400); c.setProgramme("Math"); d.setStatus(Student.StudentStatus.INACTIVE);
+        repo.addAll(List.of(a, b, c, d));
+        BulkResult r = repo.updateStatusWhere("CS", 300, Student.StudentStatus.INACTIVE);
+        assertEquals(List.of("T100"), r.getIds(BulkResult.Outcome.APPLIED));
+        assertEquals(Student.StudentStatus.ACTIVE, r.getBefore(0).getStatus());
+        assertEquals(Student.StudentStatus.INACTIVE, repo.findById("T100").orElseThrow().getStatus());
+        assertEquals(Student.StudentStatus.ACTIVE, repo.findById("T101").orElseThrow().getStatus());
+        assertEquals(Student.StudentStatus.ACTIVE, repo.findById("T102").orElseThrow().getStatus());
+    }
+
+    @Test @Order(17) @DisplayName("findAllByIds returns known students in the order asked")
+    void findAllByIds() {
+        List<Student> many = new ArrayList<>();
+        for (int i = 0; i < 700; i++) many.add(make(String.format("F%04d", i)));
+        repo.addAll(many);
+        List<String> ids = new ArrayList<>(List.of("F0699", "NOPE", "F0000"));
+        for (int i = 1; i < 600; i++) ids.add(String.format("F%04d", i));
+        List<Student> got = repo.findAllByIds(ids);
+        assertEquals(601, got.size());
+        assertEquals("F0699", got.get(0).getStudentId());
+        assertEquals("F0000", got.get(1).getStudentId());
+        assertEquals("F0599", got.get(600).getStudentId());
+        assertTrue(repo.findAllByIds(List.of()).isEmpty());
+    }
+
+    private Student named(String id, String name) {
+        Student s = make(id);
+        s.setFullName(name);
+        return s;
+    }
+
+    private static List<String> ids(List<Student> list) { return list.stream().map(Student::getStudentId).toList(); }
+
+    @Test @Order(18) @DisplayName("Searches of three or more characters match substrings of ID and name through the index")
+    void searchFts() {
+        repo.addAll(List.of(named("T201", "Ama Mensah"), named("T202", "Kofi Amankwah"), named("T203", "Yaw Boateng")));
+        assertEquals(List.of("T201"), ids(repo.search("mensa")));
+        assertEquals(Set.of("T201", "T202"), Set.copyOf(ids(repo.search("AMA"))));
+        assertEquals(1, repo.search("ama", 1).size());
+        assertEquals(3, repo.search("T20").size());
+        Student moved = repo.findById("T203").orElseThrow();
+        moved.setFullName("Yaw Mensah");
+        assertTrue(repo.update(moved));
+        assertEquals(Set.of("T201", "T203"), Set.copyOf(ids(repo.search("mensah"))));
+        assertTrue(repo.search("boateng").isEmpty());
+    }
+
+    @Test @Order(19) @DisplayName("Shorter searches fall back to LIKE on ID and name, ordered by name")
+    void searchShortFallsBackToLike() {
+        repo.addAll(List.of(named("T211", "Yaw Boateng"), named("T212", "Abena Bonsu"), named("X213", "Kofi Owusu")));
+        assertEquals(List.of("T212", "T211"), ids(repo.search("bo")));
+        assertEquals(List.of("T212", "T211"), ids(repo.search(" T2 ")));
+        assertEquals(List.of("X213"), ids(repo.search("X")));
+        assertEquals(3, repo.search("").size());
+    }
+
+    @Test @Order(20) @DisplayName("Quotes and FTS operators in a search are matched literally")
+    void searchEscapesQuotes() {
+        repo.addAll(List.of(named("T221", "Kwame \"KK\" O'Neil"), named("T222", "Ama Mensah")));
+        assertEquals(List.of("T221"), ids(repo.search("\"KK\"")));
+        assertEquals(List.of("T221"), ids(repo.search("O'Neil")));
+        assertTrue(repo.search("KK\" OR \"Ama").isEmpty());
+        assertTrue(repo.search("Ama AND Kwame").isEmpty());
+        assertTrue(repo.search("NEAR(").isEmpty());
+    }
+
+    @Test @Order(21) @DisplayName("Keyset pages in every order match a full sort, ties on GPA broken by ID")
+    void orderedPages() {
+        List<Student> many = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Student s = named(String.format("K%03d", (i * 37) % 60), "Name " + (i % 11));
+            s.setGpa((i % 9) * 0.5);
+            many.add(s);
+        }
+        repo.addAll(many);
+        for (StudentOrder order : StudentOrder.values()) {
+            List<Student> want = new ArrayList<>(many);
+            want.sort(order.comparator());
+            List<Student> got = new ArrayList<>();
+            for (List<Student> page = repo.findPageAfter(order, null, 7); !page.isEmpty(); page = repo.findPageAfter(order, page.get(page.size() - 1), 7))
+                got.addAll(page);
+            assertEquals(ids(want), ids(got), order.name());
+            assertEquals(ids(want.subList(14, 21)), ids(repo.findPageAt(order, 14, 7)), order.name());
+        }
+    }
+
+    @Test @Order(22) @DisplayName("Name order ignores case, and keyset pages seek across names that differ only in case")
+    void nameOrderIgnoresCase() {
+        repo.addAll(List.of(named("C1", "de Souza"), named("C2", "Zed Ofori"), named("C3", "adams Quaye"), named("C4", "Adams Quaye"),
+                named("C5", "ADAMS Quaye"), named("C6", "Baah Kofi")));
+        List<String> want = List.of("C3", "C4", "C5", "C6", "C1", "C2");
+        assertEquals(want, ids(repo.findPageAt(StudentOrder.NAME, 0, 10)));
+        List<Student> got = new ArrayList<>();
+        for (List<Student> page = repo.findPageAfter(StudentOrder.NAME, null, 2); !page.isEmpty(); page = repo.findPageAfter(StudentOrder.NAME, page.get(page.size() - 1), 2))
+            got.addAll(page);
+        assertEquals(want, ids(got));
+        List<Student> sorted = new ArrayList<>(got);
+        sorted.sort(StudentOrder.NAME.comparator());
+        assertEquals(want, ids(sorted));
+    }
 }
@@ -0,0 +1,153 @@
+package com.sms2.service;
+
+import com.sms2.domain.ImportResult;
+import com.sms2.domain.Student;
+import com.sms2.repository.StudentRepository;
+import com.sms2.util.TaskExecutor;
+import org.junit.jupiter.api.*;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportPipelineTest {
+
+    private final Map<String, Student> db = new LinkedHashMap<>();
+    private final List<List<String>> batches = new ArrayList<>();
+    private final List<String> committed = new ArrayList<>();
+    private final Map<String, Integer> calls = new TreeMap<>();
+    private final TaskExecutor tasks = new TaskExecutor(4, 1);
+    private String unsavable;                 // addBatch refuses any batch holding this ID
+    private Path file;
+
+    /** In-memory repository that counts calls per method; only the writer thread touches it. */
+    @SuppressWarnings("unchecked")
+    private StudentRepository fake() {
+        return (StudentRepository) Proxy.newProxyInstance(StudentRepository.class.getClassLoader(),
+                new Class<?>[]{StudentRepository.class}, (p, m, a) -> {
+            calls.merge(m.getName(), 1, Integer::sum);
+            switch (m.getName()) {
+                case "findAllByIds": return ((List<String>) a[0]).stream().filter(db::containsKey).map(db::get).toList();
+                case "addBatch": {
+                    List<Student> in = (List<Student>) a[0];
+                    batches.add(in.stream().map(Student::getStudentId).toList());
+                    if (in.stream().anyMatch(s -> s.getStudentId().equals(unsavable))) return false;
+                    in.forEach(s -> db.put(s.getStudentId(), s));
+                    return true;
+                }
+                default: throw new UnsupportedOperationException(m.getName());
+            }
+        });
+    }
+
+    @BeforeEach void setUp() throws IOException { file = Files.createTempFile("pipeline", ".csv"); }
+
+    @AfterEach void tearDown() throws IOException {
+        tasks.shutdown(5_000);
+        Files.deleteIfExists(file);
+    }
+
+    @Test @DisplayName("Several workers still commit rows and report errors in file order")
+    void fileOrder() throws IOException {
+        List<String> lines = new ArrayList<>(), expected = new ArrayList<>(), errorRows = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            String id = String.format("S%05d", i);
+            if (i % 13 == 5) { lines.add(row(id, "Name " + id, 150)); errorRows.add("Row " + (i + 2) + ":"); }
+            else { lines.add(row(id, "Name", 100)); expected.add(id); }
+        }
+        write(lines);
+        ImportResult r = pipeline(7, 4, ids -> committed.addAll(ids)).run(file.toFile());
+        assertEquals(expected, committed);
+        assertEquals(expected, new ArrayList<>(db.keySet()));
+        assertEquals(expected.size(), r.getSuccessCount());
+        assertEquals(errorRows, r.getErrors().stream().map(e -> e.substring(0, e.indexOf(':') + 1)).toList());
+    }
+
+    @Test @DisplayName("Unparseable, invalid and duplicate rows are reported by row number and the rest imported")
+    void errorRows() throws IOException {
+        db.put("S0001", student("S0001", "Ama Mensah", 100));
+        write(List.of(row("S0002", "Ama Badu", 100), "S0003,Too Short", row("S0004", "Yaw Boateng", 100).replace(",100,", ",abc,"),
+                row("S0005", "Kofi 2", 100), row("S0001", "Esi Adjei", 100), row("S0006", "Kwame Asante", 100),
+                row("S0006", "Kwame Again", 200)));
+        ImportResult r = pipeline(3, 2, ids -> committed.addAll(ids)).run(file.toFile());
+        assertEquals(List.of("S0002", "S0006"), committed);
+        assertEquals(List.of("Row 3: Not enough columns", "Row 4: For input string: \"abc\"",
+                "Row 5: " + ValidationError.describe(new ValidationService().check(student("S0005", "Kofi 2", 100))),
+                "Row 6: Duplicate ID 'S0001'", "Row 8: Duplicate ID 'S0006'"), r.getErrors());
+    }
+
+    @Test @DisplayName("Duplicates within the file and against the database cost one lookup per block, not one per row")
+    void duplicatesPerBlock() throws IOException {
+        db.put("S0002", student("S0002", "Ama Mensah", 100));
+        db.put("S0004", student("S0004", "Kofi Owusu", 100));
+        write(List.of(row("S0001", "Ama Badu", 100), row("S0002", "Yaw Boateng", 100), row("S0003", "Esi Adjei", 100),
+                row("S0001", "Ama Again", 200), row("S0004", "Kwame Asante", 100), row("S0005", "Abena Osei", 100)));
+        ImportResult r = pipeline(10, 2, ids -> committed.addAll(ids)).run(file.toFile());
+        assertEquals(Map.of("addBatch", 1, "findAllByIds", 1), calls);
+        assertEquals(List.of(List.of("S0001", "S0003", "S0005")), batches);
+        assertEquals(List.of("Row 3: Duplicate ID 'S0002'", "Row 5: Duplicate ID 'S0001'", "Row 6: Duplicate ID 'S0004'"), r.getErrors());
+        assertEquals("Ama Badu", db.get("S0001").getFullName());
+    }
+
+    @Test @DisplayName("A block whose batch insert fails is retried in halves down to the bad row")
+    void batchFallback() throws IOException {
+        unsavable = "S0003";
+        write(List.of(row("S0001", "Ama Badu", 100), row("S0002", "Yaw Boateng", 100), row("S0003", "Kofi Owusu", 100),
+                row("S0004", "Esi Adjei", 100), row("S0005", "Kwame Asante", 100)));
+        ImportResult r = pipeline(3, 3, ids -> committed.addAll(ids)).run(file.toFile());
+        assertEquals(List.of(List.of("S0001", "S0002", "S0003"), List.of("S0001"), List.of("S0002", "S0003"),
+                List.of("S0002"), List.of("S0003"), List.of("S0004", "S0005")), batches);
+        assertEquals(List.of("S0001", "S0002", "S0004", "S0005"), committed);
+        assertEquals(4, r.getSuccessCount());
+        assertEquals(List.of("Row 4: Failed to save 'S0003'"), r.getErrors());
+    }
+
+    @Test @DisplayName("Interrupting the writer stops the import after the current block and shuts the stages down")
+    void interrupt() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) lines.add(row(String.format("S%05d", i), "Name", 100));
+        write(lines);
+        ImportResult r;
+        try {
+            r = pipeline(10, 2, ids -> { committed.addAll(ids); Thread.currentThread().interrupt(); }).run(file.toFile());
+            assertTrue(Thread.currentThread().isInterrupted(), "the interrupt is kept for the caller");
+        } finally { Thread.interrupted(); }
+        assertEquals(10, r.getSuccessCount());
+        assertEquals(10, committed.size());
+        assertEquals(List.of("Import interrupted."), r.getErrors());
+        assertTrue(tasks.shutdown(5_000), "reader and parse tasks exit");
+    }
+
+    @Test @DisplayName("A file that cannot be read is reported as an error")
+    void unreadable() {
+        ImportResult r = pipeline(10, 1, ids -> {}).run(new File(file.toFile(), "missing.csv"));
+        assertEquals(0, r.getSuccessCount());
+        assertEquals(1, r.getErrorCount());
+        assertTrue(r.getErrors().get(0).startsWith("Cannot read file: "));
+    }
+
+    // ── helpers ──
+
+    private ImportPipeline pipeline(int batchSize, int workers, Consumer<List<String>> onCommitted) {
+        return new ImportPipeline(fake(), new ValidationService(), batchSize, workers,
+                saved -> onCommitted.accept(saved.stream().map(Student::getStudentId).toList()), tasks);
+    }
+
+    private void write(List<String> rows) throws IOException {
+        List<String> lines = new ArrayList<>(rows.size() + 1);
+        lines.add("student_id,full_name,programme,level,gpa,email,phone_number,date_added,status");
+        lines.addAll(rows);
+        Files.write(file, lines);
+    }
+
+    private static String row(String id, String name, int level) {
+        return String.join(",", id, name, "CS", String.valueOf(level), "3.0", id + "@u.edu", "0241234567", "2024-09-01", "ACTIVE");
+    }
+
+    private static Student student(String id, String name, int level) {
+        return ImportPipeline.parseRow(row(id, name, level).split(","));
+    }
+}
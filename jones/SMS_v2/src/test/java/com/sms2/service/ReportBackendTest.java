@@ -0,0 +1,89 @@
+package com.sms2.service;
+
+import com.sms2.domain.Student;
+import com.sms2.repository.SqliteReportRepository;
+import com.sms2.repository.SqliteStudentRepository;
+import com.sms2.util.DatabaseManager;
+import org.junit.jupiter.api.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportBackendTest {
+
+    private ReportBackend memory, pushDown;
+
+    @BeforeEach void setUp() throws SQLException {
+        try (Connection c = DatabaseManager.getConnection(); Statement s = c.createStatement()) {
+            s.execute("DELETE FROM students");
+        }
+        SqliteStudentRepository repo = new SqliteStudentRepository();
+        String[] progs = {"CS", "Math", "Phys"};
+        Random r = new Random(42);
+        List<Student> batch = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            // GPAs on a 0.25 grid so there are plenty of ties to break; names repeat too
+            Student s = new Student(String.format("R%03d", i), "Student " + (i % 40), progs[r.nextInt(3)],
+                    100 * (1 + r.nextInt(4)), r.nextInt(17) * 0.25, "r" + i + "@u.edu", "0241234567");
+            if (i % 7 == 0) s.setStatus(Student.StudentStatus.INACTIVE);
+            batch.add(s);
+        }
+        assertTrue(repo.addBatch(batch));
+        memory = new InMemoryReportBackend(repo, new ReportService());
+        pushDown = new PushDownReportBackend(new SqliteReportRepository());
+    }
+
+    @AfterAll static void tearDown() { DatabaseManager.close(); }
+
+    private static List<String> ids(List<Student> list) { return list.stream().map(Student::getStudentId).toList(); }
+
+    @Test @DisplayName("Top performers match, including tie order and filters")
+    void topPerformers() {
+        assertEquals(ids(memory.getTopPerformers(25, null, null)), ids(pushDown.getTopPerformers(25, null, null)));
+        assertEquals(ids(memory.getTopPerformers(10, "math", null)), ids(pushDown.getTopPerformers(10, "math", null)));
+        assertEquals(ids(memory.getTopPerformers(10, "CS", 300)), ids(pushDown.getTopPerformers(10, "CS", 300)));
+    }
+
+    @Test @DisplayName("At-risk lists match")
+    void atRisk() {
+        for (double t : new double[]{0.0, 1.0, 2.0, 2.1, 4.5})
+            assertEquals(ids(memory.getAtRiskStudents(t)), ids(pushDown.getAtRiskStudents(t)), "threshold " + t);
+    }
+
+    @Test @DisplayName("GPA distribution matches")
+    void distribution() { assertEquals(memory.getGpaDistribution(), pushDown.getGpaDistribution()); }
+
+    @Test @DisplayName("Programme summary matches")
+    void programmeSummary() {
+        Map<String, double[]> m = memory.getProgrammeSummary(), p = pushDown.getProgrammeSummary();
+        assertEquals(new ArrayList<>(m.keySet()), new ArrayList<>(p.keySet()));
+        m.forEach((prog, v) -> {
+            assertEquals(v[0], p.get(prog)[0]);
+            assertEquals(v[1], p.get(prog)[1], 1e-9);
+        });
+    }
+
+    @Test @DisplayName("Average GPA matches")
+    void average() { assertEquals(memory.getAverageGpa(), pushDown.getAverageGpa(), 1e-9); }
+
+    @Test @DisplayName("A push-down snapshot reads one state even when a write commits part way through")
+    void consistentRead() throws Exception {
+        SqliteReportRepository reports = new SqliteReportRepository();
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            double[] seen = reports.readConsistent(r -> {
+                double avg = r.averageGpa();
+                int below = r.findGpaBelow(4.5).size();
+                Future<Boolean> write = other.submit(() -> new SqliteStudentRepository()
+                        .add(new Student("R999", "Late Writer", "CS", 100, 4.0, "late@u.edu", "0241234567")));
+                try { assertTrue(write.get(5, TimeUnit.SECONDS)); }
+                catch (Exception e) { throw new AssertionError(e); }
+                return new double[]{avg, r.averageGpa(), below, r.findGpaBelow(4.5).size()};
+            });
+            assertEquals(seen[0], seen[1]);
+            assertEquals(seen[2], seen[3]);
+            assertEquals(301, reports.findGpaBelow(4.5).size());
+        } finally { other.shutdownNow(); }
+    }
+}
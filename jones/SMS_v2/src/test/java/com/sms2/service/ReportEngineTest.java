@@ -0,0 +1,73 @@
+package com.sms2.service;
+
+import com.sms2.domain.ReportSnapshot;
+import com.sms2.domain.Student;
+import org.junit.jupiter.api.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportEngineTest {
+
+    private final ReportService rs = new ReportService();
+    private List<Student> students;
+
+    @BeforeEach void setUp() {
+        String[] progs = {"CS", "Math", "Phys", "Bio"};
+        Random r = new Random(7);
+        students = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Student s = new Student("E" + i, "Name " + (i % 50), progs[r.nextInt(4)], 100 * (1 + r.nextInt(4)),
+                    r.nextInt(41) * 0.1, "e" + i + "@u.edu", "0241234567");
+            students.add(s);
+        }
+    }
+
+    private ReportSnapshot run(int topN, double threshold) {
+        ReportEngine e = new ReportEngine(topN, threshold);
+        students.forEach(e);
+        return e.finish();
+    }
+
+    private static List<String> ids(List<Student> list) { return list.stream().map(Student::getStudentId).toList(); }
+
+    @Test @DisplayName("One pass gives the same reports as the separate calls")
+    void matchesReportService() {
+        ReportSnapshot snap = run(10, 2.0);
+        assertEquals(ids(rs.getTopPerformers(students, 10, null, null)), ids(snap.getTopPerformers()));
+        assertEquals(ids(rs.getAtRiskStudents(students, 2.0)), ids(snap.getAtRisk()));
+        assertEquals(rs.getGpaDistribution(students), snap.getGpaDistribution());
+        Map<String, double[]> summary = rs.getProgrammeSummary(students);
+        assertEquals(new ArrayList<>(summary.keySet()), new ArrayList<>(snap.getProgrammeSummary().keySet()));
+        summary.forEach((p, v) -> {
+            assertEquals((long) v[0], snap.getProgrammeSummary().get(p).count());
+            assertEquals(v[1], snap.getProgrammeSummary().get(p).averageGpa(), 1e-9);
+        });
+        assertEquals(students.size(), snap.getTotal());
+        assertEquals(rs.getAverageGpa(students), snap.getAverageGpa(), 1e-9);
+    }
+
+    @Test @DisplayName("Top-N matches a full sort, with ties broken by name then ID")
+    void topNMatchesSort() {
+        List<Student> sorted = new ArrayList<>(students);
+        sorted.sort(ReportEngine.RANK);
+        for (int n : new int[]{0, 1, 10, 1999, 5000})
+            assertEquals(ids(sorted.subList(0, Math.min(n, sorted.size()))), ids(run(n, 2.0).getTopPerformers()), "n=" + n);
+    }
+
+    @Test @DisplayName("Snapshot cannot be changed through its getters")
+    void immutable() {
+        ReportSnapshot snap = run(5, 2.0);
+        snap.getTopPerformers().get(0).setGpa(-1);
+        assertTrue(snap.getTopPerformers().get(0).getGpa() >= 0);
+        assertThrows(UnsupportedOperationException.class, () -> snap.getGpaDistribution().put("x", 1L));
+    }
+
+    @Test @DisplayName("Empty input gives an empty snapshot")
+    void empty() {
+        ReportSnapshot snap = new ReportEngine(10, 2.0).finish();
+        assertEquals(0, snap.getTotal());
+        assertEquals(0.0, snap.getAverageGpa());
+        assertTrue(snap.getTopPerformers().isEmpty());
+        assertEquals(4, snap.getGpaDistribution().size());
+    }
+}
@@ -0,0 +1,121 @@
+package com.sms2.service;
+
+import com.sms2.domain.ReportSnapshot;
+import com.sms2.domain.Student;
+import org.junit.jupiter.api.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentColumnStoreTest {
+
+    private final ReportService rs = new ReportService();
+    private List<Student> students;
+    private StudentColumnStore store;
+
+    @BeforeEach void setUp() {
+        String[] progs = {"CS", "Math", "Phys", "Bio"};
+        Random r = new Random(11);
+        students = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Student s = new Student("C" + i, "Name " + r.nextInt(300), progs[r.nextInt(4)], 100 * (1 + r.nextInt(4)),
+                    r.nextInt(17) * 0.25, "c" + i + "@u.edu", "0241234567");
+            s.setDateAdded(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+            if (i % 5 == 0) s.setStatus(Student.StudentStatus.INACTIVE);
+            students.add(s);
+        }
+        Collections.shuffle(students, r);   // store must not depend on arrival order
+        store = StudentColumnStore.of(students);
+    }
+
+    private static List<Student> many(int n) {
+        Random r = new Random(5);
+        List<Student> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            list.add(new Student(String.format("P%06d", i), "Name " + r.nextInt(1000), "Prog" + r.nextInt(7),
+                    100 * (1 + r.nextInt(4)), r.nextInt(401) * 0.01, "p" + i + "@u.edu", "0241234567"));
+        return list;
+    }
+
+    private static List<String> ids(List<Student> list) { return list.stream().map(Student::getStudentId).toList(); }
+
+    @Test @DisplayName("Top performers match ReportService")
+    void top() {
+        assertEquals(ids(rs.getTopPerformers(students, 20, null, null)), ids(store.topPerformers(20, null, null)));
+        assertEquals(ids(rs.getTopPerformers(students, 15, "phys", 200)), ids(store.topPerformers(15, "phys", 200)));
+        assertEquals(ids(rs.getTopPerformers(students, 5000, null, null)), ids(store.topPerformers(5000, null, null)));
+        assertTrue(store.topPerformers(0, null, null).isEmpty());
+    }
+
+    @Test @DisplayName("At-risk matches ReportService")
+    void atRisk() {
+        for (double t : new double[]{0.0, 1.0, 2.0, 2.3, 4.1})
+            assertEquals(ids(rs.getAtRiskStudents(students, t)), ids(store.atRisk(t)), "threshold " + t);
+    }
+
+    @Test @DisplayName("Aggregates match ReportService")
+    void aggregates() {
+        assertEquals(rs.getGpaDistribution(students), ReportService.gpaDistribution(store.gpaBandCounts()));
+        assertEquals(rs.getAverageGpa(students), store.averageGpa(), 1e-9);
+        assertEquals(rs.countActive(students), store.countActive());
+        assertEquals(rs.countInactive(students), store.countInactive());
+        Map<String, double[]> expected = rs.getProgrammeSummary(students), actual = store.programmeSummary();
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+        expected.forEach((p, v) -> assertArrayEquals(v, actual.get(p), 1e-9));
+    }
+
+    @Test @DisplayName("Rows round-trip every field")
+    void roundTrip() {
+        Map<String, Student> byId = new HashMap<>();
+        students.forEach(s -> byId.put(s.getStudentId(), s));
+        for (Student got : store.topPerformers(50, null, null)) {
+            Student want = byId.get(got.getStudentId());
+            assertEquals(want.getFullName(), got.getFullName());
+            assertEquals(want.getProgramme(), got.getProgramme());
+            assertEquals(want.getLevel(), got.getLevel());
+            assertEquals(want.getGpa(), got.getGpa());
+            assertEquals(want.getEmail(), got.getEmail());
+            assertEquals(want.getDateAdded(), got.getDateAdded());
+            assertEquals(want.getStatus(), got.getStatus());
+        }
+    }
+
+    @Test @DisplayName("Empty store reports zeros")
+    void empty() {
+        StudentColumnStore none = StudentColumnStore.of(List.of());
+        assertEquals(0, none.size());
+        assertEquals(0.0, none.averageGpa());
+        assertArrayEquals(new long[4], none.gpaBandCounts());
+        assertTrue(none.topPerformers(10, null, null).isEmpty());
+        assertTrue(none.atRisk(4.0).isEmpty());
+        assertTrue(none.programmeSummary().isEmpty());
+    }
+
+    @Test @DisplayName("Parallel snapshot is identical to the sequential one and matches ReportService")
+    void parallelSnapshot() {
+        List<Student> big = many(5 * StudentColumnStore.LEAF + 123);
+        StudentColumnStore s = StudentColumnStore.of(big);
+        ReportSnapshot seq = s.snapshot(25, 1.5, null);
+        for (int threads : new int[]{1, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                ReportSnapshot par = s.snapshot(25, 1.5, pool);
+                assertEquals(ids(seq.getTopPerformers()), ids(par.getTopPerformers()));
+                assertEquals(ids(seq.getAtRisk()), ids(par.getAtRisk()));
+                assertEquals(seq.getGpaDistribution(), par.getGpaDistribution());
+                assertEquals(seq.getProgrammeSummary(), par.getProgrammeSummary());
+                assertEquals(seq.getAverageGpa(), par.getAverageGpa());   // bit-identical, not just close
+            } finally { pool.shutdown(); }
+        }
+        assertEquals(ids(rs.getTopPerformers(big, 25, null, null)), ids(seq.getTopPerformers()));
+        assertEquals(ids(rs.getAtRiskStudents(big, 1.5)), ids(seq.getAtRisk()));
+        assertEquals(rs.getGpaDistribution(big), seq.getGpaDistribution());
+        assertEquals(rs.getAverageGpa(big), seq.getAverageGpa(), 1e-9);
+        rs.getProgrammeSummary(big).forEach((p, v) -> {
+            assertEquals((long) v[0], seq.getProgrammeSummary().get(p).count());
+            assertEquals(v[1], seq.getProgrammeSummary().get(p).averageGpa(), 1e-9);
+        });
+        assertEquals(big.size(), seq.getTotal());
+    }
+}
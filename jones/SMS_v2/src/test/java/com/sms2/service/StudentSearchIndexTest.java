@@ -0,0 +1,64 @@
+package com.sms2.service;
+
+import com.sms2.domain.Student;
+import org.junit.jupiter.api.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentSearchIndexTest {
+
+    private StudentSearchIndex idx;
+
+    @BeforeEach void setUp() {
+        idx = new StudentSearchIndex();
+        idx.put(mk("S1001", "Kwame Mensah",          "kwame@u.edu"));
+        idx.put(mk("S1002", "Abena Owusu",           "abena@u.edu"));
+        idx.put(mk("S1003", "Bartholomew Quackenbush","bq@u.edu"));
+        idx.put(mk("S2001", "Mary Mensah",           "mary@u.edu"));
+    }
+
+    private Student mk(String id, String name, String email) {
+        return new Student(id, name, "CS", 100, 3.0, email, "0241234567");
+    }
+
+    @Test @DisplayName("Exact substring of name, ID or email")
+    void exact() {
+        assertEquals(List.of("S1002"), idx.search("owusu", 10));
+        assertEquals(List.of("S2001"), idx.search("S2001", 10));
+        assertEquals(List.of("S1003"), idx.search("bq@u", 10));
+    }
+
+    @Test @DisplayName("Tolerates typos")
+    void fuzzy() {
+        assertEquals(List.of("S1003"), idx.search("quakenbush", 10));
+        assertEquals(List.of("S1003"), idx.search("barthalomew", 10));
+        assertTrue(idx.search("kwam mensah", 10).contains("S1001"));
+    }
+
+    @Test @DisplayName("Field-start matches rank before inner matches")
+    void ranking() {
+        idx.put(mk("S3001", "Tamensah Ade", "t@u.edu"));
+        assertEquals("S3001", idx.search("mensah", 10).get(2));
+    }
+
+    @Test @DisplayName("Short queries scan")
+    void shortQuery() { assertEquals(Set.of("S1001", "S2001"), new HashSet<>(idx.search("ns", 10))); }
+
+    @Test @DisplayName("Updates and deletes are reflected")
+    void updateAndDelete() {
+        idx.put(mk("S1002", "Abena Boateng", "abena@u.edu"));
+        assertTrue(idx.search("owusu", 10).isEmpty());
+        assertEquals(List.of("S1002"), idx.search("boateng", 10));
+        idx.remove("S1002");
+        assertTrue(idx.search("boateng", 10).isEmpty());
+        assertEquals(3, idx.size());
+    }
+
+    @Test @DisplayName("Survives compaction")
+    void compaction() {
+        for (int i = 0; i < 5000; i++) idx.put(mk("T" + i, "Temp Student " + i, "t" + i + "@u.edu"));
+        for (int i = 0; i < 5000; i++) idx.remove("T" + i);
+        assertEquals(4, idx.size());
+        assertEquals(List.of("S1003"), idx.search("quackenbush", 10));
+    }
+}
@@ -0,0 +1,262 @@
+package com.sms2.service;
+
+import com.sms2.domain.BulkResult;
+import com.sms2.domain.BulkResult.Outcome;
+import com.sms2.domain.ImportResult;
+import com.sms2.domain.Student;
+import com.sms2.domain.StudentEvent;
+import com.sms2.repository.StudentRepository;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentServiceTest {
+
+    private final Map<String, Student> db = new TreeMap<>();
+    private final List<List<?>> writes = new ArrayList<>();
+    private final List<StudentEvent> published = new ArrayList<>();
+    private final List<String> reads = new ArrayList<>();
+    private Runnable midBuild = () -> {};
+    private int failReadAfter = -1;
+    private String failWith;
+    private String unsavable;                 // addBatch refuses any batch holding this ID
+    private StudentService service;
+
+    /** In-memory repository with the bulk semantics of the SQLite one; records what each bulk write was given. */
+    @SuppressWarnings("unchecked")
+    private StudentRepository fake() {
+        return (StudentRepository) Proxy.newProxyInstance(StudentRepository.class.getClassLoader(),
+                new Class<?>[]{StudentRepository.class}, (p, m, a) -> {
+            switch (m.getName()) {
+                case "forEach": {
+                    List<Student> snapshot = db.values().stream().map(Student::new).toList();
+                    for (int i = 0; i < snapshot.size(); i++) {
+                        if (i == failReadAfter) throw new IllegalStateException("Reading students failed: disk I/O error");
+                        ((java.util.function.Consumer<Student>) a[0]).accept(snapshot.get(i));
+                        if (i == 0) midBuild.run();
+                    }
+                    return null;
+                }
+                case "findAllByIds": {
+                    reads.add(m.getName());
+                    return ((List<String>) a[0]).stream().filter(db::containsKey).map(id -> new Student(db.get(id))).toList();
+                }
+                case "count": return db.size();
+                case "addBatch": {
+                    List<Student> in = (List<Student>) a[0];
+                    writes.add(in.stream().map(Student::getStudentId).toList());
+                    if (in.stream().anyMatch(s -> s.getStudentId().equals(unsavable))) return false;
+                    in.forEach(s -> db.put(s.getStudentId(), new Student(s)));
+                    return true;
+                }
+                case "findById": reads.add(m.getName()); return Optional.ofNullable(db.get((String) a[0])).map(Student::new);
+                case "addAll": case "updateAll": {
+                    List<Student> in = (List<Student>) a[0];
+                    writes.add(in);
+                    BulkResult r = new BulkResult(in.stream().map(Student::getStudentId).toList());
+                    if (failWith != null) { r.failAll(failWith); return r; }
+                    boolean add = m.getName().equals("addAll");
+                    for (int i = 0; i < in.size(); i++) {
+                        Student s = in.get(i), old = db.get(s.getStudentId());
+                        if (add == (old != null)) { r.set(i, Outcome.SKIPPED, add ? "ID already exists" : "No such student"); continue; }
+                        r.set(i, Outcome.APPLIED, null);
+                        r.setBefore(i, old);
+                        db.put(s.getStudentId(), new Student(s));
+                    }
+                    r.setElapsedMillis(7);
+                    return r;
+                }
+                case "deleteAllByIds": {
+                    List<String> ids = (List<String>) a[0];
+                    writes.add(ids);
+                    BulkResult r = new BulkResult(ids);
+                    for (int i = 0; i < ids.size(); i++) {
+                        Student old = db.remove(ids.get(i));
+                        if (old != null) { r.set(i, Outcome.APPLIED, null); r.setBefore(i, old); }
+                        else r.set(i, Outcome.SKIPPED, "No such student");
+                    }
+                    return r;
+                }
+                case "updateStatusWhere": {
+                    List<Student> hit = db.values().stream().filter(s -> a[0].equals(s.getProgramme()) && s.getStatus() != a[2]).toList();
+                    BulkResult r = new BulkResult(hit.stream().map(Student::getStudentId).toList());
+                    for (int i = 0; i < hit.size(); i++) {
+                        r.set(i, Outcome.APPLIED, null);
+                        r.setBefore(i, new Student(hit.get(i)));
+                        hit.get(i).setStatus((Student.StudentStatus) a[2]);
+                    }
+                    return r;
+                }
+                default: throw new UnsupportedOperationException(m.getName());
+            }
+        });
+    }
+
+    private static Student mk(String id, String name) { return new Student(id, name, "CS", 100, 3.0, id + "@u.edu", "0241234567"); }
+
+    private static Student invalid(String id) { return new Student(id, "X1", "CS", 150, 3.0, "nope", "0241234567"); }
+
+    @BeforeEach void setUp() {
+        db.put("S0001", mk("S0001", "Ama Mensah"));
+        db.put("S0002", mk("S0002", "Kofi Owusu"));
+        service = new StudentService(fake());
+        service.events().subscribe(published::add);
+    }
+
+    @Test @DisplayName("Bulk add writes only valid rows and maps outcomes back to input positions")
+    void addRemapsOutcomes() {
+        BulkResult r = service.addStudents(List.of(mk("S0003", "Yaw Boateng"), invalid("S0004"), mk("S0001", "Dup"), mk("S0005", "Esi Adjei")));
+        assertEquals(List.of("S0003", "S0001", "S0005"), writes.get(0).stream().map(s -> ((Student) s).getStudentId()).toList());
+        assertEquals(List.of(Outcome.APPLIED, Outcome.INVALID, Outcome.SKIPPED, Outcome.APPLIED),
+                List.of(r.getOutcome(0), r.getOutcome(1), r.getOutcome(2), r.getOutcome(3)));
+        assertEquals("S0004", r.getId(1));
+        assertEquals(ValidationError.describe(new ValidationService().check(invalid("S0004"))), r.getMessage(1));
+        assertEquals("ID already exists", r.getMessage(2));
+        assertEquals(7, r.getElapsedMillis());
+        assertEquals(1, published.size());
+        StudentEvent.BulkImported e = (StudentEvent.BulkImported) published.get(0);
+        assertEquals(List.of("S0003", "S0005"), e.students().stream().map(Student::getStudentId).toList());
+    }
+
+    @Test @DisplayName("Bulk update keeps each before-image at its input position and publishes one event")
+    void updateRemapsBefore() {
+        Student renamed = mk("S0002", "Kofi Owusu-Ansah");
+        BulkResult r = service.updateStudents(List.of(invalid("S0001"), mk("S0009", "Nobody Here"), renamed));
+        assertEquals(List.of(Outcome.INVALID, Outcome.SKIPPED, Outcome.APPLIED), List.of(r.getOutcome(0), r.getOutcome(1), r.getOutcome(2)));
+        assertNull(r.getBefore(0));
+        assertNull(r.getBefore(1));
+        assertEquals("Kofi Owusu", r.getBefore(2).getFullName());
+        assertEquals(1, published.size());
+        List<StudentEvent.Updated> u = ((StudentEvent.BulkUpdated) published.get(0)).updates();
+        assertEquals(1, u.size());
+        assertEquals("Kofi Owusu", u.get(0).before().getFullName());
+        assertEquals("Kofi Owusu-Ansah", u.get(0).after().getFullName());
+        assertNotSame(renamed, u.get(0).after());
+    }
+
+    @Test @DisplayName("A failed write marks the valid rows failed, keeps the invalid ones and publishes nothing")
+    void failedWrite() {
+        failWith = "database is locked";
+        BulkResult r = service.updateStudents(List.of(mk("S0001", "Ama Badu"), invalid("S0002")));
+        assertEquals(Outcome.FAILED, r.getOutcome(0));
+        assertEquals(Outcome.INVALID, r.getOutcome(1));
+        assertEquals("database is locked", r.getError());
+        assertTrue(published.isEmpty());
+    }
+
+    @Test @DisplayName("Nothing valid means no write and no event")
+    void allInvalid() {
+        BulkResult r = service.addStudents(List.of(invalid("S0007"), invalid("S0008")));
+        assertEquals(2, r.count(Outcome.INVALID));
+        assertTrue(writes.isEmpty());
+        assertTrue(published.isEmpty());
+    }
+
+    @Test @DisplayName("Bulk delete publishes one event with the deleted rows")
+    void deletePublishesOnce() {
+        BulkResult r = service.deleteStudents(List.of("S0001", "S0404", "S0002"));
+        assertEquals(2, r.getAppliedCount());
+        assertEquals(1, published.size());
+        List<StudentEvent.Deleted> d = ((StudentEvent.BulkDeleted) published.get(0)).deletes();
+        assertEquals(List.of("S0001", "S0002"), d.stream().map(StudentEvent.Deleted::studentId).toList());
+        assertEquals("Ama Mensah", d.get(0).before().getFullName());
+    }
+
+    @Test @DisplayName("A status change publishes one event carrying every changed row")
+    void statusPublishesOnce() {
+        for (int i = 3; i < 500; i++) db.put(String.format("S%04d", i), mk(String.format("S%04d", i), "Student Name"));
+        BulkResult r = service.setStatusWhere("CS", null, Student.StudentStatus.INACTIVE);
+        assertEquals(499, r.getAppliedCount());
+        assertEquals(1, published.size());
+        List<StudentEvent.Updated> u = ((StudentEvent.BulkUpdated) published.get(0)).updates();
+        assertEquals(499, u.size());
+        assertEquals(Student.StudentStatus.ACTIVE, u.get(0).before().getStatus());
+        assertEquals(Student.StudentStatus.INACTIVE, u.get(0).after().getStatus());
+        assertEquals(0, service.setStatusWhere("CS", null, Student.StudentStatus.INACTIVE).size());
+        assertEquals(1, published.size());
+    }
+
+    @Test @DisplayName("Live search fetches its matches with one repository call")
+    void liveSearchOneRead() {
+        for (int i = 3; i < 60; i++) db.put(String.format("S%04d", i), mk(String.format("S%04d", i), "Abena Mensah"));
+        service.buildSearchIndex();
+        List<Student> hits = service.liveSearch("mensah", 100);
+        assertEquals(58, hits.size());
+        assertEquals(List.of("findAllByIds"), reads);
+    }
+
+    @Test @DisplayName("Rows changed while the index builds are not brought back by the build's older snapshot")
+    void buildKeepsNewerChanges() {
+        midBuild = () -> {
+            Student renamed = mk("S0002", "Kwame Owusu");
+            service.updateStudents(List.of(renamed));
+            service.deleteStudents(List.of("S0003"));
+        };
+        db.put("S0003", mk("S0003", "Kofi Mensah"));
+        service.buildSearchIndex();
+        assertEquals(List.of(), service.liveSearch("kofi", 10));
+        assertEquals(List.of("S0002"), service.liveSearch("kwame", 10).stream().map(Student::getStudentId).toList());
+        assertEquals(List.of("S0001"), service.liveSearch("mensah", 10).stream().map(Student::getStudentId).toList());
+    }
+
+    @Test @DisplayName("Import commits full chunks and a partial last one, reporting invalid and duplicate rows in place")
+    void importChunks() throws IOException {
+        ImportResult r = importRows(2, mk("S1001", "Ama Badu"), invalid("S1002"), mk("S1003", "Yaw Boateng"),
+                mk("S0001", "Dup"), mk("S1005", "Esi Adjei"));
+        assertEquals(List.of(List.of("S1001"), List.of("S1003"), List.of("S1005")), writes);
+        assertEquals(3, r.getSuccessCount());
+        assertEquals(List.of("Row 3: " + ValidationError.describe(new ValidationService().check(invalid("S1002"))),
+                "Row 5: Duplicate ID 'S0001'"), r.getErrors());
+        assertEquals("Ama Mensah", db.get("S0001").getFullName());
+        assertEquals(List.of(List.of("S1001"), List.of("S1003"), List.of("S1005")), published.stream()
+                .map(e -> ((StudentEvent.BulkImported) e).students().stream().map(Student::getStudentId).toList()).toList());
+    }
+
+    @Test @DisplayName("A chunk whose batch insert fails is retried in halves, so only the bad row is lost")
+    void importChunkFallback() throws IOException {
+        unsavable = "S1003";
+        ImportResult r = importRows(3, mk("S1001", "Ama Badu"), mk("S1002", "Kwame Asante"), mk("S1003", "Yaw Boateng"),
+                mk("S1004", "Esi Adjei"));
+        assertEquals(List.of(List.of("S1001", "S1002", "S1003"), List.of("S1001"), List.of("S1002", "S1003"),
+                List.of("S1002"), List.of("S1003"), List.of("S1004")), writes);
+        assertEquals(3, r.getSuccessCount());
+        assertEquals(List.of("Row 4: Failed to save 'S1003'"), r.getErrors());
+        assertEquals(Set.of("S0001", "S0002", "S1001", "S1002", "S1004"), db.keySet());
+        assertEquals(List.of("S1001", "S1002"), ((StudentEvent.BulkImported) published.get(0)).students().stream()
+                .map(Student::getStudentId).toList());
+    }
+
+    @Test @DisplayName("An export whose read fails part way throws and deletes the partial file")
+    void failedExportDeletesFile() throws IOException {
+        Path dir = Files.createTempDirectory("export");
+        String dbPath = System.getProperty("sms.db.path");
+        System.setProperty("sms.db.path", dir.resolve("students.db").toString());
+        try {
+            failReadAfter = 1;
+            assertThrows(IOException.class, () -> service.exportAllToCsv("all.csv"));
+            assertFalse(Files.exists(dir.resolve("all.csv")));
+            failReadAfter = -1;
+            service.exportAllToCsv("all.csv");
+            assertEquals(3, Files.readAllLines(dir.resolve("all.csv")).size());
+        } finally {
+            if (dbPath == null) System.clearProperty("sms.db.path"); else System.setProperty("sms.db.path", dbPath);
+            Files.deleteIfExists(dir.resolve("all.csv"));
+            Files.delete(dir);
+        }
+    }
+
+    private ImportResult importRows(int batchSize, Student... rows) throws IOException {
+        Path f = Files.createTempFile("import", ".csv");
+        try {
+            StringBuilder csv = new StringBuilder("student_id,full_name,programme,level,gpa,email,phone_number,date_added,status\n");
+            for (Student s : rows)
+                csv.append(String.join(",", s.getStudentId(), s.getFullName(), s.getProgramme(), String.valueOf(s.getLevel()),
+                        String.valueOf(s.getGpa()), s.getEmail(), s.getPhoneNumber(), "", "")).append('\n');
+            Files.writeString(f, csv);
+            return service.importFromCsv(f.toFile(), batchSize, 1);
+        } finally { Files.delete(f); }
+    }
+}
@@ -83,4 +83,75 @@ class ValidationServiceTest {
 
     @Test @DisplayName("GPA threshold -1 is invalid")
     void invalidThreshold() { assertFalse(vs.isValidGpaThreshold(-1)); }
+
+    @Test @DisplayName("check() reports every broken rule as a bit")
+    void checkMask() {
+        Student s = new Student(); s.setStudentId("S-1"); s.setFullName("X"); s.setProgramme(" ");
+        s.setLevel(250); s.setGpa(4.2); s.setEmail("bad"); s.setPhoneNumber("12ab");
+        int m = vs.check(s);
+        for (ValidationError e : List.of(ValidationError.ID_LENGTH, ValidationError.ID_CHARS, ValidationError.NAME_LENGTH,
+                ValidationError.PROGRAMME_REQUIRED, ValidationError.LEVEL_INVALID, ValidationError.GPA_RANGE,
+                ValidationError.EMAIL_FORMAT, ValidationError.PHONE_DIGITS, ValidationError.PHONE_LENGTH))
+            assertTrue(e.in(m), e.name());
+        assertEquals(9, Integer.bitCount(m));
+        assertEquals(0, vs.check(new Student("STU001","Alice Smith","CS",300,3.5,"a@b.com","0241234567")));
+    }
+
+    @Test @DisplayName("validate() gives the same messages as the regex rules it replaced")
+    void sameMessagesAsRegexRules() {
+        Random r = new Random(3);
+        String alphabet = "aZ09 -.@\n\u00e9";
+        for (int n = 0; n < 20_000; n++) {
+            Student s = new Student();
+            s.setStudentId(r.nextInt(10)==0 ? null : random(r, alphabet, 24));
+            s.setFullName(random(r, alphabet, 64)); s.setProgramme(random(r, alphabet, 3));
+            s.setLevel(r.nextInt(9)*100 - (r.nextInt(5)==0 ? 50 : 0)); s.setGpa(r.nextInt(50)*0.1 - 0.3);
+            s.setEmail(random(r, alphabet, 8)); s.setPhoneNumber(random(r, "0123456789a ", 17));
+            assertEquals(legacy(s), vs.validate(s), "for " + s.getStudentId() + "|" + s.getFullName() + "|" + s.getPhoneNumber());
+        }
+    }
+
+    @Test @DisplayName("checkAll() fills one mask per row")
+    void bulk() {
+        List<Student> list = List.of(new Student("STU001","Alice Smith","CS",300,3.5,"a@b.com","0241234567"),
+                new Student("STU002","Bob 2","CS",300,3.5,"b@b.com","0241234567"));
+        int[] masks = new int[2];
+        assertEquals(1, vs.checkAll(list, masks));
+        assertEquals(0, masks[0]);
+        assertEquals(ValidationError.NAME_DIGITS.bit(), masks[1]);
+        assertEquals("Full name must not contain digits.", ValidationError.describe(masks[1]));
+    }
+
+    private static String random(Random r, String alphabet, int maxLen) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = r.nextInt(maxLen + 1); i > 0; i--) sb.append(alphabet.charAt(r.nextInt(alphabet.length())));
+        return sb.toString();
+    }
+
+    /** ValidationService.validate as it was before the check() engine. */
+    private static List<String> legacy(Student s) {
+        List<String> e = new ArrayList<>();
+        String id = s.getStudentId(), n = s.getFullName(), p = s.getProgramme(), em = s.getEmail(), ph = s.getPhoneNumber();
+        if (id==null||id.isBlank()) e.add("Student ID is required.");
+        else {
+            if (id.length()<4||id.length()>20) e.add("Student ID must be 4–20 characters.");
+            if (!id.matches("[A-Za-z0-9]+")) e.add("Student ID must contain only letters and digits.");
+        }
+        if (n==null||n.isBlank()) e.add("Full name is required.");
+        else {
+            if (n.length()<2||n.length()>60) e.add("Full name must be 2–60 characters.");
+            if (n.matches(".*\\d.*")) e.add("Full name must not contain digits.");
+        }
+        if (p==null||p.isBlank()) e.add("Programme is required.");
+        if (!Set.of(100,200,300,400,500,600,700).contains(s.getLevel())) e.add("Level must be one of: 100,200,300,400,500,600,700.");
+        if (s.getGpa()<0.0||s.getGpa()>4.0) e.add("GPA must be between 0.0 and 4.0.");
+        if (em==null||em.isBlank()) e.add("Email is required.");
+        else if (!em.contains("@")||!em.contains(".")) e.add("Email must contain '@' and '.'.");
+        if (ph==null||ph.isBlank()) e.add("Phone number is required.");
+        else {
+            if (!ph.matches("\\d+")) e.add("Phone number must contain digits only.");
+            if (ph.length()<10||ph.length()>15) e.add("Phone must be 10–15 digits.");
+        }
+        return e;
+    }
 }
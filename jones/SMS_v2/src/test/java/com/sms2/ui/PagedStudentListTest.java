@@ -0,0 +1,290 @@
+package com.sms2.ui;
+
+import com.sms2.domain.Student;
+import com.sms2.domain.StudentEvent;
+import com.sms2.domain.StudentOrder;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the list with a fake loader over a sorted in-memory table. Background loads and FX
+ * callbacks are queued and only run on {@link #drain()}, so tests can interleave them with changes.
+ */
+class PagedStudentListTest {
+    private static final int PAGE = 10;
+
+    private final TreeMap<String, Student> table = new TreeMap<>();
+    private final Deque<Runnable> queued = new ArrayDeque<>();
+    private final List<String> loads = new ArrayList<>();
+    private PagedStudentList list;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 45; i++) put(student(String.format("S%03d", i), String.format("Name %03d", i * 2)));
+        list = new PagedStudentList(this::load, table::size, queued::add, queued::add, PAGE, 8);
+        list.refresh(null);
+        drain();
+    }
+
+    @Test @DisplayName("Pages after the first are fetched by keyset from the previous page's last row")
+    void keysetPaging() {
+        assertEquals(45, list.size());
+        assertNull(list.get(0));
+        drain();
+        assertNull(list.get(PAGE));
+        drain();
+        assertEquals(List.of("offset 0", "after Name 018/S009"), loads);
+        assertTable();
+    }
+
+    @Test @DisplayName("An insert before every loaded page drops them and grows the list")
+    void insertBeforeLoadedPages() {
+        loadAll();
+        Student s = put(student("S900", "Name 000a"));
+        list.apply(List.of(new StudentEvent.Inserted(s)), null);
+        assertEquals(46, list.size());
+        assertNull(list.get(0));
+        assertTable();
+    }
+
+    @Test @DisplayName("Full pages that end before the smallest changed key keep their rows")
+    void insertAfterFullPage() {
+        loadAll();
+        Student s = put(student("S901", "Name 050a"));
+        list.apply(List.of(new StudentEvent.Inserted(s)), null);
+        assertNotNull(list.get(0));
+        assertNotNull(list.get(2 * PAGE - 1));
+        assertNull(list.get(2 * PAGE));
+        assertTable();
+    }
+
+    @Test @DisplayName("A bulk import and deletes in one batch move the size by the net count")
+    void mixedBatch() {
+        loadAll();
+        List<Student> added = List.of(put(student("S902", "Name 031")), put(student("S903", "Name 089")));
+        Student gone = table.remove(key(byId("S030")));
+        Student last = table.remove(key(byId("S044")));
+        list.apply(List.of(new StudentEvent.BulkImported(added),
+                new StudentEvent.Deleted(gone.getStudentId(), gone),
+                new StudentEvent.Deleted(last.getStudentId(), last)), null);
+        assertEquals(45, list.size());
+        assertNotNull(list.get(PAGE - 1));
+        assertNull(list.get(PAGE));
+        assertTable();
+    }
+
+    @Test @DisplayName("Deleting from the partial last page shrinks the list and re-fetches that page")
+    void deleteFromPartialPage() {
+        loadAll();
+        Student gone = table.remove(key(byId("S042")));
+        list.apply(List.of(new StudentEvent.Deleted(gone.getStudentId(), gone)), null);
+        assertEquals(44, list.size());
+        assertNotNull(list.get(3 * PAGE));
+        assertNull(list.get(4 * PAGE));
+        assertTable();
+    }
+
+    @Test @DisplayName("An update that keeps the sort key replaces the loaded row without a reload")
+    void updateInPlace() {
+        loadAll();
+        Student before = byId("S012"), after = new Student(before);
+        after.setGpa(1.5);
+        put(after);
+        int loaded = loads.size();
+        list.apply(List.of(new StudentEvent.Updated(before, after)), null);
+        assertEquals(1.5, list.get(12).getGpa());
+        assertEquals(loaded, loads.size());
+        assertTable();
+    }
+
+    @Test @DisplayName("An update that changes the name moves the row and leaves the size alone")
+    void updateMovesRow() {
+        loadAll();
+        Student before = byId("S040"), after = new Student(before);
+        after.setFullName("Name 001");
+        table.remove(key(before));
+        put(after);
+        list.apply(List.of(new StudentEvent.Updated(before, after)), null);
+        assertEquals(45, list.size());
+        assertNull(list.get(1));
+        assertTable();
+    }
+
+    @Test @DisplayName("A bulk status change replaces every loaded row in one list change")
+    void bulkUpdateInPlace() {
+        loadAll();
+        List<StudentEvent.Updated> updates = new ArrayList<>();
+        for (Student before : List.copyOf(table.values())) {
+            Student after = new Student(before);
+            after.setStatus(Student.StudentStatus.INACTIVE);
+            put(after);
+            updates.add(new StudentEvent.Updated(before, after));
+        }
+        int[] changes = {0};
+        list.addListener((ListChangeListener<Student>) c -> changes[0]++);
+        int loaded = loads.size();
+        list.apply(List.of(new StudentEvent.BulkUpdated(updates)), null);
+        assertEquals(1, changes[0]);
+        for (int i = 0; i < list.size(); i++) assertEquals(Student.StudentStatus.INACTIVE, list.get(i).getStatus());
+        assertEquals(loaded, loads.size());
+    }
+
+    @Test @DisplayName("Bulk deletes and key-changing bulk updates drop the pages they reach in one list change")
+    void bulkDeleteAndMove() {
+        loadAll();
+        List<StudentEvent.Deleted> deletes = new ArrayList<>();
+        for (String id : List.of("S025", "S030", "S044")) {
+            Student gone = table.remove(key(byId(id)));
+            deletes.add(new StudentEvent.Deleted(id, gone));
+        }
+        Student before = byId("S035"), after = new Student(before);
+        after.setFullName("Name 099");
+        table.remove(key(before));
+        put(after);
+        int[] changes = {0};
+        list.addListener((ListChangeListener<Student>) c -> changes[0]++);
+        list.apply(List.of(new StudentEvent.BulkDeleted(deletes),
+                new StudentEvent.BulkUpdated(List.of(new StudentEvent.Updated(before, after)))), null);
+        assertEquals(1, changes[0]);
+        assertEquals(42, list.size());
+        assertNotNull(list.get(2 * PAGE - 1));
+        assertNull(list.get(2 * PAGE));
+        assertTable();
+    }
+
+    @Test @DisplayName("A bulk event without old rows falls back to a refresh")
+    void bulkWithoutBefore() {
+        loadAll();
+        Student gone = table.remove(key(byId("S044")));
+        list.apply(List.of(new StudentEvent.BulkDeleted(List.of(new StudentEvent.Deleted(gone.getStudentId(), null)))), null);
+        assertEquals(45, list.size());
+        drain();
+        assertEquals(44, list.size());
+        assertTable();
+    }
+
+    @Test @DisplayName("A load started before a change is discarded when it arrives")
+    void staleLoadDiscarded() {
+        assertNull(list.get(PAGE * 3));
+        Runnable inFlight = queued.poll();
+        Student gone = table.remove(key(byId("S000")));
+        list.apply(List.of(new StudentEvent.Deleted(gone.getStudentId(), gone)), null);
+        inFlight.run();
+        drain();
+        assertNull(list.get(PAGE * 3));
+        assertTable();
+    }
+
+    @Test @DisplayName("Events without the old row, or arriving during a refresh, fall back to a refresh")
+    void fallsBackToRefresh() {
+        loadAll();
+        Student gone = table.remove(key(byId("S005")));
+        boolean[] done = {false};
+        list.apply(List.of(new StudentEvent.Deleted(gone.getStudentId(), null)), () -> done[0] = true);
+        assertFalse(done[0]);
+        Student s = put(student("S904", "Name 007"));
+        list.apply(List.of(new StudentEvent.Inserted(s)), null);
+        drain();
+        assertFalse(done[0], "superseded refresh must not call back");
+        assertEquals(45, list.size());
+        assertTable();
+    }
+
+    @Test @DisplayName("Switching to GPA order re-pages by keyset on (gpa, student_id)")
+    void gpaOrderPaging() {
+        for (Student s : List.copyOf(table.values())) s.setGpa((Integer.parseInt(s.getStudentId().substring(1)) * 7 % 9) * 0.5);
+        list.setOrder(StudentOrder.GPA_DESC, null);
+        drain();
+        loads.clear();
+        loadAll();
+        assertEquals(List.of("offset 0", "after 3.5/S001", "after 2.5/S002", "after 1.5/S003", "after 0.5/S004"), loads);
+        assertEquals(4.0, list.get(0).getGpa());
+        assertTable();
+        list.setOrder(StudentOrder.GPA_ASC, null);
+        drain();
+        assertNull(list.get(0));
+        drain();
+        assertEquals(0.0, list.get(0).getGpa());
+        assertTable();
+    }
+
+    @Test @DisplayName("In GPA order a GPA change moves the row, and a rename is replaced in place")
+    void gpaOrderUpdates() {
+        list.setOrder(StudentOrder.GPA_ASC, null);
+        drain();
+        Student before = byId("S020"), after = new Student(before);
+        after.setGpa(1.0);
+        table.remove(key(before));
+        put(after);
+        loadAll();
+        assertEquals("S020", list.get(0).getStudentId());
+        Student b2 = byId("S030"), renamed = new Student(b2);
+        renamed.setFullName("Zed");
+        table.remove(key(b2));
+        put(renamed);
+        int loaded = loads.size();
+        list.apply(List.of(new StudentEvent.Updated(b2, renamed)), null);
+        assertEquals(loaded, loads.size());
+        Student moved = new Student(after);
+        moved.setGpa(3.5);
+        table.remove(key(after));
+        put(moved);
+        list.apply(List.of(new StudentEvent.Updated(after, moved)), null);
+        assertNull(list.get(0));
+        assertTable();
+        assertEquals("S020", list.get(44).getStudentId());
+    }
+
+    // ── helpers ──
+
+    private List<Student> load(StudentOrder order, Student after, int offset, int limit) {
+        List<Student> all = sorted(order);
+        int from = offset;
+        if (after != null) {
+            loads.add("after " + (order == StudentOrder.NAME ? after.getFullName() : after.getGpa()) + "/" + after.getStudentId());
+            from = (int) all.stream().filter(s -> order.comparator().compare(s, after) <= 0).count();
+        } else loads.add("offset " + offset);
+        List<Student> out = new ArrayList<>();
+        for (int i = from; i < Math.min(all.size(), from + limit); i++) out.add(new Student(all.get(i)));
+        return out;
+    }
+
+    private void drain() { for (Runnable r; (r = queued.poll()) != null; ) r.run(); }
+
+    private void loadAll() {
+        for (int i = 0; i < list.size(); i += PAGE) { list.get(i); drain(); }
+    }
+
+    /** Reads every row, fetching pages as needed, and checks it against the table. */
+    private void assertTable() {
+        assertEquals(table.size(), list.size());
+        List<Student> want = sorted(list.getOrder());
+        for (int i = 0; i < want.size(); i++) {
+            Student got = list.get(i);
+            if (got == null) { drain(); got = list.get(i); }
+            assertNotNull(got);
+            assertEquals(want.get(i).getStudentId(), got.getStudentId(), "row " + i);
+            assertEquals(want.get(i).getGpa(), got.getGpa(), 0, "gpa of row " + i);
+        }
+    }
+
+    private Student put(Student s) { table.put(key(s), s); return s; }
+
+    private List<Student> sorted(StudentOrder order) {
+        List<Student> all = new ArrayList<>(table.values());
+        all.sort(order.comparator());
+        return all;
+    }
+
+    private Student byId(String id) {
+        return table.values().stream().filter(s -> s.getStudentId().equals(id)).findFirst().orElseThrow();
+    }
+
+    private static String key(Student s) { return s.getFullName() + "\u0000" + s.getStudentId(); }
+
+    private static Student student(String id, String name) {
+        return new Student(id, name, "Computer Science", 100, 3.0, "a@b.com", "0241234567");
+    }
+}
@@ -0,0 +1,58 @@
+package com.sms2.ui;
+
+import com.sms2.util.TaskExecutor;
+import org.junit.jupiter.api.*;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuerySchedulerTest {
+    private final TaskExecutor tasks = new TaskExecutor(1, 1);
+
+    @AfterEach void stop() { tasks.shutdown(1_000); }
+
+    @Test @DisplayName("Keystrokes inside the debounce window run only the last query")
+    void debounces() throws InterruptedException {
+        QueryScheduler q = new QueryScheduler("test.debounce", tasks, Runnable::run);
+        List<String> ran = new CopyOnWriteArrayList<>(), shown = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        for (String text : List.of("a", "al", "ali", "alic", "alice"))
+            q.submit(200, () -> { ran.add(text); return text; }, r -> { shown.add(r); done.countDown(); });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("alice"), ran);
+        assertEquals(List.of("alice"), shown);
+        assertEquals(4, q.cancelledCount());
+        assertEquals(0, q.queueDepth());
+    }
+
+    @Test @DisplayName("A running query is interrupted when superseded and its result is never published")
+    void supersedesRunning() throws InterruptedException {
+        QueryScheduler q = new QueryScheduler("test.supersede", tasks, Runnable::run);
+        List<String> shown = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1), interrupted = new CountDownLatch(1), done = new CountDownLatch(1);
+        q.submit(0, () -> {
+            started.countDown();
+            try { Thread.sleep(10_000); } catch (InterruptedException e) { interrupted.countDown(); }
+            return "old";
+        }, shown::add);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1, q.queueDepth());
+        q.submit(0, () -> "new", r -> { shown.add(r); done.countDown(); });
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(List.of("new"), shown);
+        assertEquals(1, q.cancelledCount());
+    }
+
+    @Test @DisplayName("cancel() drops a queued query without starting another")
+    void cancel() throws InterruptedException {
+        QueryScheduler q = new QueryScheduler("test.cancel", tasks, Runnable::run);
+        List<String> ran = new CopyOnWriteArrayList<>();
+        q.submit(100, () -> { ran.add("x"); return "x"; }, r -> fail("cancelled query published"));
+        q.cancel();
+        assertEquals(0, q.queueDepth());
+        Thread.sleep(300);
+        assertTrue(ran.isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+package com.sms2.util;
+
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Runs against the real logger and file; the shutdown test goes last because it stops the writer thread. */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class AppLoggerTest {
+
+    /** Lines containing {@code tag} in the current file and its first backup, oldest first. */
+    private static List<String> linesWith(String tag) throws IOException {
+        List<String> out = new ArrayList<>();
+        Path log = AppLogger.file();
+        for (Path p : List.of(log.resolveSibling(log.getFileName() + ".1"), log)) {
+            if (!Files.exists(p)) continue;
+            for (String line : Files.readAllLines(p, StandardCharsets.UTF_8)) if (line.contains(tag)) out.add(line);
+        }
+        return out;
+    }
+
+    @Test @Order(1) @DisplayName("Concurrent producers lose nothing and each one's records stay in order")
+    void multiProducerOrder() throws Exception {
+        String tag = "mp-" + UUID.randomUUID();
+        int producers = 4, each = 5_000;
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        List<Future<?>> done = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            done.add(pool.submit(() -> {
+                go.await();
+                for (int i = 0; i < each; i++) AppLogger.info(tag + " p" + id + " " + i);
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> f : done) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+        AppLogger.flush(10, TimeUnit.SECONDS);
+
+        int[] next = new int[producers];
+        for (String line : linesWith(tag)) {
+            String[] parts = line.substring(line.indexOf(tag) + tag.length() + 2).split(" ");
+            int p = Integer.parseInt(parts[0]), seq = Integer.parseInt(parts[1]);
+            assertEquals(next[p], seq, "producer " + p);
+            next[p]++;
+        }
+        for (int p = 0; p < producers; p++) assertEquals(each, next[p], "records from producer " + p);
+    }
+
+    @Test @Order(2) @DisplayName("An unknown overflow policy falls back to BLOCK instead of failing class init")
+    void parseOverflow() {
+        assertEquals(AppLogger.Overflow.DROP, AppLogger.parseOverflow(" drop "));
+        assertEquals(AppLogger.Overflow.SYNC, AppLogger.parseOverflow("Sync"));
+        assertEquals(AppLogger.Overflow.BLOCK, AppLogger.parseOverflow("drpo"));
+        assertEquals(AppLogger.Overflow.BLOCK, AppLogger.parseOverflow(""));
+    }
+
+    @Test @Order(3) @DisplayName("Shutdown writes everything still buffered; later records are written synchronously")
+    void shutdownFlushes() throws IOException {
+        String tag = "sd-" + UUID.randomUUID();
+        for (int i = 0; i < 3_000; i++) AppLogger.warn(tag + " " + i);
+        AppLogger.shutdown();
+        assertEquals(3_000, linesWith(tag).size());
+        AppLogger.error(tag + " after");
+        List<String> lines = linesWith(tag);
+        assertEquals(3_001, lines.size());
+        assertTrue(lines.get(3_000).contains("[ERROR] " + tag + " after"));
+    }
+}
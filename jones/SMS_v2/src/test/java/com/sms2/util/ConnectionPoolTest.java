@@ -0,0 +1,175 @@
+package com.sms2.util;
+
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.*;
+import java.sql.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Runs the pool against a throwaway database file; a second thread stands in for other callers. */
+class ConnectionPoolTest {
+    private static final long TIMEOUT_MS = 300;
+
+    private final ExecutorService other = Executors.newCachedThreadPool();
+    private Path dir;
+    private ConnectionPool pool;
+
+    @BeforeEach void setUp() throws Exception {
+        dir = Files.createTempDirectory("pool");
+        pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("pool.db"), 2, TIMEOUT_MS, 8, c -> {
+            try (Statement s = c.createStatement()) {
+                s.execute("PRAGMA journal_mode=WAL");
+                s.execute("CREATE TABLE t(x INTEGER)");
+            }
+        });
+    }
+
+    @AfterEach void tearDown() throws IOException {
+        other.shutdownNow();
+        pool.close();
+        try (var files = Files.list(dir)) { for (Path p : files.toList()) Files.delete(p); }
+        Files.delete(dir);
+    }
+
+    @Test @DisplayName("Only maxReaders readers are out at once; a returned one can be leased again")
+    void readerPermitLimit() throws Exception {
+        Connection a = pool.leaseReader(), b = pool.leaseReader();
+        assertEquals(2, pool.stats().getActiveReaders());
+        assertInstanceOf(SQLTimeoutException.class, failure(leaseElsewhere(false)));
+        assertEquals(1, pool.stats().getTimeouts());
+        Future<Boolean> waiting = leaseElsewhere(false);
+        a.close();
+        assertNull(failure(waiting));
+        b.close();
+        assertEquals(0, pool.stats().getActiveReaders());
+        assertEquals(2, pool.stats().getIdleReaders());
+    }
+
+    @Test @DisplayName("A lease that cannot be had within the timeout fails instead of waiting forever")
+    void leaseTimeout() throws Exception {
+        try (Connection w = pool.leaseWriter()) {
+            long start = System.nanoTime();
+            assertInstanceOf(SQLTimeoutException.class, failure(leaseElsewhere(true)));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= TIMEOUT_MS);
+            assertEquals(0, countElsewhere(), "readers still work while the writer is out");
+        }
+        assertNull(failure(leaseElsewhere(true)));
+        assertEquals(1, pool.stats().getTimeouts());
+    }
+
+    @Test @DisplayName("The owning thread can lease the writer again, and its reads see its own uncommitted rows")
+    void writerReentrant() throws Exception {
+        Connection outer = pool.leaseWriter();
+        outer.setAutoCommit(false);
+        insert(outer);
+        long version = pool.writeVersion();
+        try (Connection inner = pool.leaseWriter(); Connection read = pool.leaseReader()) {
+            assertFalse(inner.getAutoCommit());
+            assertEquals(1, count(read));
+        }
+        assertEquals(version, pool.writeVersion());
+        assertEquals(1, pool.stats().getActiveWriters());
+        assertEquals(0, countElsewhere());
+        assertInstanceOf(SQLTimeoutException.class, failure(leaseElsewhere(true)));
+        outer.commit();
+        outer.close();
+        assertEquals(version + 1, pool.writeVersion());
+        assertEquals(0, pool.stats().getActiveWriters());
+        assertEquals(1, countElsewhere());
+    }
+
+    @Test @DisplayName("A lease closed by an exception is rolled back and returned")
+    void releaseAfterException() throws Exception {
+        SQLException e = assertThrows(SQLException.class, () -> {
+            try (Connection c = pool.leaseWriter()) {
+                c.setAutoCommit(false);
+                insert(c);
+                throw new SQLException("boom");
+            }
+        });
+        assertEquals("boom", e.getMessage());
+        assertEquals(0, pool.stats().getActiveWriters());
+        try (Connection c = pool.leaseWriter()) {
+            assertTrue(c.getAutoCommit());
+            assertEquals(0, count(c));
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThrows(SQLException.class, () -> {
+                try (Connection c = pool.leaseReader(); Statement s = c.createStatement()) { s.executeQuery("SELECT nope FROM t"); }
+            });
+        }
+        assertEquals(0, pool.stats().getActiveReaders());
+        try (Connection a = pool.leaseReader(); Connection b = pool.leaseReader()) { assertEquals(2, pool.stats().getActiveReaders()); }
+    }
+
+    @Test @DisplayName("A returned lease refuses further use and closing it again is harmless")
+    void returnedLease() throws Exception {
+        Connection c = pool.leaseReader();
+        c.close();
+        assertTrue(c.isClosed());
+        SQLException e = assertThrows(SQLException.class, c::createStatement);
+        assertEquals("Connection lease already returned to the pool", e.getMessage());
+        c.close();
+        assertEquals(0, pool.stats().getActiveReaders());
+        assertEquals(1, pool.stats().getIdleReaders());
+    }
+
+    @Test @DisplayName("Closing the pool refuses new leases; leases already out keep working until returned")
+    void closeWhileLeased() throws Exception {
+        Connection r = pool.leaseReader();
+        Connection w = pool.leaseWriter();
+        pool.close();
+        SQLException e = assertThrows(SQLException.class, pool::leaseReader);
+        assertEquals("Connection pool is closed", e.getMessage());
+        assertThrows(SQLException.class, pool::leaseWriter);
+        assertInstanceOf(SQLException.class, failure(leaseElsewhere(false)));
+        assertEquals(0, count(r));
+        r.close();
+        w.close();
+        assertTrue(r.isClosed());
+        assertEquals(0, pool.stats().getActiveReaders());
+        assertEquals(0, pool.stats().getIdleReaders());
+        assertEquals(0, pool.stats().getActiveWriters());
+    }
+
+    @Test @DisplayName("A plain statement from a lease can be cancelled while its results are open, and not once closed")
+    void plainStatementCancellable() throws Exception {
+        try (Connection c = pool.leaseReader()) {
+            Statement s = c.createStatement();
+            assertFalse(StatementCache.cancel(Thread.currentThread()), "nothing runs before execute");
+            ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM t");
+            assertTrue(StatementCache.cancel(Thread.currentThread()));
+            rs.close();
+            s.close();
+            assertFalse(StatementCache.cancel(Thread.currentThread()));
+        }
+    }
+
+    // ── helpers ──
+
+    private Future<Boolean> leaseElsewhere(boolean writer) {
+        return other.submit(() -> { try (Connection c = writer ? pool.leaseWriter() : pool.leaseReader()) { return c.isClosed(); } });
+    }
+
+    /** What the lease on another thread threw, or null if it succeeded. */
+    private static Throwable failure(Future<?> f) throws Exception {
+        try { f.get(5, TimeUnit.SECONDS); return null; }
+        catch (ExecutionException e) { return e.getCause(); }
+    }
+
+    private int countElsewhere() throws Exception {
+        return other.submit(() -> { try (Connection c = pool.leaseReader()) { return count(c); } }).get(5, TimeUnit.SECONDS);
+    }
+
+    private static int count(Connection c) throws SQLException {
+        try (Statement s = c.createStatement(); ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM t")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void insert(Connection c) throws SQLException {
+        try (Statement s = c.createStatement()) { s.executeUpdate("INSERT INTO t VALUES (1)"); }
+    }
+}
@@ -0,0 +1,133 @@
+package com.sms2.util;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTokenizerTest {
+
+    @TempDir Path dir;
+
+    private List<String[]> tokenize(String csv) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        CsvTokenizer t = new CsvTokenizer(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)));
+        while (t.next()) rows.add(t.toArray());
+        return rows;
+    }
+
+    @Test @DisplayName("Plain fields are split and trimmed")
+    void plain() throws IOException {
+        assertArrayEquals(new String[]{"STU001","Alice","300"}, tokenize(" STU001 ,Alice, 300\n").get(0));
+    }
+
+    @Test @DisplayName("Quoted field keeps commas")
+    void quotedComma() throws IOException {
+        assertArrayEquals(new String[]{"a","Mensah, Alice","b"}, tokenize("a,\"Mensah, Alice\",b").get(0));
+    }
+
+    @Test @DisplayName("Quoted fields are trimmed like plain ones")
+    void quotedTrimmed() throws IOException {
+        assertArrayEquals(new String[]{"Alice","Mensah, Bob"}, tokenize("\" Alice \", \" Mensah, Bob\t\"\n").get(0));
+    }
+
+    @Test @DisplayName("toArray(max) decodes only the leading fields")
+    void toArrayLimit() throws IOException {
+        CsvTokenizer t = new CsvTokenizer(ByteBuffer.wrap("a,b,c,d\nx\n".getBytes(StandardCharsets.UTF_8)));
+        t.next();
+        assertArrayEquals(new String[]{"a","b"}, t.toArray(2));
+        t.next();
+        assertArrayEquals(new String[]{"x"}, t.toArray(2));
+    }
+
+    @Test @DisplayName("Doubled quotes are unescaped")
+    void escapedQuote() throws IOException {
+        assertEquals("say \"hi\"", tokenize("\"say \"\"hi\"\"\",x\r\n").get(0)[0]);
+    }
+
+    @Test @DisplayName("Quoted field may span lines")
+    void embeddedNewline() throws IOException {
+        List<String[]> rows = tokenize("1,\"line1\nline2\"\n2,x\n");
+        assertEquals(2, rows.size());
+        assertEquals("line1\nline2", rows.get(0)[1]);
+        assertEquals("2", rows.get(1)[0]);
+    }
+
+    @Test @DisplayName("Trailing comma yields empty last field")
+    void trailingComma() throws IOException { assertEquals(3, tokenize("a,b,").get(0).length); }
+
+    @Test @DisplayName("CRLF, CR and LF all end records")
+    void lineEndings() throws IOException { assertEquals(3, tokenize("a\r\nb\rc\n").size()); }
+
+    @Test @DisplayName("Records crossing a mapping window are remapped")
+    void windowBoundary() throws IOException {
+        Path f = dir.resolve("w.csv");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) sb.append("ID").append(i).append(",\"Name, ").append(i).append("\"\n");
+        Files.writeString(f, sb.toString());
+        int n = 0;
+        try (CsvTokenizer t = new CsvTokenizer(FileChannel.open(f, StandardOpenOption.READ), 64)) {
+            while (t.next()) { assertEquals("ID"+n, t.field(0)); assertEquals("Name, "+n, t.field(1)); n++; }
+        }
+        assertEquals(200, n);
+    }
+
+    @Test @DisplayName("forEachRow skips header and blank lines")
+    void forEachRow() throws IOException {
+        Path f = dir.resolve("r.csv");
+        Files.writeString(f, "H1,H2\nA,1\n\n   \nB,2\n");
+        List<Integer> rows = new ArrayList<>();
+        CsvHelper.forEachRow(f.toFile(), (row, fields) -> rows.add(row));
+        assertEquals(List.of(2,3), rows);
+    }
+
+    @Test @DisplayName("forEachRow counts a multi-line quoted record as one row")
+    void forEachRowMultiLine() throws IOException {
+        Path f = dir.resolve("m.csv");
+        Files.writeString(f, "H1,H2\nA,\"one\ntwo\"\nB,2\n");
+        Map<Integer, String> rows = new LinkedHashMap<>();
+        CsvHelper.forEachRow(f.toFile(), (row, fields) -> rows.put(row, fields[0]));
+        assertEquals(Map.of(2, "A", 3, "B"), rows);
+    }
+
+    @Test @DisplayName("forEachRow streams every row in order and readCsv collects the same rows")
+    void forEachRowStreams() throws IOException {
+        Path f = dir.resolve("big.csv");
+        StringBuilder sb = new StringBuilder("id,name\n");
+        for (int i = 0; i < 50_000; i++) sb.append("S").append(i).append(",\"Name, ").append(i).append("\"\n");
+        Files.writeString(f, sb);
+        int[] next = {0};
+        int n = CsvHelper.forEachRow(f.toFile(), (row, fields) -> {
+            assertEquals(next[0] + 2, row);
+            assertArrayEquals(new String[]{"S" + next[0], "Name, " + next[0]}, fields);
+            next[0]++;
+        });
+        assertEquals(50_000, n);
+        assertEquals(50_000, next[0]);
+        List<String[]> all = CsvHelper.readCsv(f.toFile());
+        assertEquals(50_000, all.size());
+        assertArrayEquals(new String[]{"S49999", "Name, 49999"}, all.get(49_999));
+    }
+
+    @Test @DisplayName("A visitor that throws stops the read; empty and header-only files visit nothing")
+    void forEachRowStops() throws IOException {
+        Path f = dir.resolve("s.csv");
+        Files.writeString(f, "h\na\nb\nc\n");
+        List<String> seen = new ArrayList<>();
+        assertThrows(IllegalStateException.class, () -> CsvHelper.forEachRow(f.toFile(), (row, fields) -> {
+            seen.add(fields[0]);
+            if (row == 3) throw new IllegalStateException("stop");
+        }));
+        assertEquals(List.of("a", "b"), seen);
+        Files.writeString(f, "");
+        assertEquals(0, CsvHelper.forEachRow(f.toFile(), (row, fields) -> fail("no rows expected")));
+        Files.writeString(f, "h1,h2\n");
+        assertEquals(0, CsvHelper.forEachRow(f.toFile(), (row, fields) -> fail("no rows expected")));
+        assertEquals(List.of(), CsvHelper.readCsv(f.toFile()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.sms2.util;
+
+import org.junit.jupiter.api.*;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBusTest {
+
+    @Test @DisplayName("Subscribers get events in order; a failing one does not stop the rest")
+    void publish() {
+        EventBus<String> bus = new EventBus<>();
+        List<String> got = new ArrayList<>();
+        bus.subscribe(e -> { throw new IllegalStateException("broken subscriber"); });
+        Runnable cancel = bus.subscribe(got::add);
+        bus.publish("a"); bus.publish("b");
+        cancel.run();
+        bus.publish("c");
+        assertEquals(List.of("a", "b"), got);
+    }
+
+    @Test @DisplayName("A burst is delivered as a few batches, complete and in order")
+    void coalesces() throws InterruptedException {
+        ExecutorService target = Executors.newSingleThreadExecutor();
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        EventCoalescer<Integer> c = new EventCoalescer<>(target, 50, b -> {
+            batches.add(b);
+            if (b.get(b.size() - 1) == 9_999) done.countDown();
+        });
+        for (int i = 0; i < 10_000; i++) c.accept(i);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        target.shutdown();
+        List<Integer> all = new ArrayList<>();
+        batches.forEach(all::addAll);
+        assertEquals(10_000, all.size());
+        for (int i = 0; i < all.size(); i++) assertEquals(i, (int) all.get(i));
+        assertTrue(batches.size() <= 3, "batches: " + batches.size());
+    }
+}
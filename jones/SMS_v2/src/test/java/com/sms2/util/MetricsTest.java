@@ -0,0 +1,49 @@
+package com.sms2.util;
+
+import org.junit.jupiter.api.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    interface Work { int run(int n); void fail(); }
+
+    @Test @DisplayName("Histogram percentiles stay within 3% of the exact values")
+    void percentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        Random r = new Random(1);
+        long[] v = new long[50_000];
+        for (int i = 0; i < v.length; i++) h.record(v[i] = (long) Math.exp(r.nextDouble() * 25));
+        Arrays.sort(v);
+        LatencyHistogram.Snapshot s = h.snapshot();
+        for (double q : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            long exact = v[(int) Math.ceil(q * v.length) - 1];
+            assertTrue(s.percentile(q) >= exact && s.percentile(q) <= exact * 1.035, "q=" + q);
+        }
+        assertEquals(v[v.length - 1], s.getMax());
+        assertEquals(v.length, s.getCount());
+    }
+
+    @Test @DisplayName("Bucket bounds cover every value exactly once")
+    void buckets() {
+        for (long x : new long[]{0, 1, 31, 32, 33, 63, 64, 65, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int b = LatencyHistogram.bucket(x);
+            assertTrue(x <= LatencyHistogram.highestIn(b), "upper " + x);
+            assertTrue(b == 0 || x > LatencyHistogram.highestIn(b - 1), "lower " + x);
+        }
+    }
+
+    @Test @DisplayName("Instrumented proxy times each method and counts errors")
+    void instrument() {
+        Work w = Metrics.instrument(Work.class, new Work() {
+            public int run(int n) { return n * 2; }
+            public void fail() { throw new IllegalStateException("boom"); }
+        }, "test.work");
+        for (int i = 0; i < 10; i++) assertEquals(2 * i, w.run(i));
+        assertThrows(IllegalStateException.class, w::fail);
+        assertEquals(10, Metrics.timer("test.work.run").getCount());
+        assertEquals(1, Metrics.timer("test.work.fail").getCount());
+        assertEquals(1, Metrics.counter("test.work.fail.errors").get());
+        assertTrue(Metrics.report().contains("test.work.run"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.sms2.util;
+
+import org.junit.jupiter.api.*;
+import java.sql.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigrationsTest {
+
+    private Connection conn;
+
+    @BeforeEach void setUp() throws SQLException { conn = DriverManager.getConnection("jdbc:sqlite::memory:"); }
+
+    @AfterEach void tearDown() throws SQLException { conn.close(); }
+
+    private List<String> plan(String sql) throws SQLException {
+        List<String> steps = new ArrayList<>();
+        try (Statement s = conn.createStatement(); ResultSet rs = s.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) steps.add(rs.getString("detail"));
+        }
+        return steps;
+    }
+
+    private void assertUsesIndex(String index, String sql) throws SQLException {
+        List<String> p = plan(sql);
+        assertTrue(p.stream().anyMatch(d -> d.contains(index)), "expected " + index + " in " + p);
+        assertTrue(p.stream().noneMatch(d -> d.contains("TEMP B-TREE")), "unexpected sort in " + p);
+    }
+
+    @Test @DisplayName("Fresh database migrates to the latest version, second run is a no-op")
+    void migratesOnce() throws SQLException {
+        assertEquals(SchemaMigrations.latestVersion(), SchemaMigrations.migrate(conn));
+        assertEquals(SchemaMigrations.latestVersion(), SchemaMigrations.currentVersion(conn));
+        assertEquals(0, SchemaMigrations.migrate(conn));
+    }
+
+    @Test @DisplayName("Unversioned legacy database upgrades and keeps its rows searchable")
+    void upgradesLegacy() throws SQLException {
+        try (Statement s = conn.createStatement()) {
+            s.execute("CREATE TABLE students (student_id TEXT PRIMARY KEY, full_name TEXT NOT NULL, programme TEXT NOT NULL, "
+                    + "level INTEGER NOT NULL, gpa REAL NOT NULL, email TEXT NOT NULL, phone_number TEXT NOT NULL, "
+                    + "date_added TEXT NOT NULL, status TEXT NOT NULL DEFAULT 'ACTIVE')");
+            s.execute("INSERT INTO students VALUES ('S1','Kwame Mensah','CS',100,3.1,'k@u.edu','0241234567','2024-01-01','ACTIVE')");
+        }
+        SchemaMigrations.migrate(conn);
+        try (Statement s = conn.createStatement();
+             ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM students_fts WHERE students_fts MATCH '\"mensa\"'")) {
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test @DisplayName("Filter with all criteria seeks the filter index without sorting")
+    void filterPlan() throws SQLException {
+        SchemaMigrations.migrate(conn);
+        assertUsesIndex("idx_students_filter",
+                "SELECT * FROM students WHERE 1=1 AND programme='CS' AND level=100 AND status='ACTIVE' ORDER BY full_name ASC");
+    }
+
+    @Test @DisplayName("Distinct programmes come from the covering index")
+    void programmesPlan() throws SQLException {
+        SchemaMigrations.migrate(conn);
+        assertUsesIndex("COVERING INDEX idx_students_filter", "SELECT DISTINCT programme FROM students ORDER BY programme ASC");
+    }
+
+    @Test @DisplayName("Name-ordered listing and keyset pages use the name index")
+    void namePlans() throws SQLException {
+        SchemaMigrations.migrate(conn);
+        assertUsesIndex("idx_students_name", "SELECT * FROM students ORDER BY full_name ASC");
+        assertUsesIndex("idx_students_name",
+                "SELECT * FROM students WHERE (full_name, student_id) > ('A','S1') ORDER BY full_name, student_id LIMIT 200");
+    }
+
+    @Test @DisplayName("GPA-ordered pages seek the GPA index in both directions without sorting")
+    void gpaPlans() throws SQLException {
+        SchemaMigrations.migrate(conn);
+        assertUsesIndex("idx_students_gpa", "SELECT * FROM students ORDER BY gpa, student_id LIMIT 200");
+        assertUsesIndex("idx_students_gpa",
+                "SELECT * FROM students WHERE (gpa, student_id) > (2.5,'S1') ORDER BY gpa, student_id LIMIT 200");
+        assertUsesIndex("idx_students_gpa",
+                "SELECT * FROM students WHERE (gpa, student_id) < (2.5,'S1') ORDER BY gpa DESC, student_id DESC LIMIT 200");
+    }
+
+    @Test @DisplayName("Name-ordered pages seek the NOCASE name index without a sort")
+    void nameNocasePlans() throws SQLException {
+        SchemaMigrations.migrate(conn);
+        assertUsesIndex("idx_students_name_nocase", "SELECT * FROM students ORDER BY full_name COLLATE NOCASE, student_id LIMIT 200");
+        assertUsesIndex("idx_students_name_nocase", "SELECT * FROM students WHERE full_name COLLATE NOCASE >= 'ama' "
+                + "AND (full_name COLLATE NOCASE > 'ama' OR student_id > 'S1') ORDER BY full_name COLLATE NOCASE, student_id LIMIT 200");
+    }
+
+    @Test @DisplayName("student_stats tracks inserts, updates and deletes")
+    void statsFollowWrites() throws SQLException {
+        SchemaMigrations.migrate(conn);
+        try (Statement s = conn.createStatement()) {
+            insert(s, "'S1','A','CS',100,3.0,'a@u.edu','0241234567','2024-01-01','ACTIVE'");
+            insert(s, "'S2','B','CS',100,2.0,'b@u.edu','0241234567','2024-01-01','INACTIVE'");
+            insert(s, "'S3','C','Math',200,4.0,'c@u.edu','0241234567','2024-01-01','ACTIVE'");
+            s.execute("UPDATE students SET programme='Math', level=200, status='ACTIVE' WHERE student_id='S2'");
+            s.execute("DELETE FROM students WHERE student_id='S1'");
+            String stats = "SELECT programme, level, total, active, inactive, gpa_sum FROM student_stats ORDER BY 1, 2";
+            String truth = "SELECT programme, level, COUNT(*), SUM(status='ACTIVE'), SUM(status='INACTIVE'), SUM(gpa) FROM students GROUP BY 1, 2 ORDER BY 1, 2";
+            assertEquals(rows(s, truth), rows(s, stats));
+            assertEquals(List.of("Math|200|2|2|0|6.0"), rows(s, stats));
+        }
+    }
+
+    @Test @DisplayName("Search matches still point at the right students after a VACUUM")
+    void searchSurvivesVacuum() throws SQLException {
+        SchemaMigrations.migrate(conn);
+        try (Statement s = conn.createStatement()) {
+            insert(s, "'S1','Ama Mensah','CS',100,3.0,'a@u.edu','0241234567','2024-01-01','ACTIVE'");
+            insert(s, "'S2','Kofi Owusu','CS',100,3.0,'k@u.edu','0241234567','2024-01-01','ACTIVE'");
+            insert(s, "'S3','Yaw Boateng','CS',100,3.0,'y@u.edu','0241234567','2024-01-01','ACTIVE'");
+            insert(s, "'S4','Esi Boateng','CS',100,3.0,'e@u.edu','0241234567','2024-01-01','ACTIVE'");
+            s.execute("DELETE FROM students WHERE student_id IN ('S1','S2')");
+            s.execute("VACUUM");
+            List<String> ids = new ArrayList<>();
+            try (ResultSet rs = s.executeQuery("SELECT s.student_id FROM students_fts f JOIN students s ON s.id=f.rowid "
+                    + "WHERE students_fts MATCH '\"boateng\"' ORDER BY 1")) {
+                while (rs.next()) ids.add(rs.getString(1));
+            }
+            assertEquals(List.of("S3", "S4"), ids);
+            s.execute("INSERT INTO students_fts(students_fts) VALUES ('integrity-check')");
+        }
+    }
+
+    @Test @DisplayName("Re-keying keeps existing rows, their search entries and the aggregates")
+    void rekeyKeepsRows() throws SQLException {
+        try (Statement s = conn.createStatement()) {
+            s.execute("CREATE TABLE students (student_id TEXT PRIMARY KEY, full_name TEXT NOT NULL, programme TEXT NOT NULL, "
+                    + "level INTEGER NOT NULL, gpa REAL NOT NULL, email TEXT NOT NULL, phone_number TEXT NOT NULL, "
+                    + "date_added TEXT NOT NULL, status TEXT NOT NULL DEFAULT 'ACTIVE')");
+            s.execute("INSERT INTO students VALUES ('S1','Kwame Mensah','CS',100,3.1,'k@u.edu','0241234567','2024-01-01','ACTIVE')");
+            s.execute("INSERT INTO students VALUES ('S2','Ama Owusu','Law',200,2.5,'a@u.edu','0241234567','2024-01-01','INACTIVE')");
+        }
+        SchemaMigrations.migrate(conn);
+        try (Statement s = conn.createStatement()) {
+            assertEquals(List.of("CS|100|1|1|0|3.1", "Law|200|1|0|1|2.5"),
+                    rows(s, "SELECT programme, level, total, active, inactive, gpa_sum FROM student_stats ORDER BY 1, 2"));
+            try (ResultSet rs = s.executeQuery("SELECT s.student_id FROM students_fts f JOIN students s ON s.id=f.rowid WHERE students_fts MATCH '\"owus\"'")) {
+                assertTrue(rs.next());
+                assertEquals("S2", rs.getString(1));
+            }
+            assertThrows(SQLException.class, () -> insert(s, "'S1','Dup','CS',100,3.0,'d@u.edu','0241234567','2024-01-01','ACTIVE'"));
+        }
+        assertUsesIndex("idx_students_name", "SELECT * FROM students ORDER BY full_name ASC");
+    }
+
+    private static void insert(Statement s, String values) throws SQLException {
+        s.execute("INSERT INTO students (student_id, full_name, programme, level, gpa, email, phone_number, date_added, status) VALUES (" + values + ")");
+    }
+
+    private static List<String> rows(Statement s, String sql) throws SQLException {
+        List<String> out = new ArrayList<>();
+        try (ResultSet rs = s.executeQuery(sql)) {
+            while (rs.next()) out.add(rs.getString(1) + "|" + rs.getInt(2) + "|" + rs.getInt(3) + "|" + rs.getInt(4) + "|" + rs.getInt(5) + "|" + rs.getDouble(6));
+        }
+        return out;
+    }
+}
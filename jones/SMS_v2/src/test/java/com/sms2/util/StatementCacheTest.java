@@ -0,0 +1,165 @@
+package com.sms2.util;
+
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.lang.reflect.*;
+import java.nio.file.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the cache over a real connection to a throwaway database. The connection is wrapped so the
+ * tests can see each statement the driver actually prepared and what the cache called on it.
+ */
+class StatementCacheTest {
+    private static final String A = "SELECT x FROM t WHERE x >= ?";
+    private static final String B = "SELECT x FROM t WHERE x < ?";
+    private static final String C = "SELECT COUNT(*) FROM t WHERE x <> ?";
+
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+    private final List<PreparedStatement> prepared = new ArrayList<>();
+    private final List<String> calls = new ArrayList<>();
+    private Path dir;
+    private Connection physical;
+
+    @BeforeEach void setUp() throws Exception {
+        dir = Files.createTempDirectory("stmt-cache");
+        physical = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("cache.db"));
+        try (Statement s = physical.createStatement()) {
+            s.execute("CREATE TABLE t(x INTEGER)");
+            s.execute("INSERT INTO t VALUES (1)");
+            s.execute("INSERT INTO t VALUES (2)");
+            s.execute("INSERT INTO t VALUES (3)");
+        }
+    }
+
+    @AfterEach void tearDown() throws Exception {
+        physical.close();
+        try (var files = Files.list(dir)) { for (Path p : files.toList()) Files.delete(p); }
+        Files.delete(dir);
+    }
+
+    @Test @DisplayName("A full cache closes its least recently used statement")
+    void evictionClosesLeastRecentlyUsed() throws SQLException {
+        StatementCache cache = cache(2);
+        cache.prepare(A).close();
+        cache.prepare(B).close();
+        cache.prepare(A).close();
+        cache.prepare(C).close();
+        assertEquals(3, prepared.size());
+        assertFalse(prepared.get(0).isClosed());
+        assertTrue(prepared.get(1).isClosed(), "B was least recently used");
+        assertFalse(prepared.get(2).isClosed());
+        assertEquals(1, hits.sum());
+        assertEquals(3, misses.sum());
+    }
+
+    @Test @DisplayName("A statement evicted while in use stays usable and is closed when handed back")
+    void evictionWaitsForInUse() throws SQLException {
+        StatementCache cache = cache(1);
+        PreparedStatement a = cache.prepare(A);
+        cache.prepare(B).close();
+        assertFalse(prepared.get(0).isClosed());
+        a.setInt(1, 2);
+        try (ResultSet rs = a.executeQuery()) { assertTrue(rs.next()); }
+        a.close();
+        assertTrue(prepared.get(0).isClosed());
+        assertNotSame(a, cache.prepare(A));
+        assertEquals(3, misses.sum());
+    }
+
+    @Test @DisplayName("With no capacity every statement is prepared fresh and closed on hand-back")
+    void zeroCapacity() throws SQLException {
+        StatementCache cache = cache(0);
+        PreparedStatement a = cache.prepare(A);
+        a.setInt(1, 3);
+        try (ResultSet rs = a.executeQuery()) { assertTrue(rs.next()); }
+        a.close();
+        assertTrue(prepared.get(0).isClosed());
+        cache.prepare(A).close();
+        assertEquals(2, prepared.size());
+        assertEquals(0, hits.sum());
+        assertEquals(2, misses.sum());
+    }
+
+    @Test @DisplayName("Handing a statement back closes its open result set and clears parameters and batch")
+    void giveBackResets() throws SQLException {
+        StatementCache cache = cache(4);
+        PreparedStatement a = cache.prepare(A);
+        a.setInt(1, 1);
+        ResultSet rs = a.executeQuery();
+        assertTrue(rs.next());
+        a.close();
+        assertTrue(rs.isClosed());
+        assertEquals(List.of("setInt", "executeQuery", "clearParameters", "clearBatch"), calls);
+        assertFalse(prepared.get(0).isClosed());
+        assertSame(a, cache.prepare(A));
+        assertEquals(1, hits.sum());
+    }
+
+    @Test @DisplayName("A handed-back statement refuses further use, and closing it twice resets it once")
+    void alreadyReturned() throws SQLException {
+        StatementCache cache = cache(4);
+        PreparedStatement a = cache.prepare(A);
+        a.close();
+        assertTrue(a.isClosed());
+        SQLException e = assertThrows(SQLException.class, () -> a.setInt(1, 1));
+        assertEquals("Statement already returned to the cache", e.getMessage());
+        assertThrows(SQLException.class, a::executeQuery);
+        a.close();
+        assertEquals(List.of("clearParameters", "clearBatch"), calls);
+    }
+
+    @Test @DisplayName("The same SQL opened twice gets an uncached second statement that really closes")
+    void sameSqlTwice() throws SQLException {
+        StatementCache cache = cache(4);
+        PreparedStatement a = cache.prepare(A), second = cache.prepare(A);
+        assertNotSame(a, second);
+        assertEquals(2, misses.sum());
+        second.close();
+        assertTrue(second.isClosed());
+        a.setInt(1, 1);
+        try (ResultSet rs = a.executeQuery()) { assertTrue(rs.next()); }
+        a.close();
+        assertSame(a, cache.prepare(A));
+        assertEquals(1, hits.sum());
+    }
+
+    @Test @DisplayName("closeAll closes idle statements now and in-use ones when they come back")
+    void closeAll() throws SQLException {
+        StatementCache cache = cache(4);
+        cache.prepare(A).close();
+        PreparedStatement b = cache.prepare(B);
+        cache.closeAll();
+        assertTrue(prepared.get(0).isClosed());
+        assertFalse(prepared.get(1).isClosed());
+        b.close();
+        assertTrue(prepared.get(1).isClosed());
+    }
+
+    // ── helpers ──
+
+    private StatementCache cache(int capacity) {
+        Connection recording = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (p, m, args) -> {
+            Object r = invoke(physical, m, args);
+            if (m.getName().equals("prepareStatement")) {
+                PreparedStatement ps = (PreparedStatement) r;
+                prepared.add(ps);
+                return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (q, n, a) -> {
+                    if (!n.getName().equals("isClosed") && !n.getName().equals("close")) calls.add(n.getName());
+                    return invoke(ps, n, a);
+                });
+            }
+            return r;
+        });
+        return new StatementCache(recording, capacity, hits, misses);
+    }
+
+    private static Object invoke(Object target, Method m, Object[] args) throws Throwable {
+        try { return m.invoke(target, args); }
+        catch (InvocationTargetException e) { throw e.getCause(); }
+    }
+}
@@ -0,0 +1,81 @@
+package com.sms2.util;
+
+import com.sms2.domain.Student;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The hand-written formatting must produce exactly what the old {@code printf} export did. */
+class StudentCsvWriterTest {
+
+    private Path file;
+
+    @BeforeEach void setUp() throws IOException { file = Files.createTempFile("students", ".csv"); }
+
+    @AfterEach void tearDown() throws IOException { Files.deleteIfExists(file); }
+
+    /** The pre-streaming export row: {@code printf} with the old quoting, with '\n' line ends. */
+    private static String printf(Student s) {
+        return String.format(Locale.ROOT, "%s,%s,%s,%d,%.2f,%s,%s,%s,%s\n",
+                esc(s.getStudentId()), esc(s.getFullName()), esc(s.getProgramme()),
+                s.getLevel(), s.getGpa(), esc(s.getEmail()),
+                esc(s.getPhoneNumber()), s.getDateAdded(), s.getStatus().name());
+    }
+
+    private static String esc(String v) {
+        if (v == null) return "";
+        if (v.contains(",") || v.contains("\"")) return "\"" + v.replace("\"", "\"\"") + "\"";
+        return v;
+    }
+
+    private String write(List<Student> students) throws IOException {
+        try (StudentCsvWriter w = new StudentCsvWriter(file)) { for (Student s : students) w.write(s); }
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    private static Student student(int i, double gpa) {
+        Student s = new Student("S" + i, "Name " + i, "CS", 100 * (1 + i % 7), gpa, "s" + i + "@u.edu", "0241234567");
+        s.setDateAdded(LocalDate.of(2000 + i % 30, 1 + i % 12, 1 + i % 28));
+        if (i % 3 == 0) s.setStatus(Student.StudentStatus.INACTIVE);
+        return s;
+    }
+
+    @Test @DisplayName("GPA rounding matches %.2f, including half-way and binary edge cases")
+    void gpaMatchesPrintf() throws IOException {
+        double[] edges = {0, 4, 0.005, 0.015, 0.125, 0.135, 1.005, 1.115, 2.675, 3.995, 3.999, 0.994999,
+                1e-7, 2.5e-3, 1.0 / 3, 2.0 / 3, 3.14159, Math.nextUp(3.995), Math.nextDown(3.995), -0.001, -0.0, -1.5, 12345.678};
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < edges.length; i++) students.add(student(i, edges[i]));
+        Random r = new Random(42);
+        for (int i = 0; i < 20_000; i++) students.add(student(i, r.nextInt(3) == 0 ? r.nextInt(401) / 100.0 : r.nextDouble() * 4));
+        StringBuilder want = new StringBuilder(StudentCsvWriter.HEADER).append('\n');
+        for (Student s : students) want.append(printf(s));
+        assertEquals(want.toString(), write(students));
+    }
+
+    @Test @DisplayName("Quoting, empty fields and dates match the old export")
+    void fieldsMatchPrintf() throws IOException {
+        Student a = student(1, 3.5);
+        a.setFullName("Mensah, Ama \"Ami\"");
+        a.setProgramme("Economics, Finance");
+        Student b = student(2, 2.25);
+        b.setEmail(null);
+        b.setDateAdded(LocalDate.of(999, 12, 31));
+        Student c = student(3, 1.0);
+        c.setDateAdded(LocalDate.of(12026, 2, 3));
+        String out = write(List.of(a, b, c));
+        assertEquals(StudentCsvWriter.HEADER + "\n" + printf(a) + printf(b) + printf(c), out);
+    }
+
+    @Test @DisplayName("Fields with line breaks are quoted so the file still parses")
+    void quotesLineBreaks() throws IOException {
+        Student s = student(4, 3.0);
+        s.setFullName("Ama\nMensah");
+        String out = write(List.of(s));
+        assertTrue(out.contains(",\"Ama\nMensah\","));
+    }
+}
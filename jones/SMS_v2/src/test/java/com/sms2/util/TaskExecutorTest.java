@@ -0,0 +1,61 @@
+package com.sms2.util;
+
+import org.junit.jupiter.api.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskExecutorTest {
+
+    @Test @DisplayName("Writes never run more than maxWriters at a time")
+    void limitsWriters() throws Exception {
+        TaskExecutor tasks = new TaskExecutor(2, 1);
+        AtomicInteger inside = new AtomicInteger(), most = new AtomicInteger();
+        List<Future<Integer>> done = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int n = i;
+            done.add(tasks.submitWrite(() -> {
+                most.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                Thread.sleep(2);
+                inside.decrementAndGet();
+                return n;
+            }));
+        }
+        for (int i = 0; i < done.size(); i++) assertEquals(i, (int) done.get(i).get(5, TimeUnit.SECONDS));
+        assertEquals(1, most.get());
+        assertTrue(tasks.shutdown(1_000));
+    }
+
+    @Test @DisplayName("Cancelling a task passed to run() interrupts its thread")
+    void cancelInterrupts() throws Exception {
+        TaskExecutor tasks = new TaskExecutor(1, 1);
+        CountDownLatch started = new CountDownLatch(1), interrupted = new CountDownLatch(1);
+        FutureTask<Void> task = tasks.run(new FutureTask<>(() -> {
+            started.countDown();
+            try { Thread.sleep(10_000); } catch (InterruptedException e) { interrupted.countDown(); }
+            return null;
+        }), true);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        task.cancel(true);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(tasks.shutdown(1_000));
+    }
+
+    @Test @DisplayName("Shutdown lets short tasks finish and interrupts ones that outlive the drain period")
+    void drainsThenInterrupts() throws Exception {
+        TaskExecutor tasks = new TaskExecutor(1, 1);
+        Future<String> quick = tasks.submitCpu(() -> { Thread.sleep(50); return "done"; });
+        CountDownLatch interrupted = new CountDownLatch(1);
+        tasks.submitIo(() -> {
+            try { Thread.sleep(10_000); } catch (InterruptedException e) { interrupted.countDown(); }
+            return null;
+        });
+        ScheduledFuture<?> tick = tasks.every(10, () -> {});
+        assertFalse(tasks.shutdown(200));
+        assertEquals("done", quick.get());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(tick.isCancelled() || tick.isDone());
+        assertThrows(RejectedExecutionException.class, () -> tasks.submitIo(() -> null));
+    }
+}